@@ -0,0 +1,81 @@
+package br.fatec.p2Cloud.benchmark;
+
+import br.fatec.p2Cloud.dto.AgendaResumo;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.service.AgendaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Listagem por período (consulta + projeção) e serialização Jackson das listas de agenda
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgendaBenchmark {
+
+    private AgendaService agendaService;
+    private LocalDateTime inicioSemana;
+    private LocalDateTime fimSemana;
+
+    // Listas montadas em memória; o @Param só multiplica os benchmarks de serialização
+    @State(Scope.Benchmark)
+    public static class Listas {
+
+        @Param({"100", "1000"})
+        private int tamanho;
+
+        private ObjectMapper objectMapper;
+        private List<Agenda> agendas;
+        private List<AgendaResumo> resumos;
+
+        @Setup
+        public void preparar(ContextoBenchmark contexto) {
+            objectMapper = contexto.bean(ObjectMapper.class);
+            Random random = new Random(11);
+            agendas = new ArrayList<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                Agenda agenda = contexto.novaAgenda(ContextoBenchmark.PRIMEIRO_DIA.atTime(9, 0).plusMinutes(i), random);
+                agenda.setId((long) i + 1);
+                agendas.add(agenda);
+            }
+            resumos = agendas.stream()
+                    .map(agenda -> new AgendaResumo(agenda.getId(), agenda.getData(), agenda.getDescricao(), agenda.getFuncionario(),
+                            agenda.getBarbearia().getId(), agenda.getBarbearia().getNome(),
+                            agenda.getCliente().getId(), agenda.getCliente().getNome(), agenda.getCliente().getCpf(),
+                            agenda.getCliente().getTelefone(), agenda.getServico().getId(), agenda.getServico().getNome(),
+                            agenda.getServico().getValor(), agenda.getServico().getDuracao()))
+                    .toList();
+        }
+    }
+
+    @Setup
+    public void preparar(ContextoBenchmark contexto) {
+        agendaService = contexto.bean(AgendaService.class);
+        inicioSemana = ContextoBenchmark.PRIMEIRO_DIA.plusDays(7).atStartOfDay();
+        fimSemana = inicioSemana.plusDays(7);
+    }
+
+    @Benchmark
+    public byte[] serializarAgendas(Listas listas) throws Exception {
+        return listas.objectMapper.writeValueAsBytes(listas.agendas);
+    }
+
+    @Benchmark
+    public byte[] serializarResumos(Listas listas) throws Exception {
+        return listas.objectMapper.writeValueAsBytes(listas.resumos);
+    }
+
+    // Uma semana de agenda (cerca de 700 linhas)
+    @Benchmark
+    public List<AgendaResumo> findByDataBetween() {
+        return agendaService.findByDataBetween(inicioSemana, fimSemana);
+    }
+}
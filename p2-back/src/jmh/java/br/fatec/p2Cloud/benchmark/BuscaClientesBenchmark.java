@@ -0,0 +1,128 @@
+package br.fatec.p2Cloud.benchmark;
+
+import br.fatec.p2Cloud.P2CloudApplication;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.service.ClienteService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Typeahead de clientes (GET /api/clientes/search) numa tabela grande, com latência por chamada
+// (p50/p99 no relatório do JMH). Os nomes se repetem como numa base real: "ana" começa milhares de
+// nomes e aparece no meio de outros tantos. Por padrão roda no H2; para medir no PostgreSQL, com
+// os índices das migrações, aponte para um banco vazio:
+//   ./mvnw -Pjmh test-compile exec:exec -Djmh.args="BuscaClientes -jvmArgsAppend -Dbenchmark.url=jdbc:postgresql://localhost:5432/p2cloud_bench"
+// (usuário e senha em -Dbenchmark.usuario e -Dbenchmark.senha)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BuscaClientesBenchmark {
+
+    private static final List<String> NOMES = List.of("Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe",
+            "Gabriela", "Henrique", "Isabela", "João", "Juliana", "Lucas", "Mariana", "Mateus", "Luana", "Pedro",
+            "Rafaela", "Rodrigo", "Adriana", "Thiago");
+    private static final List<String> SOBRENOMES = List.of("Silva", "Santos", "Oliveira", "Souza", "Rodrigues",
+            "Ferreira", "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida",
+            "Lopes", "Soares", "Fernandes", "Vieira", "Santana");
+
+    @Param({"200000"})
+    private int clientes;
+
+    private ConfigurableApplicationContext contexto;
+    private ClienteService clienteService;
+    private Long barbeariaId;
+
+    @Setup
+    public void iniciar() {
+        List<String> argumentos = new ArrayList<>(List.of("--logging.level.root=WARN",
+                "--spring.jpa.properties.hibernate.generate_statistics=false"));
+        String url = System.getProperty("benchmark.url");
+        if (url != null) {
+            argumentos.addAll(List.of("--spring.datasource.url=" + url,
+                    "--spring.datasource.username=" + System.getProperty("benchmark.usuario", "postgres"),
+                    "--spring.datasource.password=" + System.getProperty("benchmark.senha", "postgres"),
+                    "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                    "--spring.jpa.hibernate.ddl-auto=validate",
+                    "--spring.flyway.enabled=true"));
+        }
+        contexto = new SpringApplicationBuilder(P2CloudApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(argumentos.toArray(String[]::new));
+        clienteService = contexto.getBean(ClienteService.class);
+        popular();
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    // Começo do nome: a primeira faixa enche o limite
+    @Benchmark
+    public List<Cliente> prefixoCurto() {
+        return clienteService.buscar("ana", null, null);
+    }
+
+    @Benchmark
+    public List<Cliente> prefixoCurtoNaBarbearia() {
+        return clienteService.buscar("ana", barbeariaId, null);
+    }
+
+    // Começo do sobrenome: nenhum nome começa assim, vem da segunda faixa
+    @Benchmark
+    public List<Cliente> sobrenome() {
+        return clienteService.buscar("sant", null, null);
+    }
+
+    // Telefone parcial, só no meio do texto
+    @Benchmark
+    public List<Cliente> trechoDoTelefone() {
+        return clienteService.buscar("98765", null, null);
+    }
+
+    // No PostgreSQL o banco sobrevive entre os benchmarks: a massa só é gerada na primeira vez
+    private void popular() {
+        ClienteRepository clienteRepository = contexto.getBean(ClienteRepository.class);
+        BarbeariaRepository barbeariaRepository = contexto.getBean(BarbeariaRepository.class);
+        if (clienteRepository.count() >= clientes) {
+            barbeariaId = barbeariaRepository.findAll().get(0).getId();
+            return;
+        }
+        List<Barbearia> barbearias = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            barbearias.add(barbeariaRepository.save(new Barbearia("Busca " + i, null, null, null, null)));
+        }
+        barbeariaId = barbearias.get(0).getId();
+        Random random = new Random(11);
+        List<Cliente> lote = new ArrayList<>(5000);
+        for (int i = 0; i < clientes; i++) {
+            String nome = NOMES.get(random.nextInt(NOMES.size())) + " " + SOBRENOMES.get(random.nextInt(SOBRENOMES.size()));
+            Cliente cliente = new Cliente(nome, null, String.format("119%08d", random.nextInt(100_000_000)),
+                    "cliente" + i + "@email.com", null);
+            cliente.setBarbearia(barbearias.get(i % barbearias.size()));
+            lote.add(cliente);
+            if (lote.size() == 5000 || i == clientes - 1) {
+                clienteRepository.saveAll(lote);
+                lote.clear();
+            }
+        }
+        if (System.getProperty("benchmark.url") != null) {
+            contexto.getBean(JdbcTemplate.class).execute("analyze clientes");
+        }
+    }
+}
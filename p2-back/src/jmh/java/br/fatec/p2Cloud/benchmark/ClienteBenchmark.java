@@ -0,0 +1,34 @@
+package br.fatec.p2Cloud.benchmark;
+
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.service.ClienteService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cadastro de cliente, incluindo a consulta de unicidade do CPF; cada chamada usa um CPF novo
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteBenchmark {
+
+    private final AtomicLong proximoCpf = new AtomicLong(ContextoBenchmark.CLIENTES);
+
+    private ClienteService clienteService;
+
+    @Setup
+    public void preparar(ContextoBenchmark contexto) {
+        clienteService = contexto.bean(ClienteService.class);
+    }
+
+    @Benchmark
+    public Cliente save() {
+        long numero = proximoCpf.getAndIncrement();
+        return clienteService.save(new Cliente("Cliente " + numero, String.format("%011d", numero),
+                "11999990000", "novo" + numero + "@email.com", null));
+    }
+}
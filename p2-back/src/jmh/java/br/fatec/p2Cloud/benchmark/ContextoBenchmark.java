@@ -0,0 +1,115 @@
+package br.fatec.p2Cloud.benchmark;
+
+import br.fatec.p2Cloud.P2CloudApplication;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Sobe a aplicação sem servidor web, no perfil de teste (H2 em memória), e gera a massa de dados
+// usada pelos benchmarks: uma barbearia com 5 serviços, 500 clientes e 5000 agendas em 50 dias.
+@State(Scope.Benchmark)
+public class ContextoBenchmark {
+
+    public static final int CLIENTES = 500;
+    public static final int AGENDAS = 5000;
+    public static final int DIAS = 50;
+    public static final LocalDate PRIMEIRO_DIA = LocalDate.now().plusDays(1);
+    public static final List<String> FUNCIONARIOS = List.of("Ana", "Bruno", "Carla", "Diego");
+
+    private ConfigurableApplicationContext contexto;
+    private Barbearia barbearia;
+    private List<Servico> servicos;
+    private List<Cliente> clientes;
+
+    @Setup
+    public void iniciar() {
+        // Argumentos de linha de comando para vencer o application-test.properties; o que os
+        // próprios benchmarks logam (os tamanhos do FormatosBenchmark) continua aparecendo
+        contexto = new SpringApplicationBuilder(P2CloudApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--logging.level.root=WARN",
+                        "--logging.level.br.fatec.p2Cloud.benchmark=INFO",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false");
+        popular();
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    public Barbearia getBarbearia() {
+        return barbearia;
+    }
+
+    public List<Servico> getServicos() {
+        return servicos;
+    }
+
+    public List<Cliente> getClientes() {
+        return clientes;
+    }
+
+    private void popular() {
+        Random random = new Random(7);
+        barbearia = bean(BarbeariaRepository.class).save(
+                new Barbearia("Benchmark", "11.222.333/0001-81", "1133334444", "contato@benchmark.com", "Rua das Tesouras, 100"));
+
+        servicos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Servico servico = new Servico("Serviço " + i, 30.0 + 5 * i, FUNCIONARIOS, 30 + 15 * (i % 3), "Descrição " + i);
+            servico.setBarbearia(barbearia);
+            servicos.add(servico);
+        }
+        servicos = bean(ServicoRepository.class).saveAll(servicos);
+
+        clientes = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente("Cliente " + i, String.format("%011d", i), "119" + String.format("%08d", i),
+                    "cliente" + i + "@email.com", "Rua " + i);
+            cliente.setBarbearia(barbearia);
+            clientes.add(cliente);
+        }
+        clientes = bean(ClienteRepository.class).saveAll(clientes);
+
+        List<Agenda> agendas = new ArrayList<>(AGENDAS);
+        for (int i = 0; i < AGENDAS; i++) {
+            LocalDateTime data = PRIMEIRO_DIA.plusDays(i % DIAS).atTime(8, 0).plusMinutes(5L * random.nextInt(144));
+            agendas.add(novaAgenda(data, random));
+        }
+        bean(AgendaRepository.class).saveAll(agendas);
+    }
+
+    // Agenda com barbearia, cliente e serviço preenchidos, como as que a API devolve
+    public Agenda novaAgenda(LocalDateTime data, Random random) {
+        Agenda agenda = new Agenda(data, "Agendamento gerado para benchmark");
+        agenda.setBarbearia(barbearia);
+        agenda.setCliente(clientes.get(random.nextInt(clientes.size())));
+        agenda.setServico(servicos.get(random.nextInt(servicos.size())));
+        agenda.setFuncionario(FUNCIONARIOS.get(random.nextInt(FUNCIONARIOS.size())));
+        return agenda;
+    }
+}
@@ -0,0 +1,55 @@
+package br.fatec.p2Cloud.benchmark;
+
+import br.fatec.p2Cloud.dto.Disponibilidade;
+import br.fatec.p2Cloud.dto.HorarioLivre;
+import br.fatec.p2Cloud.service.DisponibilidadeService;
+import br.fatec.p2Cloud.service.OcupacaoAgenda;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cálculo de horários livres sobre a grade em memória (dias já carregados)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DisponibilidadeBenchmark {
+
+    private DisponibilidadeService disponibilidadeService;
+    private OcupacaoAgenda ocupacaoAgenda;
+    private Long barbeariaId;
+    private Long servicoId;
+    private int dia;
+
+    @Setup
+    public void preparar(ContextoBenchmark contexto) {
+        disponibilidadeService = contexto.bean(DisponibilidadeService.class);
+        ocupacaoAgenda = contexto.bean(OcupacaoAgenda.class);
+        barbeariaId = contexto.getBarbearia().getId();
+        servicoId = contexto.getServicos().get(0).getId();
+    }
+
+    private LocalDate proximoDia() {
+        dia = (dia + 1) % ContextoBenchmark.DIAS;
+        return ContextoBenchmark.PRIMEIRO_DIA.plusDays(dia);
+    }
+
+    // Só a varredura da grade, sem a busca do serviço
+    @Benchmark
+    public List<HorarioLivre> horariosLivres() {
+        return ocupacaoAgenda.horariosLivres(barbeariaId, proximoDia(), ContextoBenchmark.FUNCIONARIOS, 45,
+                LocalTime.of(8, 0), LocalTime.of(20, 0), LocalDateTime.now());
+    }
+
+    // Caminho completo do endpoint de disponibilidade
+    @Benchmark
+    public Disponibilidade calcular() {
+        return disponibilidadeService.calcular(barbeariaId, servicoId, proximoDia());
+    }
+}
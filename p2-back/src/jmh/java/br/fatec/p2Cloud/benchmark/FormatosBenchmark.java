@@ -0,0 +1,123 @@
+package br.fatec.p2Cloud.benchmark;
+
+import br.fatec.p2Cloud.model.Agenda;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Listas de agendas completas (barbearia, cliente e serviço embutidos) em JSON e CBOR, com e sem gzip.
+// codificar* é o custo do servidor, com os ObjectMappers da aplicação; decodificar* é o do cliente,
+// para uma árvore genérica, como faria um app sem as classes do modelo. Os tamanhos vão para o log
+// no setup de cada tamanho de lista
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FormatosBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(FormatosBenchmark.class);
+
+    @Param({"1000", "10000", "100000"})
+    private int agendas;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private final ObjectMapper clienteJson = new ObjectMapper();
+    private final ObjectMapper clienteCbor = new CBORMapper();
+
+    private List<Agenda> lista;
+    private byte[] emJson;
+    private byte[] emCbor;
+    private byte[] emJsonGzip;
+    private byte[] emCborGzip;
+
+    @Setup
+    public void preparar(ContextoBenchmark contexto) throws IOException {
+        json = contexto.bean(ObjectMapper.class);
+        cbor = contexto.bean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+        Random random = new Random(13);
+        lista = new ArrayList<>(agendas);
+        for (int i = 0; i < agendas; i++) {
+            Agenda agenda = contexto.novaAgenda(
+                    ContextoBenchmark.PRIMEIRO_DIA.atTime(8, 0).plusMinutes(5L * (i % 144)).plusDays(i / 144), random);
+            agenda.setId((long) i + 1);
+            lista.add(agenda);
+        }
+        emJson = json.writeValueAsBytes(lista);
+        emCbor = cbor.writeValueAsBytes(lista);
+        emJsonGzip = gzip(emJson);
+        emCborGzip = gzip(emCbor);
+        log.info("{} agendas: json {} bytes (gzip {}), cbor {} bytes (gzip {})",
+                agendas, emJson.length, emJsonGzip.length, emCbor.length, emCborGzip.length);
+    }
+
+    @Benchmark
+    public byte[] codificarJson() throws IOException {
+        return json.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public byte[] codificarCbor() throws IOException {
+        return cbor.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public byte[] codificarJsonGzip() throws IOException {
+        return gzip(json.writeValueAsBytes(lista));
+    }
+
+    @Benchmark
+    public byte[] codificarCborGzip() throws IOException {
+        return gzip(cbor.writeValueAsBytes(lista));
+    }
+
+    @Benchmark
+    public JsonNode decodificarJson() throws IOException {
+        return clienteJson.readTree(emJson);
+    }
+
+    @Benchmark
+    public JsonNode decodificarCbor() throws IOException {
+        return clienteCbor.readTree(emCbor);
+    }
+
+    @Benchmark
+    public JsonNode decodificarJsonGzip() throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(emJsonGzip))) {
+            return clienteJson.readTree(entrada);
+        }
+    }
+
+    @Benchmark
+    public JsonNode decodificarCborGzip() throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(emCborGzip))) {
+            return clienteCbor.readTree(entrada);
+        }
+    }
+
+    // Nível padrão do Deflater, o mesmo da compressão do Tomcat
+    private static byte[] gzip(byte[] corpo) throws IOException {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(corpo.length / 4);
+        try (GZIPOutputStream saida = new GZIPOutputStream(comprimido)) {
+            saida.write(corpo);
+        }
+        return comprimido.toByteArray();
+    }
+}
@@ -0,0 +1,43 @@
+package br.fatec.p2Cloud.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+// Cache em processo do catálogo (barbearias e serviços). Tamanho e validade vêm de
+// app.cache.spec; as invalidações só acontecem depois do commit da gravação.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BARBEARIAS = "barbearias";
+    public static final String BARBEARIAS_PAGINA = "barbearias-pagina";
+    public static final String BARBEARIAS_CNPJ = "barbearias-cnpj";
+    public static final String SERVICOS_BARBEARIA = "servicos-barbearia";
+    // Bytes das respostas já serializadas (RespostasSerializadas), limitado pelo total de bytes
+    public static final String RESPOSTAS = "respostas";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.spec:maximumSize=2000,expireAfterWrite=10m,recordStats}") String spec,
+                                     @Value("${app.respostas.max-bytes:16MB}") DataSize maxBytesRespostas) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        caffeine.setCacheSpecification(spec);
+        caffeine.setCacheNames(List.of(BARBEARIAS, BARBEARIAS_PAGINA, BARBEARIAS_CNPJ, SERVICOS_BARBEARIA));
+        caffeine.registerCustomCache(RESPOSTAS, Caffeine.newBuilder()
+                .maximumWeight(maxBytesRespostas.toBytes())
+                .weigher(RespostasSerializadas::peso)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
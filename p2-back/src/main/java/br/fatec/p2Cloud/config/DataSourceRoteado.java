@@ -0,0 +1,78 @@
+package br.fatec.p2Cloud.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// DataSource com réplicas de leitura. A conexão só é obtida no primeiro comando SQL, quando a
+// transação já marcou a conexão como somente leitura (@Transactional(readOnly = true)); aí ela vem
+// de uma réplica, em rodízio. Escritas e transações read-write usam sempre o primário.
+public class DataSourceRoteado extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARIO = "primario";
+
+    // Leituras que não podem ver uma réplica atrasada: logo depois de uma escrita do mesmo
+    // cliente (LeituraAposEscritaFilter) ou quando o resultado fica em memória (@LeituraPrimaria)
+    private static final ThreadLocal<Boolean> primarioObrigatorio = ThreadLocal.withInitial(() -> false);
+
+    private final HikariDataSource primario;
+    private final List<HikariDataSource> replicas;
+
+    public DataSourceRoteado(HikariDataSource primario, List<HikariDataSource> replicas) {
+        super(primario);
+        this.primario = primario;
+        this.replicas = replicas;
+        setReadOnlyDataSource(new Leituras());
+    }
+
+    // Devolve o valor anterior para quem chamou restaurar no finally
+    public static boolean exigirPrimario(boolean exigir) {
+        boolean anterior = primarioObrigatorio.get();
+        primarioObrigatorio.set(exigir);
+        return anterior;
+    }
+
+    public static boolean isPrimarioObrigatorio() {
+        return primarioObrigatorio.get();
+    }
+
+    public List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primario.close();
+    }
+
+    private class Leituras extends AbstractRoutingDataSource {
+
+        private final AtomicInteger proxima = new AtomicInteger();
+
+        Leituras() {
+            Map<Object, Object> destinos = new HashMap<>();
+            destinos.put(PRIMARIO, primario);
+            for (int i = 0; i < replicas.size(); i++) {
+                destinos.put(i, replicas.get(i));
+            }
+            setTargetDataSources(destinos);
+            setLenientFallback(false);
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (primarioObrigatorio.get()) {
+                return PRIMARIO;
+            }
+            return Math.floorMod(proxima.getAndIncrement(), replicas.size());
+        }
+    }
+}
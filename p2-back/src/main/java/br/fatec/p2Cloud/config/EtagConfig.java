@@ -0,0 +1,30 @@
+package br.fatec.p2Cloud.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// ETags das leituras da API (@Versionado)
+@Configuration
+public class EtagConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private VersoesRecursos versoes;
+
+    @Value("${app.datasource.replicas.urls:}")
+    private String replicas;
+
+    // Mesmo atraso da leitura-após-escrita (ReplicasConfig)
+    @Value("${app.datasource.replicas.atraso-maximo:PT5S}")
+    private Duration atrasoReplicas;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Duration atraso = replicas.isBlank() ? Duration.ZERO : atrasoReplicas;
+        registry.addInterceptor(new EtagInterceptor(versoes, atraso)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,90 @@
+package br.fatec.p2Cloud.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+
+// GET condicional dos métodos @Versionado: o ETag vem da versão em memória do recurso, sem consultar
+// o banco nem serializar nada. If-None-Match igual responde 304 antes de chegar ao controller.
+public class EtagInterceptor implements HandlerInterceptor {
+
+    private final VersoesRecursos versoes;
+    private final Duration atrasoReplicas;
+
+    public EtagInterceptor(VersoesRecursos versoes, Duration atrasoReplicas) {
+        this.versoes = versoes;
+        this.atrasoReplicas = atrasoReplicas;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod metodo) || !isLeitura(request)) {
+            return true;
+        }
+        Versionado versionado = metodo.getMethodAnnotation(Versionado.class);
+        if (versionado == null) {
+            return true;
+        }
+        // JSON ou CBOR conforme o Accept
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        Long barbeariaId = barbeariaId(request, versionado.barbearia());
+        long versao = versoes.versao(versionado.value(), barbeariaId);
+        // Versão mais nova que o atraso das réplicas: uma réplica ainda pode devolver o dado anterior,
+        // que ficaria guardado no cliente com o ETag novo. Até lá a resposta vai sem ETag
+        if (System.currentTimeMillis() - versao < atrasoReplicas.toMillis()) {
+            return true;
+        }
+        String etag = versoes.etag(versao, NegociacaoFormato.prefereCbor(request) ? "cbor" : null);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // O cliente pode guardar, mas sempre confirma a versão antes de usar
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (corresponde(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isLeitura(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private static Long barbeariaId(HttpServletRequest request, String variavel) {
+        if (variavel.isEmpty()) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variaveis = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        try {
+            return variaveis != null ? Long.valueOf(variaveis.get(variavel)) : null;
+        } catch (NumberFormatException e) {
+            // O controller responde 400 para o id inválido
+            return null;
+        }
+    }
+
+    // If-None-Match pode trazer uma lista de ETags, "*" ou ETags com ou sem W/ (comparação fraca)
+    private static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        etag = etag.substring(2);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package br.fatec.p2Cloud.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Leia-o-que-escreveu com réplicas: toda requisição de escrita devolve um cookie com o instante
+// da escrita, e enquanto ele for mais novo que o atraso máximo das réplicas as leituras daquele
+// cliente vão para o primário. A própria requisição de escrita também lê só do primário.
+public class LeituraAposEscritaFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "p2-escrita";
+
+    private final Duration atrasoMaximo;
+
+    public LeituraAposEscritaFilter(Duration atrasoMaximo) {
+        this.atrasoMaximo = atrasoMaximo;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean escrita = switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS", "TRACE" -> false;
+            default -> true;
+        };
+        long agora = System.currentTimeMillis();
+        if (escrita) {
+            // Antes da cadeia: depois dela a resposta pode já ter sido enviada
+            Cookie cookie = new Cookie(COOKIE, Long.toString(agora));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, atrasoMaximo.toSeconds()));
+            response.addCookie(cookie);
+        }
+        boolean anterior = DataSourceRoteado.exigirPrimario(escrita || escritaRecente(request, agora));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRoteado.exigirPrimario(anterior);
+        }
+    }
+
+    private boolean escritaRecente(HttpServletRequest request, long agora) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return agora - Long.parseLong(cookie.getValue()) < atrasoMaximo.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package br.fatec.p2Cloud.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Leitura somente leitura que deve ir ao primário mesmo com réplicas configuradas: o resultado
+// fica em cache/memória e uma réplica atrasada deixaria um valor velho guardado até expirar.
+// Sem réplicas (ReplicasConfig desligada) não tem efeito.
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LeituraPrimaria {
+}
@@ -0,0 +1,107 @@
+package br.fatec.p2Cloud.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Semáforo na frente do pool: no máximo "permissoes" conexões em uso ao mesmo tempo. Com threads
+// virtuais não há limite de threads de requisição, então a fila de espera fica aqui (justa e com
+// prazo) em vez de milhares de threads disputando o Hikari. A permissão volta no close() da conexão.
+public class LimitadorConexoes extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final int limite;
+    private final Duration espera;
+
+    public LimitadorConexoes(DataSource alvo, int limite, Duration espera) {
+        super(alvo);
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite de conexões deve ser maior que zero");
+        }
+        this.permissoes = new Semaphore(limite, true);
+        this.limite = limite;
+        this.espera = espera;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return limitar(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return limitar(() -> super.getConnection(username, password));
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public int getDisponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    public int getAguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        boolean adquirida;
+        try {
+            adquirida = permissoes.tryAcquire(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        }
+        if (!adquirida) {
+            throw new SQLTransientConnectionException(
+                    "Limite de " + limite + " conexões simultâneas atingido (espera de " + espera + " esgotada)");
+        }
+    }
+
+    private Connection limitar(AberturaConexao abertura) throws SQLException {
+        Connection conexao;
+        try {
+            conexao = abertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+        AtomicBoolean devolvida = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    if ("close".equals(metodo.getName()) && metodo.getParameterCount() == 0) {
+                        try {
+                            conexao.close();
+                        } finally {
+                            // close() repetido não pode devolver a permissão duas vezes
+                            if (devolvida.compareAndSet(false, true)) {
+                                permissoes.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexao, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface AberturaConexao {
+        Connection abrir() throws SQLException;
+    }
+}
@@ -0,0 +1,121 @@
+package br.fatec.p2Cloud.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Observações (timer + span quando o tracing está ligado) para todo método público dos *Service e
+// *Repository. Fica por fora da transação, então o tempo do serviço inclui o commit. Nos repositórios
+// também registra quantas linhas voltaram e loga, por amostragem, as consultas acima do limite.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasAspect {
+
+    private static final Logger log = LoggerFactory.getLogger("br.fatec.p2Cloud.sql.lento");
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.observabilidade.consulta-lenta:PT0.2S}")
+    private Duration consultaLenta;
+
+    @Value("${app.observabilidade.amostragem-lentas:0.1}")
+    private double amostragemLentas;
+
+    private final Map<Class<?>, String> nomes = new ConcurrentHashMap<>();
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * br.fatec.p2Cloud.service..*(..))")
+    public Object observarServico(ProceedingJoinPoint ponto) throws Throwable {
+        return observar("app.service", nomes.computeIfAbsent(ponto.getTarget().getClass(),
+                classe -> ClassUtils.getUserClass(classe).getSimpleName()), ponto);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object observarRepositorio(ProceedingJoinPoint ponto) throws Throwable {
+        String repositorio = nomes.computeIfAbsent(ponto.getTarget().getClass(), MetricasAspect::nomeRepositorio);
+        String metodo = ponto.getSignature().getName();
+        long inicio = System.nanoTime();
+        Object resultado = observar("app.repository", repositorio, ponto);
+        long duracao = System.nanoTime() - inicio;
+
+        Integer linhas = linhas(resultado);
+        if (linhas != null) {
+            DistributionSummary.builder("app.repository.linhas")
+                    .description("Linhas devolvidas por método de repositório")
+                    .tag("classe", repositorio)
+                    .tag("metodo", metodo)
+                    .register(meterRegistry)
+                    .record(linhas);
+        }
+        if (duracao >= consultaLenta.toNanos()) {
+            meterRegistry.counter("app.repository.lentas", "classe", repositorio, "metodo", metodo).increment();
+            if (ThreadLocalRandom.current().nextDouble() < amostragemLentas) {
+                log.warn("Consulta lenta: {}.{} levou {} ms ({} linhas)", repositorio, metodo,
+                        Duration.ofNanos(duracao).toMillis(), linhas != null ? linhas : "?");
+            }
+        }
+        return resultado;
+    }
+
+    private Object observar(String nome, String classe, ProceedingJoinPoint ponto) throws Throwable {
+        return Observation.createNotStarted(nome, observationRegistry)
+                .contextualName(classe + "." + ponto.getSignature().getName())
+                .lowCardinalityKeyValue("classe", classe)
+                .lowCardinalityKeyValue("metodo", ponto.getSignature().getName())
+                .observeChecked((Observation.CheckedCallable<Object, Throwable>) ponto::proceed);
+    }
+
+    // Repositórios são proxies do Spring Data; o nome útil é o da interface (AgendaRepository)
+    private static String nomeRepositorio(Class<?> classe) {
+        for (Class<?> interfaceRepositorio : ClassUtils.getAllInterfacesForClassAsSet(classe)) {
+            if (Repository.class.isAssignableFrom(interfaceRepositorio)
+                    && interfaceRepositorio.getPackageName().startsWith("br.fatec.p2Cloud")) {
+                return interfaceRepositorio.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(classe).getSimpleName();
+    }
+
+    // Streams não são contados (a leitura acontece depois do retorno); contagens e booleanos também não
+    private static Integer linhas(Object resultado) {
+        if (resultado instanceof Collection<?> colecao) {
+            return colecao.size();
+        }
+        if (resultado instanceof Slice<?> pagina) {
+            return pagina.getNumberOfElements();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        if (resultado == null || resultado instanceof Number || resultado instanceof Boolean
+                || resultado instanceof java.util.stream.BaseStream<?, ?>) {
+            return null;
+        }
+        return 1;
+    }
+}
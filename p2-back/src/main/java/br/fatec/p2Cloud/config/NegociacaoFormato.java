@@ -0,0 +1,86 @@
+package br.fatec.p2Cloud.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// JSON continua o padrão; com Accept: application/cbor as mesmas respostas vão em CBOR (binário,
+// sem nomes de campo repetidos como texto nem números e datas formatados), útil nos clientes móveis
+@Configuration
+public class NegociacaoFormato implements WebMvcConfigurer {
+
+    private static final HeaderContentNegotiationStrategy CABECALHO = new HeaderContentNegotiationStrategy();
+
+    // Mesmo builder do ObjectMapper do JSON (spring.jackson.*): as duas representações têm os mesmos
+    // campos. O Spring Boot põe este converter no lugar do CBOR padrão, depois do JSON, então
+    // Accept: */* continua recebendo JSON
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // A mesma regra vale para os converters do Spring MVC: quando o CBOR não é o preferido, ele sai da
+    // lista de tipos aceitos e o converter escolhido é o do JSON; quando é, a lista fica só com ele.
+    // Assim o corpo escrito pelos converters, o ETag (EtagInterceptor) e o corpo guardado
+    // (RespostasSerializadas) sempre concordam, inclusive em empates como "application/cbor, application/json"
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        configurer.strategies(List.of(NegociacaoFormato::tiposAceitos));
+    }
+
+    static List<MediaType> tiposAceitos(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> tipos = CABECALHO.resolveMediaTypes(request);
+        if (prefereCbor(tipos)) {
+            return List.of(MediaType.APPLICATION_CBOR);
+        }
+        List<MediaType> semCbor = tipos.stream().filter(tipo -> !MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(tipo)).toList();
+        return semCbor.isEmpty() ? tipos : semCbor;
+    }
+
+    // Para quem escreve a resposta sem passar pelos converters (RespostasSerializadas, ETags).
+    // CBOR só quando pedido com qualidade maior que a de um application/json explícito e
+    // pelo menos igual à de um curinga; em qualquer empate fica o JSON
+    public static boolean prefereCbor(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains("cbor")) {
+            return false;
+        }
+        try {
+            return prefereCbor(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean prefereCbor(List<MediaType> tipos) {
+        double cbor = 0;
+        double json = 0;
+        double curinga = 0;
+        for (MediaType tipo : tipos) {
+            double qualidade = tipo.getQualityValue();
+            if (tipo.isWildcardType() || tipo.isWildcardSubtype()) {
+                if (tipo.includes(MediaType.APPLICATION_JSON)) {
+                    curinga = Math.max(curinga, qualidade);
+                }
+            } else if (tipo.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                cbor = Math.max(cbor, qualidade);
+            } else if (tipo.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                json = Math.max(json, qualidade);
+            }
+        }
+        return cbor > 0 && cbor > json && cbor >= curinga;
+    }
+}
@@ -0,0 +1,48 @@
+package br.fatec.p2Cloud.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Executor das seções do painel (GET /api/barbearias/{id}/dashboard). Limitado abaixo do pool do
+// Hikari: cada seção segura uma conexão enquanto roda, e o painel não pode tomar todas as conexões
+// das outras requisições. Fila cheia recusa a seção, que vai como "indisponivel" no painel
+@Configuration
+public class PainelConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor painelExecutor(
+            @Value("${app.painel.threads:6}") int threads,
+            @Value("${app.painel.fila:100}") int fila,
+            @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("painel-");
+        executor.setVirtualThreads(threadsVirtuais);
+        executor.setTaskDecorator(contextoDaRequisicao());
+        return executor;
+    }
+
+    // Leva para a thread da seção o contexto de observação (trace) e a exigência de ler do
+    // primário (LeituraAposEscritaFilter), que são ThreadLocal da thread da requisição
+    private static TaskDecorator contextoDaRequisicao() {
+        TaskDecorator observacao = new ContextPropagatingTaskDecorator();
+        return tarefa -> {
+            Runnable comObservacao = observacao.decorate(tarefa);
+            boolean primario = DataSourceRoteado.isPrimarioObrigatorio();
+            return () -> {
+                boolean anterior = DataSourceRoteado.exigirPrimario(primario);
+                try {
+                    comObservacao.run();
+                } finally {
+                    DataSourceRoteado.exigirPrimario(anterior);
+                }
+            };
+        };
+    }
+}
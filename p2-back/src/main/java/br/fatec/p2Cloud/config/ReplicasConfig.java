@@ -0,0 +1,86 @@
+package br.fatec.p2Cloud.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Réplicas de leitura (opcional, app.datasource.replicas.urls separadas por vírgula). O primário
+// continua configurado por spring.datasource.*; cada réplica ganha um pool Hikari próprio com as
+// mesmas opções de spring.datasource.hikari. Sem réplicas o DataSource padrão do Boot é usado.
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReplicasConfig {
+
+    @Bean
+    public DataSourceRoteado dataSource(DataSourceProperties properties, Environment environment,
+                                        ObjectProvider<MeterRegistry> meterRegistry,
+                                        @Value("${app.datasource.replicas.urls}") List<String> urls,
+                                        @Value("${app.datasource.replicas.username:${spring.datasource.username:}}") String usuario,
+                                        @Value("${app.datasource.replicas.password:${spring.datasource.password:}}") String senha) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(usuario);
+            replica.setPassword(senha);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            // O pool do primário é medido pelo auto-config do actuator; as réplicas não são beans
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+        return new DataSourceRoteado(primario, replicas);
+    }
+
+    @Bean
+    public FilterRegistrationBean<LeituraAposEscritaFilter> leituraAposEscritaFilter(
+            @Value("${app.datasource.replicas.atraso-maximo:PT5S}") Duration atrasoMaximo) {
+        FilterRegistrationBean<LeituraAposEscritaFilter> registro =
+                new FilterRegistrationBean<>(new LeituraAposEscritaFilter(atrasoMaximo));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    @Bean
+    public LeituraPrimariaAspect leituraPrimariaAspect() {
+        return new LeituraPrimariaAspect();
+    }
+
+    @Aspect
+    static class LeituraPrimariaAspect {
+
+        @Around("@annotation(br.fatec.p2Cloud.config.LeituraPrimaria)")
+        public Object noPrimario(ProceedingJoinPoint ponto) throws Throwable {
+            boolean anterior = DataSourceRoteado.exigirPrimario(true);
+            try {
+                return ponto.proceed();
+            } finally {
+                DataSourceRoteado.exigirPrimario(anterior);
+            }
+        }
+    }
+}
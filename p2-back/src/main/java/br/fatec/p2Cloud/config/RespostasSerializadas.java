@@ -0,0 +1,122 @@
+package br.fatec.p2Cloud.config;
+
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Cache dos bytes já serializados (JSON em UTF-8 ou CBOR e, acima de um tamanho mínimo, a versão gzip)
+// das leituras do catálogo. Um acerto escreve o array guardado direto na resposta, sem consulta e sem
+// Jackson. As gravações de ServicoService e BarbeariaService limpam o cache depois do commit; a
+// versão do recurso guardada junto descarta o que um leitor concorrente tenha montado com dado velho.
+@Component
+public class RespostasSerializadas {
+
+    public static final String SERVICOS_BARBEARIA = "servicos-barbearia";
+    public static final String BARBEARIA = "barbearia";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cbor;
+
+    @Autowired
+    private VersoesRecursos versoes;
+
+    // Abaixo disso o gzip quase não reduz e custa mais para o cliente do que economiza
+    @Value("${app.respostas.gzip-minimo:1KB}")
+    private DataSize gzipMinimo;
+
+    private Cache<Chave, Resposta> cache;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void iniciar() {
+        cache = (Cache<Chave, Resposta>) cacheManager.getCache(CacheConfig.RESPOSTAS).getNativeCache();
+    }
+
+    // Responde 200 com o corpo guardado ou, na falta dele, com o que a consulta devolver (404 se vazio)
+    public void responder(String endpoint, Recurso recurso, Long barbeariaId, HttpServletRequest request,
+                          HttpServletResponse response, Supplier<Optional<?>> consulta) throws IOException {
+        Chave chave = new Chave(endpoint, barbeariaId, NegociacaoFormato.prefereCbor(request));
+        long versao = versoes.versao(recurso, barbeariaId);
+        Resposta resposta = cache.getIfPresent(chave);
+        if (resposta == null || resposta.versao() != versao) {
+            // A versão é lida antes da consulta: se uma gravação confirmar no meio, a entrada já nasce velha
+            Optional<?> valor = consulta.get();
+            if (valor.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            resposta = serializar(versao, valor.get(), chave.cbor());
+            cache.put(chave, resposta);
+        }
+        escrever(resposta, request, response);
+    }
+
+    static int peso(Object chave, Object valor) {
+        return valor instanceof Resposta resposta
+                ? resposta.corpo().length + (resposta.gzip() != null ? resposta.gzip().length : 0)
+                : 1;
+    }
+
+    private Resposta serializar(long versao, Object valor, boolean emCbor) throws IOException {
+        byte[] corpo = emCbor ? cbor.getObjectMapper().writeValueAsBytes(valor) : objectMapper.writeValueAsBytes(valor);
+        byte[] gzip = null;
+        if (corpo.length >= gzipMinimo.toBytes()) {
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(corpo.length / 4);
+            try (GZIPOutputStream saida = new GZIPOutputStream(comprimido)) {
+                saida.write(corpo);
+            }
+            gzip = comprimido.toByteArray();
+        }
+        return new Resposta(versao, emCbor ? MediaType.APPLICATION_CBOR_VALUE : MediaType.APPLICATION_JSON_VALUE,
+                corpo, gzip);
+    }
+
+    private static void escrever(Resposta resposta, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        byte[] corpo = resposta.corpo();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(resposta.tipo());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (resposta.gzip() != null && aceitaGzip(request)) {
+            // Com Content-Encoding já definido o Tomcat não comprime de novo
+            corpo = resposta.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(corpo.length);
+        response.getOutputStream().write(corpo);
+    }
+
+    private static boolean aceitaGzip(HttpServletRequest request) {
+        String aceitas = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return aceitas != null && aceitas.contains("gzip");
+    }
+
+    record Chave(String endpoint, Long barbeariaId, boolean cbor) {
+    }
+
+    record Resposta(long versao, String tipo, byte[] corpo, byte[] gzip) {
+    }
+}
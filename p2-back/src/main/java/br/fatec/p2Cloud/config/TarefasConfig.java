@@ -0,0 +1,29 @@
+package br.fatec.p2Cloud.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Habilita os @Scheduled da aplicação (manutenção de partições de agendas, retomada de exclusões)
+@Configuration
+@EnableScheduling
+public class TarefasConfig {
+
+    // Exclusões de barbearia (ExclusaoBarbeariaService). Poucas threads: cada exclusão é uma
+    // sequência de lotes sem pressa, que não deve disputar conexões com as requisições. O que for
+    // recusado pela fila continua PENDENTE no banco e entra na próxima verificação. Não substitui o
+    // applicationTaskExecutor do Spring MVC por causa do spring.task.execution.mode=force
+    @Bean
+    public ThreadPoolTaskExecutor exclusoesExecutor(
+            @Value("${app.exclusoes.threads:1}") int threads,
+            @Value("${app.exclusoes.fila:100}") int fila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("exclusao-");
+        return executor;
+    }
+}
@@ -0,0 +1,39 @@
+package br.fatec.p2Cloud.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+// Tempo limite de uma resposta assíncrona específica. O padrão (spring.mvc.async.request-timeout)
+// continua valendo para o resto; quem devolve um corpo longo, como o StreamingResponseBody da
+// exportação, chama definir() antes de responder. O valor é aplicado antes do startAsync
+@Configuration
+public class TempoLimiteAssincrono implements WebMvcConfigurer {
+
+    private static final String ATRIBUTO = TempoLimiteAssincrono.class.getName() + ".tempo";
+
+    public static void definir(HttpServletRequest request, Duration tempo) {
+        request.setAttribute(ATRIBUTO, tempo);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST) instanceof Duration tempo
+                        && request instanceof AsyncWebRequest assincrona) {
+                    assincrona.setTimeout(tempo.toMillis());
+                }
+            }
+        });
+    }
+}
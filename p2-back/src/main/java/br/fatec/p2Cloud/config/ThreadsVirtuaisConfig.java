@@ -0,0 +1,51 @@
+package br.fatec.p2Cloud.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// Modo opcional com threads virtuais (spring.threads.virtual.enabled=true): o Tomcat, o executor
+// de requisições assíncronas e, por consequência, as chamadas @Transactional rodam em threads
+// virtuais. Nesse modo o DataSource ganha o LimitadorConexoes na frente do Hikari.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    // Estático para não antecipar a criação desta configuração; lê direto do Environment
+    @Bean
+    public static BeanPostProcessor limitadorConexoes(Environment environment) {
+        int tamanhoPool = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int limite = environment.getProperty("app.jdbc.limite.conexoes", Integer.class, tamanhoPool);
+        Duration espera = environment.getProperty("app.jdbc.limite.espera", Duration.class, Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimitadorConexoes)) {
+                    return new LimitadorConexoes(dataSource, limite, espera);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasLimitadorConexoes(DataSource dataSource) throws SQLException {
+        LimitadorConexoes limitador = dataSource.unwrap(LimitadorConexoes.class);
+        return registry -> {
+            Gauge.builder("app.jdbc.limite.disponiveis", limitador, LimitadorConexoes::getDisponiveis)
+                    .description("Permissões livres no limitador de conexões")
+                    .register(registry);
+            Gauge.builder("app.jdbc.limite.aguardando", limitador, LimitadorConexoes::getAguardando)
+                    .description("Threads esperando uma permissão do limitador de conexões")
+                    .register(registry);
+        };
+    }
+}
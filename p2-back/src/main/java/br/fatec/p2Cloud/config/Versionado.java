@@ -0,0 +1,20 @@
+package br.fatec.p2Cloud.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Leitura com ETag calculado pelo EtagInterceptor a partir da versão do recurso (VersoesRecursos).
+// Só serve para respostas que dependem apenas do banco: nada de horário atual nem de estado externo.
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Versionado {
+
+    VersoesRecursos.Recurso value();
+
+    // Variável de caminho com o id da barbearia; vazio quando a leitura não é de uma barbearia só
+    String barbearia() default "";
+}
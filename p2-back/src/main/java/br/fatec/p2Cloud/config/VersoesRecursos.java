@@ -0,0 +1,121 @@
+package br.fatec.p2Cloud.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Versões em memória das leituras da API, por tipo de recurso e por barbearia, para os ETags
+// (EtagInterceptor). Toda gravação confirmada avança a versão do que ela pode ter mudado: a
+// barbearia da linha e as listagens gerais do tipo. Alterar um cliente, serviço ou barbearia muda
+// o que aparece embutido em outros tipos; nesses casos sobe o piso do tipo dependente inteiro.
+// As versões vêm de um relógio em milissegundos que nunca repete valor, então também dizem quando
+// o recurso mudou pela última vez. Valem só para esta instância (o backend roda em uma task).
+@Component
+public class VersoesRecursos {
+
+    public enum Recurso {
+        BARBEARIAS, CLIENTES, SERVICOS, AGENDAS
+    }
+
+    private static final int RECURSOS = Recurso.values().length;
+    private static final Object CHAVE_PENDENTES = new Object();
+
+    // Um ETag de antes de um restart nunca vale depois dele
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong relogio = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLongArray geral = new AtomicLongArray(RECURSOS);
+    private final AtomicLongArray piso = new AtomicLongArray(RECURSOS);
+    private final Map<Long, AtomicLongArray> porBarbearia = new ConcurrentHashMap<>();
+
+    public VersoesRecursos() {
+        // Logo depois de subir não se sabe o que mudou antes: tudo começa na versão do início
+        for (int i = 0; i < RECURSOS; i++) {
+            piso.set(i, relogio.get());
+        }
+    }
+
+    // Uma consulta ao mapa no máximo; barbeariaId null para leituras que não são de uma barbearia só
+    public long versao(Recurso recurso, Long barbeariaId) {
+        AtomicLongArray versoes = barbeariaId == null ? geral : porBarbearia.get(barbeariaId);
+        int i = recurso.ordinal();
+        return versoes == null ? piso.get(i) : Math.max(versoes.get(i), piso.get(i));
+    }
+
+    // Fraco: a versão identifica o conteúdo, não os bytes (o Tomcat não comprime respostas com ETag
+    // forte). Cada representação (JSON, CBOR) da mesma versão tem o seu
+    public String etag(long versao, String representacao) {
+        String etag = epoca + "-" + Long.toString(versao, 36);
+        return "W/\"" + (representacao != null ? etag + "-" + representacao : etag) + "\"";
+    }
+
+    // Chamado pelo ObservadorVersoes a cada linha gravada; dependentes = alteração ou remoção de uma
+    // linha que aparece embutida em outros tipos. Dentro de uma transação só vale depois do commit,
+    // e depois das invalidações de cache: antes disso um leitor levaria a versão nova com o dado velho
+    public void registrar(Recurso recurso, Long barbeariaId, boolean dependentes) {
+        Alteracao alteracao = new Alteracao(recurso, barbeariaId, dependentes);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(alteracao);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Alteracao> pendentes = (Set<Alteracao>) TransactionSynchronizationManager.getResource(CHAVE_PENDENTES);
+        if (pendentes == null) {
+            Set<Alteracao> novas = new LinkedHashSet<>();
+            pendentes = novas;
+            TransactionSynchronizationManager.bindResource(CHAVE_PENDENTES, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHAVE_PENDENTES);
+                    if (status == STATUS_COMMITTED) {
+                        novas.forEach(VersoesRecursos.this::aplicar);
+                    }
+                }
+            });
+        }
+        // Um lote de mil linhas da mesma barbearia vira uma alteração só
+        pendentes.add(alteracao);
+    }
+
+    // Para gravações feitas fora do JPA (arquivamento de partições, importações por SQL)
+    public void alterarTodas(Recurso recurso) {
+        piso.accumulateAndGet(recurso.ordinal(), proxima(), Math::max);
+    }
+
+    private void aplicar(Alteracao alteracao) {
+        long versao = proxima();
+        int i = alteracao.recurso().ordinal();
+        geral.accumulateAndGet(i, versao, Math::max);
+        if (alteracao.barbeariaId() != null) {
+            porBarbearia.computeIfAbsent(alteracao.barbeariaId(), id -> new AtomicLongArray(RECURSOS))
+                    .accumulateAndGet(i, versao, Math::max);
+        }
+        if (alteracao.dependentes()) {
+            switch (alteracao.recurso()) {
+                case BARBEARIAS -> {
+                    alterarTodas(Recurso.CLIENTES);
+                    alterarTodas(Recurso.SERVICOS);
+                    alterarTodas(Recurso.AGENDAS);
+                }
+                case CLIENTES, SERVICOS -> alterarTodas(Recurso.AGENDAS);
+                case AGENDAS -> {
+                }
+            }
+        }
+    }
+
+    private long proxima() {
+        return relogio.updateAndGet(ultima -> Math.max(ultima + 1, System.currentTimeMillis()));
+    }
+
+    private record Alteracao(Recurso recurso, Long barbeariaId, boolean dependentes) {
+    }
+}
@@ -1,14 +1,30 @@
 package br.fatec.p2Cloud.controller;
 
+import br.fatec.p2Cloud.config.TempoLimiteAssincrono;
+import br.fatec.p2Cloud.config.Versionado;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.dto.AgendaResumo;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoLote;
 import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.service.AgendaExportService;
 import br.fatec.p2Cloud.service.AgendaService;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.TransmissaoAgendas;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,33 +36,133 @@ public class AgendaController {
     @Autowired
     private AgendaService agendaService;
 
+    @Autowired
+    private AgendaExportService agendaExportService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private TransmissaoAgendas transmissaoAgendas;
+
     @GetMapping
-    public ResponseEntity<List<Agenda>> getAllAgendas() {
-        List<Agenda> agendas = agendaService.findAll();
-        return ResponseEntity.ok(agendas);
+    @Versionado(Recurso.AGENDAS)
+    public ResponseEntity<?> getAllAgendas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String fields) {
+        try {
+            PaginaCursor<?> pagina = fields == null
+                    ? agendaService.findPagina(cursor, limite)
+                    : agendaService.findPagina(cursor, limite, fields);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getAgendasAlterados(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long barbeariaId,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            Alteracoes<AgendaResumo> alteracoes = agendaService.findAlteracoes(since, barbeariaId, limite);
+            return ResponseEntity.ok(alteracoes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/barbearia/{barbeariaId}")
-    public ResponseEntity<List<Agenda>> getAgendasByBarbearia(@PathVariable Long barbeariaId) {
-        List<Agenda> agendas = agendaService.findByBarbeariaId(barbeariaId);
-        return ResponseEntity.ok(agendas);
+    @Versionado(value = Recurso.AGENDAS, barbearia = "barbeariaId")
+    public ResponseEntity<?> getAgendasByBarbearia(
+            @PathVariable Long barbeariaId,
+            @RequestParam(required = false) String fields) {
+        try {
+            List<?> agendas = fields == null
+                    ? agendaService.findByBarbeariaId(barbeariaId)
+                    : agendaService.findByBarbeariaId(barbeariaId, fields);
+            return ResponseEntity.ok(agendas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Alterações de agenda da barbearia em tempo real (SSE), no lugar de consultar a listagem de tempos
+    // em tempos. Eventos CRIADA/ATUALIZADA/REMOVIDA; "reset" pede para recarregar a listagem inteira
+    @GetMapping(value = "/barbearia/{barbeariaId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAgendasByBarbearia(
+            @PathVariable Long barbeariaId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        if (barbeariaService.findById(barbeariaId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(transmissaoAgendas.assinar(barbeariaId, ultimoEventoId));
+    }
+
+    @GetMapping("/barbearia/{barbeariaId}/export")
+    @Versionado(value = Recurso.AGENDAS, barbearia = "barbeariaId")
+    public ResponseEntity<StreamingResponseBody> exportAgendasByBarbearia(
+            @PathVariable Long barbeariaId,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            HttpServletRequest request) {
+        AgendaExportService.Formato formatoExport;
+        try {
+            formatoExport = AgendaExportService.Formato.of(formato);
+        } catch (IllegalArgumentException e) {
+            byte[] mensagem = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(saida -> saida.write(mensagem));
+        }
+        if (barbeariaService.findById(barbeariaId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody corpo = saida -> agendaExportService.exportar(barbeariaId, formatoExport, saida);
+        TempoLimiteAssincrono.definir(request, agendaExportService.getTempoLimite());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoExport.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=agendas-barbearia-" + barbeariaId + "." + formatoExport.getExtensao())
+                .body(corpo);
     }
 
     @GetMapping("/cliente/{clienteId}")
-    public ResponseEntity<List<Agenda>> getAgendasByCliente(@PathVariable Long clienteId) {
-        List<Agenda> agendas = agendaService.findByClienteId(clienteId);
-        return ResponseEntity.ok(agendas);
+    @Versionado(Recurso.AGENDAS)
+    public ResponseEntity<?> getAgendasByCliente(
+            @PathVariable Long clienteId,
+            @RequestParam(required = false) String fields) {
+        try {
+            List<?> agendas = fields == null
+                    ? agendaService.findByClienteId(clienteId)
+                    : agendaService.findByClienteId(clienteId, fields);
+            return ResponseEntity.ok(agendas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/periodo")
-    public ResponseEntity<List<Agenda>> getAgendasByPeriodo(
+    @Versionado(Recurso.AGENDAS)
+    public ResponseEntity<?> getAgendasByPeriodo(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
-        List<Agenda> agendas = agendaService.findByDataBetween(inicio, fim);
-        return ResponseEntity.ok(agendas);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) String fields) {
+        try {
+            List<?> agendas = fields == null
+                    ? agendaService.findByDataBetween(inicio, fim)
+                    : agendaService.findByDataBetween(inicio, fim, fields);
+            return ResponseEntity.ok(agendas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
+    @Versionado(Recurso.AGENDAS)
     public ResponseEntity<Agenda> getAgendaById(@PathVariable Long id) {
         return agendaService.findById(id)
                 .map(ResponseEntity::ok)
@@ -92,6 +208,20 @@ public class AgendaController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createAgendasEmLote(
+            @RequestParam Long barbeariaId,
+            @RequestBody List<Agenda> agendas) {
+        try {
+            ResultadoLote resultado = agendaService.saveLote(agendas, barbeariaId);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateAgenda(@PathVariable Long id, @Valid @RequestBody Agenda agenda) {
         try {
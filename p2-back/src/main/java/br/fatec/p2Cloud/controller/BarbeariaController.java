@@ -1,13 +1,30 @@
 package br.fatec.p2Cloud.controller;
 
+import br.fatec.p2Cloud.config.RespostasSerializadas;
+import br.fatec.p2Cloud.config.Versionado;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.dto.Disponibilidade;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.Painel;
+import br.fatec.p2Cloud.dto.ResultadoLote;
 import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.ExclusaoBarbearia;
 import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.DisponibilidadeService;
+import br.fatec.p2Cloud.service.ExclusaoBarbeariaService;
+import br.fatec.p2Cloud.service.PainelService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,19 +35,65 @@ public class BarbeariaController {
     @Autowired
     private BarbeariaService barbeariaService;
 
+    @Autowired
+    private DisponibilidadeService disponibilidadeService;
+
+    @Autowired
+    private PainelService painelService;
+
+    @Autowired
+    private ExclusaoBarbeariaService exclusaoBarbeariaService;
+
+    @Autowired
+    private RespostasSerializadas respostas;
+
     @GetMapping
-    public ResponseEntity<List<Barbearia>> getAllBarbearias() {
-        List<Barbearia> barbearias = barbeariaService.findAll();
-        return ResponseEntity.ok(barbearias);
+    @Versionado(Recurso.BARBEARIAS)
+    public ResponseEntity<?> getAllBarbearias(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String fields) {
+        try {
+            PaginaCursor<?> pagina = fields == null
+                    ? barbeariaService.findPagina(cursor, limite)
+                    : barbeariaService.findPagina(cursor, limite, fields);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Barbearia> getBarbeariaById(@PathVariable Long id) {
-        return barbeariaService.findById(id)
+    @Versionado(value = Recurso.BARBEARIAS, barbearia = "id")
+    public void getBarbeariaById(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        respostas.responder(RespostasSerializadas.BARBEARIA, Recurso.BARBEARIAS, id, request, response,
+                () -> barbeariaService.findById(id));
+    }
+
+    // Sem ETag: o painel junta quatro recursos, sem uma versão única que cubra todos
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<Painel> getDashboard(@PathVariable Long id) {
+        return painelService.montar(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/disponibilidade")
+    public ResponseEntity<?> getDisponibilidade(
+            @PathVariable Long id,
+            @RequestParam Long servicoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia) {
+        try {
+            Disponibilidade disponibilidade = disponibilidadeService.calcular(id, servicoId, dia);
+            return ResponseEntity.ok(disponibilidade);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createBarbearia(@Valid @RequestBody Barbearia barbearia) {
         try {
@@ -41,6 +104,19 @@ public class BarbeariaController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBarbeariasEmLote(
+            @RequestBody List<Barbearia> barbearias) {
+        try {
+            ResultadoLote resultado = barbeariaService.saveLote(barbearias);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateBarbearia(@PathVariable Long id, @Valid @RequestBody Barbearia barbearia) {
         try {
@@ -53,14 +129,23 @@ public class BarbeariaController {
         }
     }
 
+    // A exclusão roda em segundo plano: 202 com a exclusão registrada, acompanhada em /exclusoes/{id}
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteBarbearia(@PathVariable Long id) {
         try {
-            barbeariaService.deleteById(id);
-            return ResponseEntity.noContent().build();
+            ExclusaoBarbearia exclusao = exclusaoBarbeariaService.agendar(id);
+            return ResponseEntity.accepted().location(URI.create("/api/barbearias/exclusoes/" + exclusao.getId()))
+                    .body(exclusao);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @GetMapping("/exclusoes/{exclusaoId}")
+    public ResponseEntity<ExclusaoBarbearia> getExclusao(@PathVariable Long exclusaoId) {
+        return exclusaoBarbeariaService.findById(exclusaoId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
 
@@ -0,0 +1,35 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.dto.EstatisticaCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @GetMapping("/estatisticas")
+    public ResponseEntity<Map<String, EstatisticaCache>> getEstatisticas() {
+        Map<String, EstatisticaCache> estatisticas = new TreeMap<>();
+        for (String nome : cacheManager.getCacheNames()) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(nome);
+            if (cache != null && cache.getNativeCache() instanceof Cache<?, ?> caffeine) {
+                CacheStats stats = caffeine.stats();
+                estatisticas.put(nome, new EstatisticaCache(stats.hitCount(), stats.missCount(),
+                        stats.evictionCount(), caffeine.estimatedSize(), stats.hitRate()));
+            }
+        }
+        return ResponseEntity.ok(estatisticas);
+    }
+}
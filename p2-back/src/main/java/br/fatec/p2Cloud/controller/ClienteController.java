@@ -1,13 +1,24 @@
 package br.fatec.p2Cloud.controller;
 
+import br.fatec.p2Cloud.config.Versionado;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoImportacao;
+import br.fatec.p2Cloud.dto.ResultadoLote;
 import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.service.ImportacaoService;
 import br.fatec.p2Cloud.service.ClienteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,19 +29,67 @@ public class ClienteController {
     @Autowired
     private ClienteService clienteService;
 
+    @Autowired
+    private ImportacaoService importacaoService;
+
     @GetMapping
-    public ResponseEntity<List<Cliente>> getAllClientes() {
-        List<Cliente> clientes = clienteService.findAll();
-        return ResponseEntity.ok(clientes);
+    @Versionado(Recurso.CLIENTES)
+    public ResponseEntity<?> getAllClientes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String fields) {
+        try {
+            PaginaCursor<?> pagina = fields == null
+                    ? clienteService.findPagina(cursor, limite)
+                    : clienteService.findPagina(cursor, limite, fields);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getClientesAlterados(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long barbeariaId,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            Alteracoes<Cliente> alteracoes = clienteService.findAlteracoes(since, barbeariaId, limite);
+            return ResponseEntity.ok(alteracoes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> buscarClientes(
+            @RequestParam String q,
+            @RequestParam(required = false) Long barbeariaId,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(clienteService.buscar(q, barbeariaId, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/barbearia/{barbeariaId}")
-    public ResponseEntity<List<Cliente>> getClientesByBarbearia(@PathVariable Long barbeariaId) {
-        List<Cliente> clientes = clienteService.findByBarbeariaId(barbeariaId);
-        return ResponseEntity.ok(clientes);
+    @Versionado(value = Recurso.CLIENTES, barbearia = "barbeariaId")
+    public ResponseEntity<?> getClientesByBarbearia(
+            @PathVariable Long barbeariaId,
+            @RequestParam(required = false) String fields) {
+        try {
+            List<?> clientes = fields == null
+                    ? clienteService.findByBarbeariaId(barbeariaId)
+                    : clienteService.findByBarbeariaId(barbeariaId, fields);
+            return ResponseEntity.ok(clientes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
+    @Versionado(Recurso.CLIENTES)
     public ResponseEntity<Cliente> getClienteById(@PathVariable Long id) {
         return clienteService.findById(id)
                 .map(ResponseEntity::ok)
@@ -61,6 +120,37 @@ public class ClienteController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createClientesEmLote(
+            @RequestParam(required = false) Long barbeariaId,
+            @RequestBody List<Cliente> clientes) {
+        try {
+            ResultadoLote resultado = clienteService.saveLote(clientes, barbeariaId);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Planilha CSV (multipart, campo "arquivo"). Linhas com erro não impedem as outras; se a
+    // gravação parar no meio, retomarDaLinha no resultado diz de onde reenviar o mesmo arquivo
+    @PostMapping(value = "/barbearia/{barbeariaId}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarClientes(
+            @PathVariable Long barbeariaId,
+            @RequestParam("arquivo") MultipartFile arquivo,
+            @RequestParam(required = false) Integer retomarDaLinha) {
+        try (InputStream entrada = arquivo.getInputStream()) {
+            ResultadoImportacao resultado = importacaoService.importarClientes(barbeariaId, entrada, retomarDaLinha);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateCliente(@PathVariable Long id, @Valid @RequestBody Cliente cliente) {
         try {
@@ -1,14 +1,29 @@
 package br.fatec.p2Cloud.controller;
 
+import br.fatec.p2Cloud.config.RespostasSerializadas;
+import br.fatec.p2Cloud.config.Versionado;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoImportacao;
+import br.fatec.p2Cloud.dto.ResultadoLote;
 import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.service.ImportacaoService;
 import br.fatec.p2Cloud.service.ServicoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/servicos")
@@ -18,19 +33,62 @@ public class ServicoController {
     @Autowired
     private ServicoService servicoService;
 
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    @Autowired
+    private RespostasSerializadas respostas;
+
     @GetMapping
-    public ResponseEntity<List<Servico>> getAllServicos() {
-        List<Servico> servicos = servicoService.findAll();
-        return ResponseEntity.ok(servicos);
+    @Versionado(Recurso.SERVICOS)
+    public ResponseEntity<?> getAllServicos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String fields) {
+        try {
+            PaginaCursor<?> pagina = fields == null
+                    ? servicoService.findPagina(cursor, limite)
+                    : servicoService.findPagina(cursor, limite, fields);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getServicosAlterados(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Long barbeariaId,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            Alteracoes<Servico> alteracoes = servicoService.findAlteracoes(since, barbeariaId, limite);
+            return ResponseEntity.ok(alteracoes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/barbearia/{barbeariaId}")
-    public ResponseEntity<List<Servico>> getServicosByBarbearia(@PathVariable Long barbeariaId) {
-        List<Servico> servicos = servicoService.findByBarbeariaId(barbeariaId);
-        return ResponseEntity.ok(servicos);
+    @Versionado(value = Recurso.SERVICOS, barbearia = "barbeariaId")
+    public void getServicosByBarbearia(@PathVariable Long barbeariaId, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        respostas.responder(RespostasSerializadas.SERVICOS_BARBEARIA, Recurso.SERVICOS, barbeariaId, request, response,
+                () -> Optional.of(servicoService.findByBarbeariaId(barbeariaId)));
+    }
+
+    // Com ?fields= a resposta não sai do cache de respostas serializadas
+    @GetMapping(value = "/barbearia/{barbeariaId}", params = "fields")
+    @Versionado(value = Recurso.SERVICOS, barbearia = "barbeariaId")
+    public ResponseEntity<?> getServicosByBarbearia(@PathVariable Long barbeariaId, @RequestParam String fields) {
+        try {
+            return ResponseEntity.ok(servicoService.findByBarbeariaId(barbeariaId, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
+    @Versionado(Recurso.SERVICOS)
     public ResponseEntity<Servico> getServicoById(@PathVariable Long id) {
         return servicoService.findById(id)
                 .map(ResponseEntity::ok)
@@ -61,6 +119,37 @@ public class ServicoController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createServicosEmLote(
+            @RequestParam(required = false) Long barbeariaId,
+            @RequestBody List<Servico> servicos) {
+        try {
+            ResultadoLote resultado = servicoService.saveLote(servicos, barbeariaId);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Planilha CSV (multipart, campo "arquivo"). Linhas com erro não impedem as outras; se a
+    // gravação parar no meio, retomarDaLinha no resultado diz de onde reenviar o mesmo arquivo
+    @PostMapping(value = "/barbearia/{barbeariaId}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarServicos(
+            @PathVariable Long barbeariaId,
+            @RequestParam("arquivo") MultipartFile arquivo,
+            @RequestParam(required = false) Integer retomarDaLinha) {
+        try (InputStream entrada = arquivo.getInputStream()) {
+            ResultadoImportacao resultado = importacaoService.importarServicos(barbeariaId, entrada, retomarDaLinha);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateServico(@PathVariable Long id, @Valid @RequestBody Servico servico) {
         try {
@@ -0,0 +1,39 @@
+package br.fatec.p2Cloud.dto;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Cliente;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Linha achatada da exportação: não carrega a barbearia nem as coleções do cliente
+public record AgendaExportLinha(
+        Long id,
+        LocalDateTime data,
+        String descricao,
+        Long clienteId,
+        String clienteNome,
+        String clienteCpf,
+        String clienteTelefone) {
+
+    public static final String[] COLUNAS = {
+            "id", "data", "descricao", "clienteId", "clienteNome", "clienteCpf", "clienteTelefone"
+    };
+
+    public static AgendaExportLinha of(Agenda agenda) {
+        Cliente cliente = agenda.getCliente();
+        return new AgendaExportLinha(
+                agenda.getId(),
+                agenda.getData(),
+                agenda.getDescricao(),
+                cliente != null ? cliente.getId() : null,
+                cliente != null ? cliente.getNome() : null,
+                cliente != null ? cliente.getCpf() : null,
+                cliente != null ? cliente.getTelefone() : null);
+    }
+
+    public Object[] valores() {
+        String dataIso = data != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(data) : null;
+        return new Object[]{id, dataIso, descricao, clienteId, clienteNome, clienteCpf, clienteTelefone};
+    }
+}
@@ -0,0 +1,29 @@
+package br.fatec.p2Cloud.dto;
+
+import java.time.LocalDateTime;
+
+// Modelo de leitura das listagens de agenda: montado direto na consulta (um único SELECT com joins),
+// sem carregar as entidades relacionadas
+public record AgendaResumo(Long id, LocalDateTime data, String descricao, String funcionario,
+                           BarbeariaRef barbearia, ClienteRef cliente, ServicoRef servico) {
+
+    public record BarbeariaRef(Long id, String nome) {
+    }
+
+    public record ClienteRef(Long id, String nome, String cpf, String telefone) {
+    }
+
+    public record ServicoRef(Long id, String nome, Double valor, Integer duracao) {
+    }
+
+    // Usado pelas expressões "select new" do AgendaRepository; relacionamentos ausentes viram null
+    public AgendaResumo(Long id, LocalDateTime data, String descricao, String funcionario,
+                        Long barbeariaId, String barbeariaNome,
+                        Long clienteId, String clienteNome, String clienteCpf, String clienteTelefone,
+                        Long servicoId, String servicoNome, Double servicoValor, Integer servicoDuracao) {
+        this(id, data, descricao, funcionario,
+                barbeariaId == null ? null : new BarbeariaRef(barbeariaId, barbeariaNome),
+                clienteId == null ? null : new ClienteRef(clienteId, clienteNome, clienteCpf, clienteTelefone),
+                servicoId == null ? null : new ServicoRef(servicoId, servicoNome, servicoValor, servicoDuracao));
+    }
+}
@@ -0,0 +1,8 @@
+package br.fatec.p2Cloud.dto;
+
+import java.time.LocalDateTime;
+
+// Posição de uma linha no histórico de alterações: usada para montar a resposta de /changes
+// antes de carregar o conteúdo das linhas
+public record Alteracao(Long id, Long sequencia, LocalDateTime em) {
+}
@@ -0,0 +1,9 @@
+package br.fatec.p2Cloud.dto;
+
+import java.util.List;
+
+// Resposta de /changes: linhas inseridas/alteradas e ids removidos desde o token informado.
+// O cliente guarda o token e repete a requisição com ele; enquanto hasMore for verdadeiro há
+// mais alterações prontas para buscar
+public record Alteracoes<T>(List<T> changed, List<Long> removed, String token, boolean hasMore) {
+}
@@ -0,0 +1,46 @@
+package br.fatec.p2Cloud.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Codifica a posição da última linha de uma página em um token opaco para o cliente
+public final class Cursor {
+
+    private static final String SEPARADOR = "|";
+
+    private Cursor() {
+    }
+
+    public static String codificar(Object... partes) {
+        StringBuilder valor = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) {
+                valor.append(SEPARADOR);
+            }
+            valor.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodificar(String cursor, int quantidade) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR, -1);
+            if (partes.length != quantidade) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    public static Long paraId(String cursor) {
+        try {
+            return Long.valueOf(decodificar(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
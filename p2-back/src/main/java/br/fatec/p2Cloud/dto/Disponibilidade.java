@@ -0,0 +1,7 @@
+package br.fatec.p2Cloud.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record Disponibilidade(LocalDate dia, Long servicoId, Integer duracao, List<HorarioLivre> horarios) {
+}
@@ -0,0 +1,4 @@
+package br.fatec.p2Cloud.dto;
+
+public record EstatisticaCache(long hits, long misses, long evictions, long tamanho, double taxaAcerto) {
+}
@@ -0,0 +1,5 @@
+package br.fatec.p2Cloud.dto;
+
+// Corpo de cada evento do stream de agendas; agenda é null quando ela foi removida
+public record EventoAgenda(String tipo, Long agendaId, AgendaResumo agenda) {
+}
@@ -0,0 +1,7 @@
+package br.fatec.p2Cloud.dto;
+
+import java.time.LocalTime;
+import java.util.List;
+
+public record HorarioLivre(LocalTime inicio, List<String> funcionarios) {
+}
@@ -0,0 +1,29 @@
+package br.fatec.p2Cloud.dto;
+
+import br.fatec.p2Cloud.model.Agenda;
+
+import java.time.LocalDateTime;
+
+// Intervalo que uma agenda ocupa na grade do profissional
+public record HorarioOcupado(Long agendaId, String funcionario, LocalDateTime inicio, Integer duracao) {
+
+    public static final int DURACAO_PADRAO = 30; // minutos, mesmo padrão de Servico
+
+    public HorarioOcupado {
+        duracao = duracao != null ? duracao : DURACAO_PADRAO;
+    }
+
+    public static HorarioOcupado of(Agenda agenda) {
+        Integer duracao = agenda.getServico() != null ? agenda.getServico().getDuracao() : null;
+        return new HorarioOcupado(agenda.getId(), agenda.getFuncionario(), agenda.getData(), duracao);
+    }
+
+    public LocalDateTime fim() {
+        return inicio.plusMinutes(duracao);
+    }
+
+    // Agenda sem funcionário ocupa todos os profissionais, então disputa a grade com qualquer outra
+    public boolean mesmaGrade(HorarioOcupado outro) {
+        return funcionario == null || outro.funcionario == null || funcionario.equals(outro.funcionario);
+    }
+}
@@ -0,0 +1,13 @@
+package br.fatec.p2Cloud.dto;
+
+// Resultado de um item de lote; indice é a posição do item no corpo da requisição
+public record ItemLote(int indice, Long id, String erro) {
+
+    public static ItemLote sucesso(int indice, Long id) {
+        return new ItemLote(indice, id, null);
+    }
+
+    public static ItemLote falha(int indice, String erro) {
+        return new ItemLote(indice, null, erro);
+    }
+}
@@ -0,0 +1,16 @@
+package br.fatec.p2Cloud.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página de uma listagem por cursor (keyset): o cliente repete a requisição com nextCursor até hasNext ser falso
+public record PaginaCursor<T>(List<T> content, int size, String nextCursor, boolean hasNext) {
+
+    // A consulta busca limite + 1 linhas; a excedente só indica que existe próxima página
+    public static <T> PaginaCursor<T> of(List<T> itens, int limite, Function<T, String> cursorDe) {
+        boolean hasNext = itens.size() > limite;
+        List<T> pagina = hasNext ? itens.subList(0, limite) : itens;
+        String nextCursor = hasNext ? cursorDe.apply(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaCursor<>(pagina, pagina.size(), nextCursor, hasNext);
+    }
+}
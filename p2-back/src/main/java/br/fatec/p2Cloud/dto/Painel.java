@@ -0,0 +1,14 @@
+package br.fatec.p2Cloud.dto;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+
+import java.util.List;
+import java.util.Map;
+
+// Tela inicial de uma barbearia em uma resposta só. Uma seção que estourou o prazo ou falhou fica
+// de fora (null não é serializado) e aparece em erros, com o motivo; erros só vem quando há algum
+public record Painel(Barbearia barbearia, List<Cliente> clientes, List<Servico> servicos,
+                     List<AgendaResumo> agendas, Map<String, String> erros) {
+}
@@ -0,0 +1,14 @@
+package br.fatec.p2Cloud.dto;
+
+import java.util.List;
+
+// Resultado de uma importação CSV. As linhas são as do arquivo (a 1 é o cabeçalho); erros traz no
+// máximo app.importacao.max-erros itens, falhas conta todos. Quando a importação para no meio,
+// retomarDaLinha diz de onde reenviar o mesmo arquivo (?retomarDaLinha=) e interrupcao, o motivo;
+// tudo antes dela já foi gravado
+public record ResultadoImportacao(int linhas, int inseridas, int atualizadas, int falhas,
+                                  List<ErroLinha> erros, Integer retomarDaLinha, String interrupcao) {
+
+    public record ErroLinha(int linha, String erro) {
+    }
+}
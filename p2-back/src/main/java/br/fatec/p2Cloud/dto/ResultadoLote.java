@@ -0,0 +1,11 @@
+package br.fatec.p2Cloud.dto;
+
+import java.util.List;
+
+public record ResultadoLote(int total, int sucesso, int falhas, List<ItemLote> itens) {
+
+    public static ResultadoLote of(List<ItemLote> itens) {
+        int falhas = (int) itens.stream().filter(item -> item.erro() != null).count();
+        return new ResultadoLote(itens.size(), itens.size() - falhas, falhas, itens);
+    }
+}
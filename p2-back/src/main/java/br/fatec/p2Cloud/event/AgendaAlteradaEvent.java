@@ -0,0 +1,39 @@
+package br.fatec.p2Cloud.event;
+
+import br.fatec.p2Cloud.dto.HorarioOcupado;
+import br.fatec.p2Cloud.model.Agenda;
+
+// Publicado pelo AgendaService; os ouvintes reagem somente depois do commit
+public record AgendaAlteradaEvent(
+        Tipo tipo,
+        Long agendaId,
+        Long barbeariaId,
+        HorarioOcupado anterior,
+        HorarioOcupado atual) {
+
+    public enum Tipo {
+        CRIADA, ATUALIZADA, REMOVIDA
+    }
+
+    public static AgendaAlteradaEvent criada(Agenda agenda) {
+        return new AgendaAlteradaEvent(Tipo.CRIADA, agenda.getId(), barbeariaId(agenda), null, HorarioOcupado.of(agenda));
+    }
+
+    // anterior nulo significa que o estado antigo não é conhecido
+    public static AgendaAlteradaEvent atualizada(HorarioOcupado anterior, Agenda agenda) {
+        return new AgendaAlteradaEvent(Tipo.ATUALIZADA, agenda.getId(), barbeariaId(agenda), anterior, HorarioOcupado.of(agenda));
+    }
+
+    // Alteração feita por SQL, sem a entidade (ExclusaoBarbeariaService)
+    public static AgendaAlteradaEvent atualizada(Long barbeariaId, HorarioOcupado anterior, HorarioOcupado atual) {
+        return new AgendaAlteradaEvent(Tipo.ATUALIZADA, atual.agendaId(), barbeariaId, anterior, atual);
+    }
+
+    public static AgendaAlteradaEvent removida(Agenda agenda) {
+        return new AgendaAlteradaEvent(Tipo.REMOVIDA, agenda.getId(), barbeariaId(agenda), HorarioOcupado.of(agenda), null);
+    }
+
+    private static Long barbeariaId(Agenda agenda) {
+        return agenda.getBarbearia() != null ? agenda.getBarbearia().getId() : null;
+    }
+}
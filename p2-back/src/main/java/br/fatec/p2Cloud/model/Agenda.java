@@ -1,17 +1,22 @@
 package br.fatec.p2Cloud.model;
 
+import br.fatec.p2Cloud.repository.ObservadorVersoes;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners({RastreioAlteracoes.class, ObservadorVersoes.class})
 @Table(name = "agendas")
-public class Agenda {
+public class Agenda implements Rastreavel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "agendas_seq")
+    @SequenceGenerator(name = "agendas_seq", sequenceName = "agendas_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Data é obrigatória")
@@ -21,16 +26,33 @@ public class Agenda {
     @Column(columnDefinition = "TEXT")
     private String descricao;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "barbearia_id")
     @JsonIgnoreProperties({"clientes", "agendas", "servicos"})
     private Barbearia barbearia;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id")
     @JsonIgnoreProperties("barbearia")
     private Cliente cliente;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "servico_id")
+    @JsonIgnoreProperties({"barbearia", "funcionarios"})
+    private Servico servico;
+
+    // Profissional que atende; deve ser um dos funcionários do serviço
+    private String funcionario;
+
+    // Preenchidos por RastreioAlteracoes a cada inserção/atualização
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "sequencia_alteracao")
+    private Long sequenciaAlteracao;
+
     // Construtores
     public Agenda() {
     }
@@ -80,5 +102,36 @@ public class Agenda {
     public void setCliente(Cliente cliente) {
         this.cliente = cliente;
     }
-}
 
+    public Servico getServico() {
+        return servico;
+    }
+
+    public void setServico(Servico servico) {
+        this.servico = servico;
+    }
+
+    public String getFuncionario() {
+        return funcionario;
+    }
+
+    public void setFuncionario(String funcionario) {
+        this.funcionario = funcionario;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public Long getSequenciaAlteracao() {
+        return sequenciaAlteracao;
+    }
+
+    public void setSequenciaAlteracao(Long sequenciaAlteracao) {
+        this.sequenciaAlteracao = sequenciaAlteracao;
+    }
+}
@@ -1,5 +1,6 @@
 package br.fatec.p2Cloud.model;
 
+import br.fatec.p2Cloud.repository.ObservadorVersoes;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -9,18 +10,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "barbearias")
+@EntityListeners(ObservadorVersoes.class)
+@Table(name = "barbearias", uniqueConstraints = @UniqueConstraint(name = Barbearia.RESTRICAO_CNPJ, columnNames = "cnpj"))
 public class Barbearia {
 
+    public static final String RESTRICAO_CNPJ = "uk_barbearias_cnpj";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "barbearias_seq")
+    @SequenceGenerator(name = "barbearias_seq", sequenceName = "barbearias_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String nome;
 
-    @Column(unique = true)
-    @Pattern(regexp = "^\\d{2}\\.?\\d{3}\\.?\\d{3}/?\\d{4}-?\\d{2}$", message = "CNPJ inválido")
+    // Só dígitos (Documentos.cnpj); a unicidade fica com a restrição do banco
+    @Pattern(regexp = "^\\d{14}$", message = "CNPJ inválido")
     private String cnpj;
 
     private String telefone;
@@ -30,15 +35,16 @@ public class Barbearia {
 
     private String endereco;
 
-    @OneToMany(mappedBy = "barbearia", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    // Sem cascade: a exclusão da barbearia apaga os dependentes por SQL, em lotes (ExclusaoBarbeariaService)
+    @OneToMany(mappedBy = "barbearia", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Cliente> clientes = new ArrayList<>();
 
-    @OneToMany(mappedBy = "barbearia", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "barbearia", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Agenda> agendas = new ArrayList<>();
 
-    @OneToMany(mappedBy = "barbearia", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "barbearia", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Servico> servicos = new ArrayList<>();
 
@@ -48,7 +54,7 @@ public class Barbearia {
 
     public Barbearia(String nome, String cnpj, String telefone, String email, String endereco) {
         this.nome = nome;
-        this.cnpj = cnpj;
+        this.cnpj = Documentos.cnpj(cnpj);
         this.telefone = telefone;
         this.email = email;
         this.endereco = endereco;
@@ -76,7 +82,7 @@ public class Barbearia {
     }
 
     public void setCnpj(String cnpj) {
-        this.cnpj = cnpj;
+        this.cnpj = Documentos.cnpj(cnpj);
     }
 
     public String getTelefone() {
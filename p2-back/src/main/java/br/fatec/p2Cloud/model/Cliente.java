@@ -1,23 +1,35 @@
 package br.fatec.p2Cloud.model;
 
+import br.fatec.p2Cloud.repository.ObservadorVersoes;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "clientes")
-public class Cliente {
+@EntityListeners({RastreioAlteracoes.class, ObservadorVersoes.class})
+@Table(name = "clientes", uniqueConstraints = @UniqueConstraint(name = Cliente.RESTRICAO_CPF, columnNames = "cpf"))
+public class Cliente implements Rastreavel {
+
+    public static final String RESTRICAO_CPF = "uk_clientes_cpf";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clientes_seq")
+    @SequenceGenerator(name = "clientes_seq", sequenceName = "clientes_seq", allocationSize = 50)
     private Long id;
 
+    @NotBlank(message = "Nome do cliente é obrigatório")
     @Column(nullable = false)
     private String nome;
 
-    @Column(unique = true)
-    @Pattern(regexp = "^\\d{3}\\.?\\d{3}\\.?\\d{3}-?\\d{2}$", message = "CPF inválido")
+    // Só dígitos (Documentos.cpf); a unicidade fica com a restrição do banco
+    @Pattern(regexp = "^\\d{11}$", message = "CPF inválido")
     private String cpf;
 
     private String telefone;
@@ -27,23 +39,43 @@ public class Cliente {
 
     private String endereco;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "barbearia_id")
     @JsonIgnoreProperties({"clientes", "agendas", "servicos"})
     private Barbearia barbearia;
 
+    // Preenchidos por RastreioAlteracoes a cada inserção/atualização
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "sequencia_alteracao")
+    private Long sequenciaAlteracao;
+
+    // Só para GET /api/clientes/search (TermoBusca); recalculado a cada inserção/atualização
+    @JsonIgnore
+    @Column(name = "termo_busca", length = 1024)
+    private String termoBusca;
+
     // Construtores
     public Cliente() {
     }
 
     public Cliente(String nome, String cpf, String telefone, String email, String endereco) {
         this.nome = nome;
-        this.cpf = cpf;
+        this.cpf = Documentos.cpf(cpf);
         this.telefone = telefone;
         this.email = email;
         this.endereco = endereco;
     }
 
+    @PrePersist
+    @PreUpdate
+    void atualizarTermoBusca() {
+        termoBusca = TermoBusca.de(this);
+    }
+
     // Getters e Setters
     public Long getId() {
         return id;
@@ -66,7 +98,7 @@ public class Cliente {
     }
 
     public void setCpf(String cpf) {
-        this.cpf = cpf;
+        this.cpf = Documentos.cpf(cpf);
     }
 
     public String getTelefone() {
@@ -100,5 +132,24 @@ public class Cliente {
     public void setBarbearia(Barbearia barbearia) {
         this.barbearia = barbearia;
     }
-}
 
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public Long getSequenciaAlteracao() {
+        return sequenciaAlteracao;
+    }
+
+    public void setSequenciaAlteracao(Long sequenciaAlteracao) {
+        this.sequenciaAlteracao = sequenciaAlteracao;
+    }
+
+    public String getTermoBusca() {
+        return termoBusca;
+    }
+}
@@ -0,0 +1,32 @@
+package br.fatec.p2Cloud.model;
+
+import java.util.regex.Pattern;
+
+// CPF e CNPJ são guardados só com os dígitos: "123.456.789-00" e "12345678900" são o mesmo cliente,
+// e a busca por documento usa o índice da restrição única seja qual for o formato recebido.
+// Fora dos formatos aceitos o valor fica como veio, para a validação da entidade recusar
+public final class Documentos {
+
+    private static final Pattern CPF = Pattern.compile("^\\d{3}\\.?\\d{3}\\.?\\d{3}-?\\d{2}$");
+    private static final Pattern CNPJ = Pattern.compile("^\\d{2}\\.?\\d{3}\\.?\\d{3}/?\\d{4}-?\\d{2}$");
+
+    private Documentos() {
+    }
+
+    public static String cpf(String valor) {
+        return normalizar(valor, CPF);
+    }
+
+    public static String cnpj(String valor) {
+        return normalizar(valor, CNPJ);
+    }
+
+    // Em branco vira null: a restrição única não deixaria dois documentos vazios
+    private static String normalizar(String valor, Pattern formato) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        String documento = valor.strip();
+        return formato.matcher(documento).matches() ? documento.replaceAll("\\D", "") : documento;
+    }
+}
@@ -0,0 +1,120 @@
+package br.fatec.p2Cloud.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// Exclusão de uma barbearia com tudo o que é dela, feita em segundo plano por
+// ExclusaoBarbeariaService. A linha guarda a etapa e quantas linhas já saíram de cada tabela;
+// os contadores são atualizados na mesma transação de cada lote apagado
+@Entity
+@Table(name = "exclusoes_barbearia")
+public class ExclusaoBarbearia {
+
+    public enum Situacao {
+        PENDENTE, EXECUTANDO, CONCLUIDA, FALHOU
+    }
+
+    // Na ordem das chaves estrangeiras: agendas apontam para clientes e serviços
+    public enum Etapa {
+        AGENDAS, SERVICOS, CLIENTES, BARBEARIA
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exclusoes_barbearia_seq")
+    @SequenceGenerator(name = "exclusoes_barbearia_seq", sequenceName = "exclusoes_barbearia_seq", allocationSize = 1)
+    private Long id;
+
+    // Sem chave estrangeira: a barbearia deixa de existir no fim
+    @Column(name = "barbearia_id", nullable = false)
+    private Long barbeariaId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    private Situacao situacao;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 20)
+    private Etapa etapa;
+
+    @Column(name = "agendas_removidas", nullable = false)
+    private long agendasRemovidas;
+
+    @Column(name = "servicos_removidos", nullable = false)
+    private long servicosRemovidos;
+
+    @Column(name = "clientes_removidos", nullable = false)
+    private long clientesRemovidos;
+
+    @Column(length = 1000)
+    private String erro;
+
+    @Column(name = "criada_em", nullable = false)
+    private LocalDateTime criadaEm;
+
+    @Column(name = "atualizada_em", nullable = false)
+    private LocalDateTime atualizadaEm;
+
+    @Column(name = "concluida_em")
+    private LocalDateTime concluidaEm;
+
+    // Construtores
+    public ExclusaoBarbearia() {
+    }
+
+    public ExclusaoBarbearia(Long barbeariaId) {
+        this.barbeariaId = barbeariaId;
+        this.situacao = Situacao.PENDENTE;
+        this.criadaEm = LocalDateTime.now();
+        this.atualizadaEm = this.criadaEm;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBarbeariaId() {
+        return barbeariaId;
+    }
+
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    public Etapa getEtapa() {
+        return etapa;
+    }
+
+    public long getAgendasRemovidas() {
+        return agendasRemovidas;
+    }
+
+    public long getServicosRemovidos() {
+        return servicosRemovidos;
+    }
+
+    public long getClientesRemovidos() {
+        return clientesRemovidos;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public LocalDateTime getCriadaEm() {
+        return criadaEm;
+    }
+
+    public LocalDateTime getAtualizadaEm() {
+        return atualizadaEm;
+    }
+
+    public LocalDateTime getConcluidaEm() {
+        return concluidaEm;
+    }
+}
@@ -0,0 +1,15 @@
+package br.fatec.p2Cloud.model;
+
+import java.time.LocalDateTime;
+
+// Entidades com histórico de alterações para a sincronização incremental (/changes)
+public interface Rastreavel {
+
+    Long getId();
+
+    Barbearia getBarbearia();
+
+    void setAtualizadoEm(LocalDateTime atualizadoEm);
+
+    void setSequenciaAlteracao(Long sequenciaAlteracao);
+}
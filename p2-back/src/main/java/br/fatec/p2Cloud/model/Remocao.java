@@ -0,0 +1,55 @@
+package br.fatec.p2Cloud.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Marca de exclusão de um cliente, serviço ou agenda. As linhas são gravadas por
+// RastreioAlteracoes e só lidas pela sincronização incremental
+@Entity
+@Table(name = "remocoes")
+public class Remocao {
+
+    // Mesmo contador global das alterações: remoções e alterações ficam em uma ordem só
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alteracoes_seq")
+    @SequenceGenerator(name = "alteracoes_seq", sequenceName = "alteracoes_seq", allocationSize = 1)
+    private Long sequencia;
+
+    @Column(nullable = false, length = 30)
+    private String entidade;
+
+    @Column(name = "entidade_id", nullable = false)
+    private Long entidadeId;
+
+    @Column(name = "barbearia_id")
+    private Long barbeariaId;
+
+    @Column(name = "removido_em", nullable = false)
+    private LocalDateTime removidoEm;
+
+    // Construtores
+    public Remocao() {
+    }
+
+    // Getters
+    public Long getSequencia() {
+        return sequencia;
+    }
+
+    public String getEntidade() {
+        return entidade;
+    }
+
+    public Long getEntidadeId() {
+        return entidadeId;
+    }
+
+    public Long getBarbeariaId() {
+        return barbeariaId;
+    }
+
+    public LocalDateTime getRemovidoEm() {
+        return removidoEm;
+    }
+}
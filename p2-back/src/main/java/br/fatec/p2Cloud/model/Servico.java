@@ -1,20 +1,27 @@
 package br.fatec.p2Cloud.model;
 
+import br.fatec.p2Cloud.repository.ObservadorVersoes;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners({RastreioAlteracoes.class, ObservadorVersoes.class})
 @Table(name = "servicos")
-public class Servico {
+public class Servico implements Rastreavel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "servicos_seq")
+    @SequenceGenerator(name = "servicos_seq", sequenceName = "servicos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome do serviço é obrigatório")
@@ -27,6 +34,7 @@ public class Servico {
     private Double valor;
 
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "servico_funcionarios", joinColumns = @JoinColumn(name = "servico_id"))
     @Column(name = "funcionario")
     private List<String> funcionarios = new ArrayList<>();
@@ -38,11 +46,20 @@ public class Servico {
     @Column(columnDefinition = "TEXT")
     private String descricao;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "barbearia_id")
     @JsonIgnoreProperties({"clientes", "agendas", "servicos"})
     private Barbearia barbearia;
 
+    // Preenchidos por RastreioAlteracoes a cada inserção/atualização
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "sequencia_alteracao")
+    private Long sequenciaAlteracao;
+
     // Construtores
     public Servico() {
     }
@@ -117,5 +134,20 @@ public class Servico {
     public void setBarbearia(Barbearia barbearia) {
         this.barbearia = barbearia;
     }
-}
 
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public Long getSequenciaAlteracao() {
+        return sequenciaAlteracao;
+    }
+
+    public void setSequenciaAlteracao(Long sequenciaAlteracao) {
+        this.sequenciaAlteracao = sequenciaAlteracao;
+    }
+}
@@ -0,0 +1,74 @@
+package br.fatec.p2Cloud.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Texto pesquisável do cliente (coluna termo_busca): nome e e-mail em minúsculas e sem acentos,
+// CPF e telefone só com dígitos, separados por espaço. A busca é um LIKE sobre essa coluna, que
+// no PostgreSQL tem índice de trigramas (pg_trgm) e por isso aceita trechos do meio do texto
+public final class TermoBusca {
+
+    // Abaixo de três caracteres o índice de trigramas não tem como filtrar
+    public static final int MINIMO = 3;
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D");
+    private static final Pattern NUMERO_FORMATADO = Pattern.compile("^[\\d().\\-/+]*\\d[\\d().\\-/+]*$");
+
+    private TermoBusca() {
+    }
+
+    public static String de(Cliente cliente) {
+        List<String> partes = new ArrayList<>(4);
+        adicionar(partes, texto(cliente.getNome()));
+        adicionar(partes, texto(cliente.getEmail()));
+        adicionar(partes, cliente.getCpf());
+        adicionar(partes, cliente.getTelefone() == null ? null : NAO_DIGITOS.matcher(cliente.getTelefone()).replaceAll(""));
+        return String.join(" ", partes);
+    }
+
+    // Padrão do LIKE para o que foi digitado, com as palavras na ordem em que vieram ("ana sil" acha
+    // "Ana Silva"); palavras que são números formatados ("(11)", "123.456") ficam só com os dígitos.
+    // null quando não sobra o mínimo de caracteres
+    public static String padrao(String digitado) {
+        String normalizado = texto(digitado);
+        if (normalizado == null) {
+            return null;
+        }
+        StringBuilder padrao = new StringBuilder();
+        int caracteres = 0;
+        for (String palavra : normalizado.split(" ")) {
+            if (NUMERO_FORMATADO.matcher(palavra).matches()) {
+                palavra = NAO_DIGITOS.matcher(palavra).replaceAll("");
+            }
+            if (!palavra.isEmpty()) {
+                padrao.append(padrao.isEmpty() ? "" : "%").append(escapar(palavra));
+                caracteres = Math.max(caracteres, palavra.length());
+            }
+        }
+        return caracteres < MINIMO ? null : padrao + "%";
+    }
+
+    private static String texto(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static void adicionar(List<String> partes, String parte) {
+        if (parte != null && !parte.isEmpty()) {
+            partes.add(parte);
+        }
+    }
+
+    // O escape dos LIKE do ClienteRepository é a barra invertida
+    private static String escapar(String palavra) {
+        return palavra.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,19 +1,80 @@
 package br.fatec.p2Cloud.repository;
 
+import br.fatec.p2Cloud.dto.AgendaResumo;
+import br.fatec.p2Cloud.dto.Alteracao;
+import br.fatec.p2Cloud.dto.HorarioOcupado;
 import br.fatec.p2Cloud.model.Agenda;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AgendaRepository extends JpaRepository<Agenda, Long> {
     
-    List<Agenda> findByBarbeariaId(Long barbeariaId);
+    String SELECT_RESUMO = "select new br.fatec.p2Cloud.dto.AgendaResumo(a.id, a.data, a.descricao, a.funcionario, "
+            + "b.id, b.nome, c.id, c.nome, c.cpf, c.telefone, s.id, s.nome, s.valor, s.duracao) "
+            + "from Agenda a left join a.barbearia b left join a.cliente c left join a.servico s ";
     
-    List<Agenda> findByClienteId(Long clienteId);
+    // Detalhe de uma agenda com os relacionamentos serializados na resposta, em um único SELECT
+    @Override
+    @EntityGraph(attributePaths = {"barbearia", "cliente", "servico"})
+    Optional<Agenda> findById(Long id);
     
-    List<Agenda> findByDataBetween(LocalDateTime inicio, LocalDateTime fim);
+    @Query(SELECT_RESUMO + "where b.id = :barbeariaId order by a.data, a.id")
+    List<AgendaResumo> findByBarbeariaId(@Param("barbeariaId") Long barbeariaId);
+    
+    @Query(SELECT_RESUMO + "where c.id = :clienteId order by a.data, a.id")
+    List<AgendaResumo> findByClienteId(@Param("clienteId") Long clienteId);
+    
+    @Query(SELECT_RESUMO + "where a.data between :inicio and :fim order by a.data, a.id")
+    List<AgendaResumo> findByDataBetween(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+    
+    // Resumos das agendas alteradas, para o stream de eventos (TransmissaoAgendas)
+    @Query(SELECT_RESUMO + "where a.id in :ids")
+    List<AgendaResumo> findResumosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(SELECT_RESUMO + "order by a.data, a.id")
+    List<AgendaResumo> findPrimeiraPagina(Pageable pageable);
+    
+    @Query(SELECT_RESUMO + "where (a.data, a.id) > (:data, :id) order by a.data, a.id")
+    List<AgendaResumo> findPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pageable);
+    
+    // Cursor somente leitura para exportação; precisa ser consumido dentro de uma transação
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select a from Agenda a left join fetch a.cliente where a.barbearia.id = :barbeariaId order by a.data, a.id")
+    Stream<Agenda> streamByBarbeariaId(@Param("barbeariaId") Long barbeariaId);
+    
+    @Query("select new br.fatec.p2Cloud.dto.HorarioOcupado(a.id, a.funcionario, a.data, s.duracao) "
+            + "from Agenda a left join a.servico s "
+            + "where a.barbearia.id = :barbeariaId and a.data >= :inicio and a.data < :fim")
+    List<HorarioOcupado> findHorariosOcupados(@Param("barbeariaId") Long barbeariaId,
+                                              @Param("inicio") LocalDateTime inicio,
+                                              @Param("fim") LocalDateTime fim);
+    
+    // Linhas alteradas depois de uma posição do histórico, para /changes
+    String SELECT_ALTERACAO = "select new br.fatec.p2Cloud.dto.Alteracao(a.id, a.sequenciaAlteracao, a.atualizadoEm) "
+            + "from Agenda a where a.sequenciaAlteracao > :desde ";
+    
+    @Query(SELECT_ALTERACAO + "order by a.sequenciaAlteracao")
+    List<Alteracao> findAlteracoes(@Param("desde") Long desde, Pageable pageable);
+    
+    @Query(SELECT_ALTERACAO + "and a.barbearia.id = :barbeariaId order by a.sequenciaAlteracao")
+    List<Alteracao> findAlteracoesByBarbeariaId(@Param("desde") Long desde, @Param("barbeariaId") Long barbeariaId,
+                                                Pageable pageable);
 }
-
@@ -1,9 +1,12 @@
 package br.fatec.p2Cloud.repository;
 
 import br.fatec.p2Cloud.model.Barbearia;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,5 +15,8 @@ public interface BarbeariaRepository extends JpaRepository<Barbearia, Long> {
     Optional<Barbearia> findByCnpj(String cnpj);
     
     Optional<Barbearia> findByEmail(String email);
+    
+    List<Barbearia> findByCnpjIn(Collection<String> cnpjs);
+    
+    List<Barbearia> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
-
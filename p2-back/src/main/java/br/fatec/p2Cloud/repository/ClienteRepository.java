@@ -1,19 +1,90 @@
 package br.fatec.p2Cloud.repository;
 
+import br.fatec.p2Cloud.dto.Alteracao;
 import br.fatec.p2Cloud.model.Cliente;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
+    // A barbearia vai junto na resposta; o grafo evita um SELECT extra por cliente
+    @Override
+    @EntityGraph(attributePaths = "barbearia")
+    Optional<Cliente> findById(Long id);
+    
+    @EntityGraph(attributePaths = "barbearia")
     Optional<Cliente> findByCpf(String cpf);
     
     Optional<Cliente> findByEmail(String email);
     
+    @EntityGraph(attributePaths = "barbearia")
     List<Cliente> findByBarbeariaId(Long barbeariaId);
+    
+    List<Cliente> findByCpfIn(Collection<String> cpfs);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    List<Cliente> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    // Linhas alteradas depois de uma posição do histórico, para /changes
+    String SELECT_ALTERACAO = "select new br.fatec.p2Cloud.dto.Alteracao(c.id, c.sequenciaAlteracao, c.atualizadoEm) "
+            + "from Cliente c where c.sequenciaAlteracao > :desde ";
+    
+    @Query(SELECT_ALTERACAO + "order by c.sequenciaAlteracao")
+    List<Alteracao> findAlteracoes(@Param("desde") Long desde, Pageable pageable);
+    
+    @Query(SELECT_ALTERACAO + "and c.barbearia.id = :barbeariaId order by c.sequenciaAlteracao")
+    List<Alteracao> findAlteracoesByBarbeariaId(@Param("desde") Long desde, @Param("barbeariaId") Long barbeariaId,
+                                                Pageable pageable);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    List<Cliente> findByIdIn(Collection<Long> ids);
+    
+    // Busca do typeahead (TermoBusca) em três faixas, uma consulta cada, com o próprio limite: quem
+    // começa pelo trecho, quem tem uma palavra começando por ele e quem só o contém. :padrao é o trecho
+    // com % entre as palavras. A primeira faixa é um LIKE de prefixo e no PostgreSQL percorre o índice
+    // (termo_busca, id) já na ordem (V10), parando no limite; as outras usam o índice de trigramas
+    String BUSCA_INICIO = "c.termoBusca like :padrao escape '\\' ";
+    String BUSCA_PALAVRA = "c.termoBusca like concat('% ', :padrao) escape '\\' "
+            + "and c.termoBusca not like :padrao escape '\\' ";
+    String BUSCA_TRECHO = "c.termoBusca like concat('%', :padrao) escape '\\' "
+            + "and c.termoBusca not like concat('% ', :padrao) escape '\\' "
+            + "and c.termoBusca not like :padrao escape '\\' ";
+    String BUSCA_ORDEM = "order by c.termoBusca, c.id";
+    String BUSCA_BARBEARIA = "c.barbearia.id = :barbeariaId and ";
+    
+    @EntityGraph(attributePaths = "barbearia")
+    @Query("select c from Cliente c where " + BUSCA_INICIO + BUSCA_ORDEM)
+    List<Cliente> buscarInicio(@Param("padrao") String padrao, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    @Query("select c from Cliente c where " + BUSCA_PALAVRA + BUSCA_ORDEM)
+    List<Cliente> buscarPalavra(@Param("padrao") String padrao, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    @Query("select c from Cliente c where " + BUSCA_TRECHO + BUSCA_ORDEM)
+    List<Cliente> buscarTrecho(@Param("padrao") String padrao, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    @Query("select c from Cliente c where " + BUSCA_BARBEARIA + BUSCA_INICIO + BUSCA_ORDEM)
+    List<Cliente> buscarInicioPorBarbearia(@Param("padrao") String padrao, @Param("barbeariaId") Long barbeariaId,
+                                           Pageable pageable);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    @Query("select c from Cliente c where " + BUSCA_BARBEARIA + BUSCA_PALAVRA + BUSCA_ORDEM)
+    List<Cliente> buscarPalavraPorBarbearia(@Param("padrao") String padrao, @Param("barbeariaId") Long barbeariaId,
+                                            Pageable pageable);
+    
+    @EntityGraph(attributePaths = "barbearia")
+    @Query("select c from Cliente c where " + BUSCA_BARBEARIA + BUSCA_TRECHO + BUSCA_ORDEM)
+    List<Cliente> buscarTrechoPorBarbearia(@Param("padrao") String padrao, @Param("barbeariaId") Long barbeariaId,
+                                           Pageable pageable);
 }
-
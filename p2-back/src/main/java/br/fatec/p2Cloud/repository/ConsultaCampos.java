@@ -0,0 +1,166 @@
+package br.fatec.p2Cloud.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Listagens com os campos escolhidos pelo cliente (?fields=): só as colunas pedidas entram no SELECT
+// e só elas vão para a resposta, no mesmo formato da entidade. Valem os atributos simples da entidade
+// e os das associações muitos-para-um ("cliente.nome", ou "cliente" para todos os do cliente).
+// Os campos da ordenação sempre vêm, porque deles sai o cursor. @Component e não @Repository: um campo
+// inválido precisa chegar ao controller como IllegalArgumentException (400), sem a tradução do Spring Data
+@Component
+public class ConsultaCampos {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @FunctionalInterface
+    public interface Filtro<T> {
+        Predicate aplicar(CriteriaBuilder cb, Root<T> raiz);
+    }
+
+    public <T> List<Map<String, Object>> listar(Class<T> entidade, String campos, Filtro<T> filtro,
+                                                Pageable janela, String... ordem) {
+        List<String> caminhos = caminhos(entidade, campos, ordem);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<T> raiz = consulta.from(entidade);
+        // Left join explícito: navegar pelo caminho viraria inner join e sumiria com as linhas sem a associação
+        Map<String, From<T, ?>> juncoes = new HashMap<>();
+        List<Selection<?>> selecao = new ArrayList<>(caminhos.size());
+        for (String caminho : caminhos) {
+            int ponto = caminho.indexOf('.');
+            selecao.add(ponto < 0 ? raiz.get(caminho)
+                    : juncoes.computeIfAbsent(caminho.substring(0, ponto), associacao -> raiz.join(associacao, JoinType.LEFT))
+                            .get(caminho.substring(ponto + 1)));
+        }
+        consulta.multiselect(selecao);
+        if (filtro != null) {
+            consulta.where(filtro.aplicar(cb, raiz));
+        }
+        consulta.orderBy(Arrays.stream(ordem).map(atributo -> cb.asc(raiz.get(atributo))).toList());
+
+        TypedQuery<Tuple> query = entityManager.createQuery(consulta);
+        if (janela.isPaged()) {
+            query.setMaxResults(janela.getPageSize());
+        }
+        return query.getResultList().stream().map(tupla -> linha(caminhos, tupla)).toList();
+    }
+
+    // Valores nulos ficam de fora, como no JSON das entidades (spring.jackson.default-property-inclusion);
+    // uma associação ausente (todas as colunas nulas no left join) também
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> linha(List<String> caminhos, Tuple tupla) {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        for (int i = 0; i < caminhos.size(); i++) {
+            Object valor = tupla.get(i);
+            if (valor == null) {
+                continue;
+            }
+            String caminho = caminhos.get(i);
+            int ponto = caminho.indexOf('.');
+            if (ponto < 0) {
+                linha.put(caminho, valor);
+            } else {
+                ((Map<String, Object>) linha.computeIfAbsent(caminho.substring(0, ponto), associacao -> new LinkedHashMap<>()))
+                        .put(caminho.substring(ponto + 1), valor);
+            }
+        }
+        return linha;
+    }
+
+    private List<String> caminhos(Class<?> entidade, String campos, String... ordem) {
+        Set<String> caminhos = new LinkedHashSet<>(Arrays.asList(ordem));
+        for (String campo : campos.split(",")) {
+            campo = campo.trim();
+            if (campo.isEmpty()) {
+                continue;
+            }
+            int ponto = campo.indexOf('.');
+            String nome = ponto < 0 ? campo : campo.substring(0, ponto);
+            Attribute<?, ?> atributo = atributo(entidade, nome, campo);
+            if (ponto < 0 && isSimples(atributo)) {
+                caminhos.add(campo);
+            } else if (isAssociacao(atributo)) {
+                Class<?> alvo = atributo.getJavaType();
+                if (ponto < 0) {
+                    simples(alvo).forEach(simples -> caminhos.add(nome + "." + simples));
+                } else if (isSimples(atributo(alvo, campo.substring(ponto + 1), campo))) {
+                    caminhos.add(campo);
+                } else {
+                    throw desconhecido(campo);
+                }
+            } else {
+                throw desconhecido(campo);
+            }
+        }
+        return List.copyOf(caminhos);
+    }
+
+    // Na ordem de declaração na classe, a mesma do JSON da entidade; o que não vai no JSON (@JsonIgnore) fica de fora
+    private List<String> simples(Class<?> entidade) {
+        EntityType<?> tipo = entityManager.getMetamodel().entity(entidade);
+        List<String> nomes = new ArrayList<>();
+        for (Field campo : entidade.getDeclaredFields()) {
+            if (!campo.isAnnotationPresent(JsonIgnore.class)
+                    && tipo.getAttributes().stream().anyMatch(atributo -> atributo.getName().equals(campo.getName())
+                    && isSimples(atributo))) {
+                nomes.add(campo.getName());
+            }
+        }
+        return nomes;
+    }
+
+    private Attribute<?, ?> atributo(Class<?> entidade, String nome, String campo) {
+        Attribute<?, ?> atributo;
+        try {
+            atributo = entityManager.getMetamodel().entity(entidade).getAttribute(nome);
+        } catch (IllegalArgumentException e) {
+            throw desconhecido(campo);
+        }
+        if (atributo.getJavaMember() instanceof Field membro && membro.isAnnotationPresent(JsonIgnore.class)) {
+            throw desconhecido(campo);
+        }
+        return atributo;
+    }
+
+    private static boolean isSimples(Attribute<?, ?> atributo) {
+        return atributo instanceof SingularAttribute<?, ?>
+                && atributo.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC;
+    }
+
+    private static boolean isAssociacao(Attribute<?, ?> atributo) {
+        return atributo.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                || atributo.getPersistentAttributeType() == Attribute.PersistentAttributeType.ONE_TO_ONE;
+    }
+
+    private static IllegalArgumentException desconhecido(String campo) {
+        return new IllegalArgumentException("Campo inválido em fields: " + campo);
+    }
+}
@@ -0,0 +1,21 @@
+package br.fatec.p2Cloud.repository;
+
+import br.fatec.p2Cloud.model.ExclusaoBarbearia;
+import br.fatec.p2Cloud.model.ExclusaoBarbearia.Situacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExclusaoBarbeariaRepository extends JpaRepository<ExclusaoBarbearia, Long> {
+
+    Optional<ExclusaoBarbearia> findFirstByBarbeariaIdAndSituacaoIn(Long barbeariaId, Collection<Situacao> situacoes);
+
+    @Query("select e.id from ExclusaoBarbearia e where e.situacao in :situacoes order by e.id")
+    List<Long> findIdsBySituacaoIn(@Param("situacoes") Collection<Situacao> situacoes);
+}
@@ -0,0 +1,45 @@
+package br.fatec.p2Cloud.repository;
+
+import br.fatec.p2Cloud.config.VersoesRecursos;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Listener JPA que avisa o VersoesRecursos de cada linha gravada, inclusive as removidas em cascata
+public class ObservadorVersoes {
+
+    @Autowired
+    private VersoesRecursos versoes;
+
+    // Linha nova não aparece em nenhuma leitura de outro tipo que já tenha sido respondida
+    @PostPersist
+    public void inserida(Object entidade) {
+        registrar(entidade, false);
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void alterada(Object entidade) {
+        registrar(entidade, true);
+    }
+
+    private void registrar(Object entidade, boolean dependentes) {
+        switch (entidade) {
+            case Barbearia barbearia -> versoes.registrar(Recurso.BARBEARIAS, barbearia.getId(), dependentes);
+            case Cliente cliente -> versoes.registrar(Recurso.CLIENTES, barbeariaId(cliente.getBarbearia()), dependentes);
+            case Servico servico -> versoes.registrar(Recurso.SERVICOS, barbeariaId(servico.getBarbearia()), dependentes);
+            case Agenda agenda -> versoes.registrar(Recurso.AGENDAS, barbeariaId(agenda.getBarbearia()), dependentes);
+            default -> throw new IllegalArgumentException("Entidade sem versão: " + entidade.getClass().getSimpleName());
+        }
+    }
+
+    private static Long barbeariaId(Barbearia barbearia) {
+        return barbearia != null ? barbearia.getId() : null;
+    }
+}
@@ -0,0 +1,99 @@
+package br.fatec.p2Cloud.repository;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Rastreavel;
+import br.fatec.p2Cloud.model.Servico;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+
+// Listener JPA das entidades Rastreavel: cada inserção/atualização recebe o horário e o próximo
+// valor de alteracoes_seq; cada exclusão grava uma linha em remocoes na mesma transação.
+// Os valores da sequence são reservados em blocos por transação (1, 2, 4... até 256) para um
+// lote de mil linhas não custar mil nextval; o que sobra do bloco é descartado no fim.
+public class RastreioAlteracoes {
+
+    public static final String CLIENTES = "clientes";
+    public static final String SERVICOS = "servicos";
+    public static final String AGENDAS = "agendas";
+
+    private static final int BLOCO_MAXIMO = 256;
+    private static final Object CHAVE_BLOCO = new Object();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReservasAlteracoes reservasAlteracoes;
+
+    @PrePersist
+    @PreUpdate
+    public void registrarAlteracao(Rastreavel entidade) {
+        entidade.setAtualizadoEm(LocalDateTime.now());
+        entidade.setSequenciaAlteracao(proximaSequencia());
+    }
+
+    @PreRemove
+    public void registrarRemocao(Rastreavel entidade) {
+        Long barbeariaId = entidade.getBarbearia() != null ? entidade.getBarbearia().getId() : null;
+        jdbcTemplate.update("insert into remocoes (sequencia, entidade, entidade_id, barbearia_id, removido_em) "
+                        + "values (?, ?, ?, ?, ?)",
+                proximaSequencia(), entidadeDe(entidade), entidade.getId(), barbeariaId, LocalDateTime.now());
+    }
+
+    public static String entidadeDe(Rastreavel entidade) {
+        if (entidade instanceof Cliente) {
+            return CLIENTES;
+        }
+        if (entidade instanceof Servico) {
+            return SERVICOS;
+        }
+        if (entidade instanceof Agenda) {
+            return AGENDAS;
+        }
+        throw new IllegalArgumentException("Entidade sem rastreio: " + entidade.getClass().getSimpleName());
+    }
+
+    private long proximaSequencia() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return reservar(1).getFirst();
+        }
+        Bloco bloco = (Bloco) TransactionSynchronizationManager.getResource(CHAVE_BLOCO);
+        if (bloco == null) {
+            reservasAlteracoes.registrar();
+            bloco = new Bloco();
+            TransactionSynchronizationManager.bindResource(CHAVE_BLOCO, bloco);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHAVE_BLOCO);
+                }
+            });
+        }
+        if (bloco.valores.isEmpty()) {
+            bloco.valores.addAll(reservar(bloco.tamanho));
+            bloco.tamanho = Math.min(bloco.tamanho * 2, BLOCO_MAXIMO);
+        }
+        return bloco.valores.removeFirst();
+    }
+
+    private List<Long> reservar(int quantidade) {
+        return jdbcTemplate.queryForList("select nextval('alteracoes_seq') from generate_series(1, ?)",
+                Long.class, quantidade).stream().sorted().toList();
+    }
+
+    private static final class Bloco {
+
+        private final ArrayDeque<Long> valores = new ArrayDeque<>();
+        private int tamanho = 1;
+    }
+}
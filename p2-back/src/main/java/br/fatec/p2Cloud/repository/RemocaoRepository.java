@@ -0,0 +1,25 @@
+package br.fatec.p2Cloud.repository;
+
+import br.fatec.p2Cloud.dto.Alteracao;
+import br.fatec.p2Cloud.model.Remocao;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RemocaoRepository extends JpaRepository<Remocao, Long> {
+
+    String SELECT_ALTERACAO = "select new br.fatec.p2Cloud.dto.Alteracao(r.entidadeId, r.sequencia, r.removidoEm) "
+            + "from Remocao r where r.entidade = :entidade and r.sequencia > :desde ";
+
+    @Query(SELECT_ALTERACAO + "order by r.sequencia")
+    List<Alteracao> findAlteracoes(@Param("entidade") String entidade, @Param("desde") Long desde, Pageable pageable);
+
+    @Query(SELECT_ALTERACAO + "and r.barbeariaId = :barbeariaId order by r.sequencia")
+    List<Alteracao> findAlteracoesByBarbeariaId(@Param("entidade") String entidade, @Param("desde") Long desde,
+                                                @Param("barbeariaId") Long barbeariaId, Pageable pageable);
+}
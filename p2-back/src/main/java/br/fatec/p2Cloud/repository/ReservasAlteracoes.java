@@ -0,0 +1,99 @@
+package br.fatec.p2Cloud.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.TreeMap;
+
+// Posições de alteracoes_seq que transações ainda abertas podem confirmar. Antes do primeiro nextval
+// a transação registra o próximo valor da sequence (tudo o que ela reservar vem depois dele); /changes
+// só passa o token de sequências menores que o registro mais antigo, e nada abaixo disso ainda pode aparecer.
+// No PostgreSQL o registro é um advisory lock compartilhado da transação: aparece em pg_locks para
+// todas as instâncias e some sozinho no commit, no rollback ou se a conexão cair. Nos outros bancos
+// (o H2 dos testes, uma instância só) fica em memória.
+@Component
+public class ReservasAlteracoes {
+
+    private static final Object CHAVE_REGISTRO = new Object();
+
+    // Locks bigint (objsubid = 1) em modo compartilhado; os exclusivos da aplicação e do Flyway ficam de fora
+    private static final String MAIS_ANTIGA_POSTGRES = "select min((l.classid::bigint << 32) | l.objid::bigint) "
+            + "from pg_locks l where l.locktype = 'advisory' and l.objsubid = 1 and l.mode = 'ShareLock' "
+            + "and l.database = (select oid from pg_database where datname = current_database())";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private boolean postgres;
+
+    // Próximo valor registrado -> transações abertas com ele (só fora do PostgreSQL)
+    private final TreeMap<Long, Integer> abertas = new TreeMap<>();
+
+    @PostConstruct
+    void detectarBanco() throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            postgres = "PostgreSQL".equals(conexao.getMetaData().getDatabaseProductName());
+        }
+    }
+
+    // Uma vez por transação, antes de qualquer nextval('alteracoes_seq')
+    public void registrar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(CHAVE_REGISTRO)) {
+            return;
+        }
+        long proxima = proximaSequencia();
+        if (postgres) {
+            jdbcTemplate.queryForObject("select 1 from pg_advisory_xact_lock_shared(?)", Integer.class, proxima);
+        } else {
+            synchronized (abertas) {
+                abertas.merge(proxima, 1, Integer::sum);
+            }
+        }
+        TransactionSynchronizationManager.bindResource(CHAVE_REGISTRO, proxima);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CHAVE_REGISTRO);
+                if (!postgres) {
+                    synchronized (abertas) {
+                        abertas.computeIfPresent(proxima, (valor, quantidade) -> quantidade > 1 ? quantidade - 1 : null);
+                    }
+                }
+            }
+        });
+    }
+
+    // Sequências abaixo deste valor já estão confirmadas ou descartadas. A sequence é lida antes dos
+    // registros: quem ainda não aparece neles não tinha chegado ao nextval e vai receber um valor maior
+    public long limiteConfirmado() {
+        long limite = proximaSequencia();
+        Long maisAntiga;
+        if (postgres) {
+            maisAntiga = jdbcTemplate.queryForObject(MAIS_ANTIGA_POSTGRES, Long.class);
+        } else {
+            synchronized (abertas) {
+                maisAntiga = abertas.isEmpty() ? null : abertas.firstKey();
+            }
+        }
+        return maisAntiga != null ? Math.min(limite, maisAntiga) : limite;
+    }
+
+    // A sequence não é transacional: o valor lido já conta os nextval de transações ainda abertas
+    private long proximaSequencia() {
+        String sql = postgres
+                ? "select case when is_called then last_value + 1 else last_value end from alteracoes_seq"
+                : "select base_value from information_schema.sequences where sequence_name = 'alteracoes_seq'";
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
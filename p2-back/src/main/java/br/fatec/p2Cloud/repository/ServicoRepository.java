@@ -1,14 +1,48 @@
 package br.fatec.p2Cloud.repository;
 
+import br.fatec.p2Cloud.dto.Alteracao;
 import br.fatec.p2Cloud.model.Servico;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ServicoRepository extends JpaRepository<Servico, Long> {
     
+    // Carrega funcionários e barbearia junto: a lista vai para o cache e não pode depender de sessão aberta
+    @EntityGraph(attributePaths = {"funcionarios", "barbearia"})
     List<Servico> findByBarbeariaId(Long barbeariaId);
+    
+    @Override
+    @EntityGraph(attributePaths = {"funcionarios", "barbearia"})
+    Optional<Servico> findById(Long id);
+    
+    // Sem fetch da coleção aqui para o LIMIT continuar no banco; os funcionários vêm em lote (@BatchSize)
+    @EntityGraph(attributePaths = "barbearia")
+    List<Servico> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    // Linhas alteradas depois de uma posição do histórico, para /changes
+    String SELECT_ALTERACAO = "select new br.fatec.p2Cloud.dto.Alteracao(s.id, s.sequenciaAlteracao, s.atualizadoEm) "
+            + "from Servico s where s.sequenciaAlteracao > :desde ";
+    
+    @Query(SELECT_ALTERACAO + "order by s.sequenciaAlteracao")
+    List<Alteracao> findAlteracoes(@Param("desde") Long desde, Pageable pageable);
+    
+    @Query(SELECT_ALTERACAO + "and s.barbearia.id = :barbeariaId order by s.sequenciaAlteracao")
+    List<Alteracao> findAlteracoesByBarbeariaId(@Param("desde") Long desde, @Param("barbeariaId") Long barbeariaId,
+                                                Pageable pageable);
+    
+    @EntityGraph(attributePaths = {"funcionarios", "barbearia"})
+    List<Servico> findByIdIn(Collection<Long> ids);
+    
+    // Maior duração entre os serviços da barbearia: até onde uma agenda anterior pode avançar sobre um horário
+    @Query("select max(s.duracao) from Servico s where s.barbearia.id = :barbeariaId")
+    Integer findMaiorDuracao(@Param("barbeariaId") Long barbeariaId);
 }
-
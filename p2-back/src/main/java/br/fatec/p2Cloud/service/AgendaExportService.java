@@ -0,0 +1,154 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.AgendaExportLinha;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+public class AgendaExportService {
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        public static Formato of(String valor) {
+            try {
+                return valueOf(valor.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportação inválido: " + valor);
+            }
+        }
+    }
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.lote:500}")
+    private int lote;
+
+    // Só desta resposta (TempoLimiteAssincrono); as demais seguem o padrão do Spring MVC
+    @Value("${app.export.tempo-limite:PT1H}")
+    private Duration tempoLimite;
+
+    public Duration getTempoLimite() {
+        return tempoLimite;
+    }
+
+    // Percorre o cursor do banco escrevendo direto na saída; a memória usada não depende do tamanho da barbearia
+    public void exportar(Long barbeariaId, Formato formato, OutputStream saida) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        transacao.executeWithoutResult(status -> {
+            try (Stream<Agenda> agendas = agendaRepository.streamByBarbeariaId(barbeariaId)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+                if (formato == Formato.CSV) {
+                    escreverCsv(agendas.iterator(), writer);
+                } else {
+                    escreverNdjson(agendas.iterator(), writer);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void escreverNdjson(Iterator<Agenda> agendas, Writer writer) throws IOException {
+        ObjectWriter linhaWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long linhas = 0;
+        while (agendas.hasNext()) {
+            linhaWriter.writeValue(generator, AgendaExportLinha.of(agendas.next()));
+            generator.writeRaw('\n');
+            if (++linhas % lote == 0) {
+                liberarLote(writer);
+            }
+        }
+        generator.flush();
+    }
+
+    private void escreverCsv(Iterator<Agenda> agendas, Writer writer) throws IOException {
+        escreverLinhaCsv(writer, AgendaExportLinha.COLUNAS);
+        long linhas = 0;
+        while (agendas.hasNext()) {
+            escreverLinhaCsv(writer, AgendaExportLinha.of(agendas.next()).valores());
+            if (++linhas % lote == 0) {
+                liberarLote(writer);
+            }
+        }
+    }
+
+    private void escreverLinhaCsv(Writer writer, Object[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (valores[i] != null) {
+                writer.write(escaparCsv(valores[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private String escaparCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // Envia o lote ao cliente e solta as entidades já escritas do contexto de persistência
+    private void liberarLote(Writer writer) throws IOException {
+        writer.flush();
+        entityManager.clear();
+    }
+}
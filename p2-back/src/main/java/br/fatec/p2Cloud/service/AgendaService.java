@@ -1,16 +1,45 @@
 package br.fatec.p2Cloud.service;
 
+import br.fatec.p2Cloud.config.LeituraPrimaria;
+import br.fatec.p2Cloud.dto.AgendaResumo;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.Cursor;
+import br.fatec.p2Cloud.dto.HorarioOcupado;
+import br.fatec.p2Cloud.dto.ItemLote;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoLote;
+import br.fatec.p2Cloud.event.AgendaAlteradaEvent;
 import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
 import br.fatec.p2Cloud.repository.AgendaRepository;
 import br.fatec.p2Cloud.repository.BarbeariaRepository;
 import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.repository.ConsultaCampos;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
+import br.fatec.p2Cloud.repository.ServicoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,33 +54,308 @@ public class AgendaService {
     @Autowired
     private ClienteRepository clienteRepository;
 
-    public List<Agenda> findAll() {
-        return agendaRepository.findAll();
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private ConsultaCampos consultaCampos;
+
+    @Autowired
+    private Sincronizacao sincronizacao;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private TravaAgenda travaAgenda;
+
+    @Autowired
+    private ValidadorLote validadorLote;
+
+    @Transactional(readOnly = true)
+    public PaginaCursor<AgendaResumo> findPagina(String cursor, Integer tamanho) {
+        int limite = paginacao.limite(tamanho);
+        List<AgendaResumo> agendas;
+        if (cursor == null || cursor.isBlank()) {
+            agendas = agendaRepository.findPrimeiraPagina(paginacao.janela(limite));
+        } else {
+            String[] partes = Cursor.decodificar(cursor, 2);
+            try {
+                agendas = agendaRepository.findPaginaApos(
+                        LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]), paginacao.janela(limite));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+        return PaginaCursor.of(agendas, limite, agenda -> Cursor.codificar(agenda.data(), agenda.id()));
     }
 
-    public List<Agenda> findByBarbeariaId(Long barbeariaId) {
+    // Listagens com ?fields=: mesmos filtros e ordem, só com as colunas pedidas (ConsultaCampos)
+    @Transactional(readOnly = true)
+    public PaginaCursor<Map<String, Object>> findPagina(String cursor, Integer tamanho, String campos) {
+        int limite = paginacao.limite(tamanho);
+        ConsultaCampos.Filtro<Agenda> apos = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = Cursor.decodificar(cursor, 2);
+            LocalDateTime data;
+            Long id;
+            try {
+                data = LocalDateTime.parse(partes[0]);
+                id = Long.valueOf(partes[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            // (data, id) > (:data, :id); o data >= na frente deixa o índice de data delimitar a busca
+            apos = (cb, agenda) -> cb.and(cb.greaterThanOrEqualTo(agenda.<LocalDateTime>get("data"), data),
+                    cb.or(cb.greaterThan(agenda.<LocalDateTime>get("data"), data),
+                            cb.greaterThan(agenda.<Long>get("id"), id)));
+        }
+        List<Map<String, Object>> agendas = consultaCampos.listar(Agenda.class, campos, apos,
+                paginacao.janela(limite), "data", "id");
+        return PaginaCursor.of(agendas, limite, agenda -> Cursor.codificar(agenda.get("data"), agenda.get("id")));
+    }
+
+    // Sempre no primário: uma réplica atrasada poderia esconder uma alteração já confirmada abaixo
+    // das reservas abertas e o token passaria por ela
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    public Alteracoes<AgendaResumo> findAlteracoes(String token, Long barbeariaId, Integer tamanho) {
+        return sincronizacao.alteracoes(RastreioAlteracoes.AGENDAS, token, barbeariaId, tamanho,
+                (desde, janela) -> barbeariaId == null
+                        ? agendaRepository.findAlteracoes(desde, janela)
+                        : agendaRepository.findAlteracoesByBarbeariaId(desde, barbeariaId, janela),
+                agendaRepository::findResumosByIdIn, AgendaResumo::id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AgendaResumo> findByBarbeariaId(Long barbeariaId) {
         return agendaRepository.findByBarbeariaId(barbeariaId);
     }
 
-    public List<Agenda> findByClienteId(Long clienteId) {
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByBarbeariaId(Long barbeariaId, String campos) {
+        return consultaCampos.listar(Agenda.class, campos,
+                (cb, agenda) -> cb.equal(agenda.get("barbearia").get("id"), barbeariaId), Pageable.unpaged(), "data", "id");
+    }
+
+    @Transactional(readOnly = true)
+    public List<AgendaResumo> findByClienteId(Long clienteId) {
         return agendaRepository.findByClienteId(clienteId);
     }
 
-    public List<Agenda> findByDataBetween(LocalDateTime inicio, LocalDateTime fim) {
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByClienteId(Long clienteId, String campos) {
+        return consultaCampos.listar(Agenda.class, campos,
+                (cb, agenda) -> cb.equal(agenda.get("cliente").get("id"), clienteId), Pageable.unpaged(), "data", "id");
+    }
+
+    @Transactional(readOnly = true)
+    public List<AgendaResumo> findByDataBetween(LocalDateTime inicio, LocalDateTime fim) {
         return agendaRepository.findByDataBetween(inicio, fim);
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByDataBetween(LocalDateTime inicio, LocalDateTime fim, String campos) {
+        return consultaCampos.listar(Agenda.class, campos,
+                (cb, agenda) -> cb.between(agenda.<LocalDateTime>get("data"), inicio, fim), Pageable.unpaged(), "data", "id");
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Agenda> findById(Long id) {
         return agendaRepository.findById(id);
     }
 
     public Agenda save(Agenda agenda) {
+        boolean nova = agenda.getId() == null;
+        Agenda agendaSalva = persistir(agenda);
+        eventos.publishEvent(nova ? AgendaAlteradaEvent.criada(agendaSalva) : AgendaAlteradaEvent.atualizada(null, agendaSalva));
+        return agendaSalva;
+    }
+
+    private Agenda persistir(Agenda agenda) {
         if (agenda.getData() == null) {
             throw new IllegalArgumentException("Data é obrigatória");
         }
+        agenda.setServico(resolverServico(agenda));
+        verificarConflito(agenda);
         return agendaRepository.save(agenda);
     }
 
+    // Serviços e clientes do lote saem de duas consultas e os conflitos são checados contra uma
+    // única leitura da ocupação do período; os INSERTs saem em batches JDBC
+    public ResultadoLote saveLote(List<Agenda> agendas, Long barbeariaId) {
+        validadorLote.verificarTamanho(agendas.size());
+        Barbearia barbearia = barbeariaRepository.findById(barbeariaId)
+                .orElseThrow(() -> new RuntimeException("Barbearia não encontrada com id: " + barbeariaId));
+        Map<Long, Servico> servicos = servicoRepository.findByBarbeariaId(barbeariaId).stream()
+                .collect(Collectors.toMap(Servico::getId, Function.identity()));
+        Set<Long> clienteIds = agendas.stream()
+                .filter(agenda -> agenda != null && agenda.getCliente() != null && agenda.getCliente().getId() != null)
+                .map(agenda -> agenda.getCliente().getId())
+                .collect(Collectors.toSet());
+        Map<Long, Cliente> clientes = clienteRepository.findAllById(clienteIds).stream()
+                .collect(Collectors.toMap(Cliente::getId, Function.identity()));
+
+        List<ItemLote> itens = new ArrayList<>(agendas.size());
+        List<Agenda> candidatas = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        SortedSet<LocalDate> dias = new TreeSet<>();
+        for (int i = 0; i < agendas.size(); i++) {
+            Agenda agenda = agendas.get(i);
+            String erro = validadorLote.primeiroErro(agenda);
+            if (erro == null) {
+                erro = prepararItemLote(agenda, barbearia, servicos, clientes);
+            }
+            if (erro != null) {
+                itens.add(ItemLote.falha(i, erro));
+                continue;
+            }
+            HorarioOcupado horario = HorarioOcupado.of(agenda);
+            for (LocalDate dia = horario.inicio().toLocalDate(); horario.fim().isAfter(dia.atStartOfDay()); dia = dia.plusDays(1)) {
+                dias.add(dia);
+            }
+            itens.add(null);
+            candidatas.add(agenda);
+            indices.add(i);
+        }
+
+        List<Agenda> validas = new ArrayList<>();
+        if (!candidatas.isEmpty()) {
+            int maiorDuracao = servicos.values().stream()
+                    .map(Servico::getDuracao).filter(Objects::nonNull)
+                    .reduce(HorarioOcupado.DURACAO_PADRAO, Math::max);
+            LocalDateTime inicio = dias.first().atStartOfDay().minusMinutes(maiorDuracao);
+            dias.add(inicio.toLocalDate());
+            travaAgenda.travar(barbeariaId, dias);
+            LocalDateTime fim = dias.last().plusDays(1).atStartOfDay();
+            Map<String, TreeMap<LocalDateTime, HorarioOcupado>> grade = new HashMap<>();
+            for (HorarioOcupado ocupado : agendaRepository.findHorariosOcupados(barbeariaId, inicio, fim)) {
+                reservar(grade, ocupado);
+            }
+            for (int i = 0; i < candidatas.size(); i++) {
+                HorarioOcupado horario = HorarioOcupado.of(candidatas.get(i));
+                if (conflita(grade, horario)) {
+                    itens.set(indices.get(i), ItemLote.falha(indices.get(i), "Horário indisponível"));
+                } else {
+                    reservar(grade, horario);
+                    validas.add(candidatas.get(i));
+                }
+            }
+        }
+
+        agendaRepository.saveAll(validas);
+        for (int i = 0, v = 0; i < candidatas.size(); i++) {
+            Agenda agenda = candidatas.get(i);
+            if (v < validas.size() && validas.get(v) == agenda) {
+                itens.set(indices.get(i), ItemLote.sucesso(indices.get(i), agenda.getId()));
+                eventos.publishEvent(AgendaAlteradaEvent.criada(agenda));
+                v++;
+            }
+        }
+        return ResultadoLote.of(itens);
+    }
+
+    private String prepararItemLote(Agenda agenda, Barbearia barbearia, Map<Long, Servico> servicos,
+                                    Map<Long, Cliente> clientes) {
+        agenda.setId(null);
+        agenda.setBarbearia(barbearia);
+        if (agenda.getServico() != null) {
+            Servico servico = servicos.get(agenda.getServico().getId());
+            if (servico == null) {
+                return "Serviço não encontrado na barbearia";
+            }
+            List<String> funcionarios = servico.getFuncionarios();
+            if (agenda.getFuncionario() != null && !funcionarios.isEmpty() && !funcionarios.contains(agenda.getFuncionario())) {
+                return "Funcionário não atende este serviço";
+            }
+            agenda.setServico(servico);
+        }
+        if (agenda.getCliente() != null) {
+            Cliente cliente = clientes.get(agenda.getCliente().getId());
+            if (cliente == null) {
+                return "Cliente não encontrado";
+            }
+            agenda.setCliente(cliente);
+        }
+        return null;
+    }
+
+    // Grade por profissional ordenada pelo início; como os horários reservados não se sobrepõem,
+    // basta olhar o último que começa antes do fim do novo horário. Agendas sem funcionário ficam
+    // na chave null e disputam com todas as outras (HorarioOcupado.mesmaGrade)
+    private boolean conflita(Map<String, TreeMap<LocalDateTime, HorarioOcupado>> grade, HorarioOcupado horario) {
+        if (horario.funcionario() == null) {
+            return grade.values().stream().anyMatch(doFuncionario -> conflita(doFuncionario, horario));
+        }
+        return conflita(grade.get(horario.funcionario()), horario) || conflita(grade.get(null), horario);
+    }
+
+    private static boolean conflita(TreeMap<LocalDateTime, HorarioOcupado> doFuncionario, HorarioOcupado horario) {
+        if (doFuncionario == null) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, HorarioOcupado> anterior = doFuncionario.lowerEntry(horario.fim());
+        return anterior != null && anterior.getValue().fim().isAfter(horario.inicio());
+    }
+
+    private void reservar(Map<String, TreeMap<LocalDateTime, HorarioOcupado>> grade, HorarioOcupado horario) {
+        grade.computeIfAbsent(horario.funcionario(), funcionario -> new TreeMap<>())
+                .merge(horario.inicio(), horario, (atual, novo) -> atual.fim().isAfter(novo.fim()) ? atual : novo);
+    }
+
+    // A trava fica com a transação até o commit, então a agenda gravada já está visível para a próxima verificação.
+    // A janela começa uma duração máxima antes do início: uma agenda da véspera pode atravessar a meia-noite,
+    // e o dia dela entra na trava também
+    private void verificarConflito(Agenda agenda) {
+        if (agenda.getBarbearia() == null || agenda.getBarbearia().getId() == null) {
+            return;
+        }
+        Long barbeariaId = agenda.getBarbearia().getId();
+        HorarioOcupado horario = HorarioOcupado.of(agenda);
+        Integer maiorDuracao = servicoRepository.findMaiorDuracao(barbeariaId);
+        LocalDateTime inicio = horario.inicio().minusMinutes(
+                Math.max(HorarioOcupado.DURACAO_PADRAO, maiorDuracao != null ? maiorDuracao : 0));
+        LocalDate primeiroDia = inicio.toLocalDate();
+        LocalDate ultimoDia = horario.fim().minusNanos(1).toLocalDate();
+        SortedSet<LocalDate> dias = new TreeSet<>();
+        for (LocalDate dia = primeiroDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+            dias.add(dia);
+        }
+        travaAgenda.travar(barbeariaId, dias);
+
+        List<HorarioOcupado> ocupados = agendaRepository.findHorariosOcupados(barbeariaId, inicio, horario.fim());
+        for (HorarioOcupado ocupado : ocupados) {
+            if (!ocupado.agendaId().equals(agenda.getId())
+                    && ocupado.mesmaGrade(horario)
+                    && ocupado.inicio().isBefore(horario.fim())
+                    && ocupado.fim().isAfter(horario.inicio())) {
+                throw new IllegalArgumentException("Horário indisponível: conflita com a agenda " + ocupado.agendaId());
+            }
+        }
+    }
+
+    // O corpo da requisição traz apenas o id do serviço; carrega o serviço e confere barbearia e profissional
+    private Servico resolverServico(Agenda agenda) {
+        if (agenda.getServico() == null || agenda.getServico().getId() == null) {
+            return null;
+        }
+        Long servicoId = agenda.getServico().getId();
+        Servico servico = servicoRepository.findById(servicoId)
+                .orElseThrow(() -> new IllegalArgumentException("Serviço não encontrado com id: " + servicoId));
+        if (agenda.getBarbearia() != null && servico.getBarbearia() != null
+                && !agenda.getBarbearia().getId().equals(servico.getBarbearia().getId())) {
+            throw new IllegalArgumentException("Serviço não pertence à barbearia");
+        }
+        List<String> funcionarios = servico.getFuncionarios();
+        if (agenda.getFuncionario() != null && !funcionarios.isEmpty() && !funcionarios.contains(agenda.getFuncionario())) {
+            throw new IllegalArgumentException("Funcionário não atende este serviço");
+        }
+        return servico;
+    }
+
     public Agenda saveWithBarbearia(Agenda agenda, Long barbeariaId) {
         return barbeariaRepository.findById(barbeariaId)
                 .map(barbearia -> {
@@ -77,18 +381,28 @@ public class AgendaService {
     public Agenda update(Long id, Agenda agendaAtualizado) {
         Agenda agenda = agendaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Agenda não encontrada com id: " + id));
+        HorarioOcupado anterior = HorarioOcupado.of(agenda);
         
         agenda.setData(agendaAtualizado.getData());
         agenda.setDescricao(agendaAtualizado.getDescricao());
+        // Serviço e funcionário ausentes no corpo mantêm os atuais
+        if (agendaAtualizado.getServico() != null) {
+            agenda.setServico(agendaAtualizado.getServico());
+        }
+        if (agendaAtualizado.getFuncionario() != null) {
+            agenda.setFuncionario(agendaAtualizado.getFuncionario());
+        }
         
-        return save(agenda);
+        Agenda agendaSalva = persistir(agenda);
+        eventos.publishEvent(AgendaAlteradaEvent.atualizada(anterior, agendaSalva));
+        return agendaSalva;
     }
 
     public void deleteById(Long id) {
-        if (!agendaRepository.existsById(id)) {
-            throw new RuntimeException("Agenda não encontrada com id: " + id);
-        }
-        agendaRepository.deleteById(id);
+        Agenda agenda = agendaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Agenda não encontrada com id: " + id));
+        agendaRepository.delete(agenda);
+        eventos.publishEvent(AgendaAlteradaEvent.removida(agenda));
     }
 }
 
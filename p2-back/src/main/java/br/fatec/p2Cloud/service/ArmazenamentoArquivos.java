@@ -0,0 +1,12 @@
+package br.fatec.p2Cloud.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Destino de arquivos gerados pela aplicação (ex.: partições de agendas arquivadas).
+// A implementação é escolhida por app.arquivamento.destino (local ou s3).
+public interface ArmazenamentoArquivos {
+
+    // Grava o arquivo sob a chave informada, substituindo o que já existir com a mesma chave
+    void gravar(String chave, Path arquivo) throws IOException;
+}
@@ -0,0 +1,28 @@
+package br.fatec.p2Cloud.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Component
+@ConditionalOnProperty(name = "app.arquivamento.destino", havingValue = "local", matchIfMissing = true)
+public class ArmazenamentoLocal implements ArmazenamentoArquivos {
+
+    @Value("${app.arquivamento.diretorio:arquivo}")
+    private Path diretorio;
+
+    @Override
+    public void gravar(String chave, Path arquivo) throws IOException {
+        Path destino = diretorio.resolve(chave).normalize();
+        if (!destino.startsWith(diretorio.normalize())) {
+            throw new IllegalArgumentException("Chave fora do diretório de arquivamento: " + chave);
+        }
+        Files.createDirectories(destino.getParent());
+        Files.copy(arquivo, destino, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
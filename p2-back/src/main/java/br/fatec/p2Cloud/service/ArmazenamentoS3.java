@@ -0,0 +1,54 @@
+package br.fatec.p2Cloud.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+// Bucket S3 ou compatível (MinIO, R2...). Credenciais pela cadeia padrão da AWS (role da task no ECS,
+// variáveis AWS_ACCESS_KEY_ID/AWS_SECRET_ACCESS_KEY); com endpoint próprio usa path-style.
+@Component
+@ConditionalOnProperty(name = "app.arquivamento.destino", havingValue = "s3")
+public class ArmazenamentoS3 implements ArmazenamentoArquivos {
+
+    @Value("${app.arquivamento.s3.bucket}")
+    private String bucket;
+
+    @Value("${app.arquivamento.s3.regiao:us-east-1}")
+    private String regiao;
+
+    @Value("${app.arquivamento.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${app.arquivamento.s3.prefixo:}")
+    private String prefixo;
+
+    private S3Client s3;
+
+    @PostConstruct
+    void conectar() {
+        S3ClientBuilder builder = S3Client.builder().region(Region.of(regiao));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        s3 = builder.build();
+    }
+
+    @PreDestroy
+    void fechar() {
+        s3.close();
+    }
+
+    @Override
+    public void gravar(String chave, Path arquivo) {
+        s3.putObject(PutObjectRequest.builder().bucket(bucket).key(prefixo + chave).build(), arquivo);
+    }
+}
@@ -1,13 +1,29 @@
 package br.fatec.p2Cloud.service;
 
+import br.fatec.p2Cloud.config.CacheConfig;
+import br.fatec.p2Cloud.config.LeituraPrimaria;
+import br.fatec.p2Cloud.dto.Cursor;
+import br.fatec.p2Cloud.dto.ItemLote;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoLote;
 import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Documentos;
 import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ConsultaCampos;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -16,29 +32,62 @@ public class BarbeariaService {
     @Autowired
     private BarbeariaRepository barbeariaRepository;
 
-    public List<Barbearia> findAll() {
-        return barbeariaRepository.findAll();
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private ConsultaCampos consultaCampos;
+
+    @Autowired
+    private ValidadorLote validadorLote;
+
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    @Cacheable(cacheNames = CacheConfig.BARBEARIAS_PAGINA, key = "#cursor + ':' + #tamanho")
+    public PaginaCursor<Barbearia> findPagina(String cursor, Integer tamanho) {
+        int limite = paginacao.limite(tamanho);
+        Long aposId = cursor == null || cursor.isBlank() ? 0L : Cursor.paraId(cursor);
+        List<Barbearia> barbearias = barbeariaRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.janela(limite));
+        return PaginaCursor.of(barbearias, limite, barbearia -> Cursor.codificar(barbearia.getId()));
+    }
+
+    // Com ?fields= a consulta muda a cada combinação de campos; fica fora do cache
+    @Transactional(readOnly = true)
+    public PaginaCursor<Map<String, Object>> findPagina(String cursor, Integer tamanho, String campos) {
+        int limite = paginacao.limite(tamanho);
+        Long aposId = cursor == null || cursor.isBlank() ? 0L : Cursor.paraId(cursor);
+        List<Map<String, Object>> barbearias = consultaCampos.listar(Barbearia.class, campos,
+                (cb, barbearia) -> cb.greaterThan(barbearia.<Long>get("id"), aposId), paginacao.janela(limite), "id");
+        return PaginaCursor.of(barbearias, limite, barbearia -> Cursor.codificar(barbearia.get("id")));
     }
 
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    @Cacheable(cacheNames = CacheConfig.BARBEARIAS, key = "#id")
     public Optional<Barbearia> findById(Long id) {
         return barbeariaRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    @Cacheable(cacheNames = CacheConfig.BARBEARIAS_CNPJ, key = "T(br.fatec.p2Cloud.model.Documentos).cnpj(#cnpj)")
     public Optional<Barbearia> findByCnpj(String cnpj) {
-        return barbeariaRepository.findByCnpj(cnpj);
+        return barbeariaRepository.findByCnpj(Documentos.cnpj(cnpj));
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.BARBEARIAS, CacheConfig.BARBEARIAS_PAGINA, CacheConfig.BARBEARIAS_CNPJ,
+            CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
+    // CNPJ repetido é barrado pela restrição única; o flush leva o INSERT/UPDATE ao banco aqui dentro
     public Barbearia save(Barbearia barbearia) {
-        // Validação: verificar se CNPJ já existe
-        if (barbearia.getCnpj() != null && !barbearia.getCnpj().isEmpty()) {
-            Optional<Barbearia> barbeariaExistente = barbeariaRepository.findByCnpj(barbearia.getCnpj());
-            if (barbeariaExistente.isPresent() && !barbeariaExistente.get().getId().equals(barbearia.getId())) {
-                throw new IllegalArgumentException("CNPJ já cadastrado");
-            }
+        try {
+            return barbeariaRepository.saveAndFlush(barbearia);
+        } catch (DataIntegrityViolationException e) {
+            throw RestricoesUnicas.traduzir(e, Barbearia.RESTRICAO_CNPJ, "CNPJ já cadastrado");
         }
-        return barbeariaRepository.save(barbearia);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.BARBEARIAS, CacheConfig.BARBEARIAS_PAGINA, CacheConfig.BARBEARIAS_CNPJ,
+            CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
     public Barbearia update(Long id, Barbearia barbeariaAtualizado) {
         Barbearia barbearia = barbeariaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Barbearia não encontrada com id: " + id));
@@ -52,11 +101,44 @@ public class BarbeariaService {
         return save(barbearia);
     }
 
-    public void deleteById(Long id) {
-        if (!barbeariaRepository.existsById(id)) {
-            throw new RuntimeException("Barbearia não encontrada com id: " + id);
+    // Uma única consulta de CNPJ para o lote inteiro; os INSERTs saem em batches JDBC
+    @CacheEvict(cacheNames = {CacheConfig.BARBEARIAS, CacheConfig.BARBEARIAS_PAGINA, CacheConfig.BARBEARIAS_CNPJ,
+            CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
+    public ResultadoLote saveLote(List<Barbearia> barbearias) {
+        validadorLote.verificarTamanho(barbearias.size());
+        Set<String> cnpjs = barbearias.stream()
+                .filter(barbearia -> barbearia != null && barbearia.getCnpj() != null && !barbearia.getCnpj().isEmpty())
+                .map(Barbearia::getCnpj)
+                .collect(Collectors.toSet());
+        Set<String> cnpjsCadastrados = cnpjs.isEmpty() ? Set.of() : barbeariaRepository.findByCnpjIn(cnpjs).stream()
+                .map(Barbearia::getCnpj)
+                .collect(Collectors.toSet());
+        Set<String> cnpjsDoLote = new HashSet<>();
+
+        List<ItemLote> itens = new ArrayList<>(barbearias.size());
+        List<Barbearia> validas = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < barbearias.size(); i++) {
+            Barbearia barbearia = barbearias.get(i);
+            String erro = validadorLote.primeiroErro(barbearia);
+            if (erro == null && barbearia.getCnpj() != null && !barbearia.getCnpj().isEmpty()
+                    && (cnpjsCadastrados.contains(barbearia.getCnpj()) || !cnpjsDoLote.add(barbearia.getCnpj()))) {
+                erro = "CNPJ já cadastrado";
+            }
+            if (erro != null) {
+                itens.add(ItemLote.falha(i, erro));
+                continue;
+            }
+            barbearia.setId(null);
+            itens.add(null);
+            validas.add(barbearia);
+            indices.add(i);
         }
-        barbeariaRepository.deleteById(id);
+
+        barbeariaRepository.saveAll(validas);
+        for (int i = 0; i < validas.size(); i++) {
+            itens.set(indices.get(i), ItemLote.sucesso(indices.get(i), validas.get(i).getId()));
+        }
+        return ResultadoLote.of(itens);
     }
 }
-
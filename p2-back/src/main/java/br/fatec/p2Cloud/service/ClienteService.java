@@ -1,14 +1,35 @@
 package br.fatec.p2Cloud.service;
 
+import br.fatec.p2Cloud.config.LeituraPrimaria;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.Cursor;
+import br.fatec.p2Cloud.dto.ItemLote;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoLote;
+import br.fatec.p2Cloud.model.Barbearia;
 import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Documentos;
+import br.fatec.p2Cloud.model.TermoBusca;
 import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.repository.ConsultaCampos;
 import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -20,31 +41,109 @@ public class ClienteService {
     @Autowired
     private BarbeariaRepository barbeariaRepository;
 
-    public List<Cliente> findAll() {
-        return clienteRepository.findAll();
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private ConsultaCampos consultaCampos;
+
+    @Autowired
+    private Sincronizacao sincronizacao;
+
+    @Autowired
+    private ValidadorLote validadorLote;
+
+    @Value("${app.clientes.busca.limite-padrao:10}")
+    private int buscaLimitePadrao;
+
+    @Value("${app.clientes.busca.limite-maximo:50}")
+    private int buscaLimiteMaximo;
+
+    @Transactional(readOnly = true)
+    public PaginaCursor<Cliente> findPagina(String cursor, Integer tamanho) {
+        int limite = paginacao.limite(tamanho);
+        Long aposId = cursor == null || cursor.isBlank() ? 0L : Cursor.paraId(cursor);
+        List<Cliente> clientes = clienteRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.janela(limite));
+        return PaginaCursor.of(clientes, limite, cliente -> Cursor.codificar(cliente.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursor<Map<String, Object>> findPagina(String cursor, Integer tamanho, String campos) {
+        int limite = paginacao.limite(tamanho);
+        Long aposId = cursor == null || cursor.isBlank() ? 0L : Cursor.paraId(cursor);
+        List<Map<String, Object>> clientes = consultaCampos.listar(Cliente.class, campos,
+                (cb, cliente) -> cb.greaterThan(cliente.<Long>get("id"), aposId), paginacao.janela(limite), "id");
+        return PaginaCursor.of(clientes, limite, cliente -> Cursor.codificar(cliente.get("id")));
+    }
+
+    // Sempre no primário: uma réplica atrasada poderia esconder uma alteração já confirmada abaixo
+    // das reservas abertas e o token passaria por ela
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    public Alteracoes<Cliente> findAlteracoes(String token, Long barbeariaId, Integer tamanho) {
+        return sincronizacao.alteracoes(RastreioAlteracoes.CLIENTES, token, barbeariaId, tamanho,
+                (desde, janela) -> barbeariaId == null
+                        ? clienteRepository.findAlteracoes(desde, janela)
+                        : clienteRepository.findAlteracoesByBarbeariaId(desde, barbeariaId, janela),
+                clienteRepository::findByIdIn, Cliente::getId);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Cliente> findById(Long id) {
         return clienteRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Cliente> findByCpf(String cpf) {
-        return clienteRepository.findByCpf(cpf);
+        return clienteRepository.findByCpf(Documentos.cpf(cpf));
+    }
+
+    // Typeahead da recepção: sem acento, por trecho do nome, e-mail, CPF ou telefone, melhores primeiro.
+    // Menos que TermoBusca.MINIMO caracteres não busca nada. As faixas do ClienteRepository vão em
+    // ordem e cada uma só pede o que falta: um prefixo curto enche o limite na primeira
+    @Transactional(readOnly = true)
+    public List<Cliente> buscar(String digitado, Long barbeariaId, Integer limite) {
+        if (limite != null && limite < 1) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        String padrao = TermoBusca.padrao(digitado);
+        if (padrao == null) {
+            return List.of();
+        }
+        int tamanho = Math.min(limite != null ? limite : buscaLimitePadrao, buscaLimiteMaximo);
+        List<BiFunction<String, Pageable, List<Cliente>>> faixas = barbeariaId == null
+                ? List.of(clienteRepository::buscarInicio, clienteRepository::buscarPalavra, clienteRepository::buscarTrecho)
+                : List.of((trecho, janela) -> clienteRepository.buscarInicioPorBarbearia(trecho, barbeariaId, janela),
+                        (trecho, janela) -> clienteRepository.buscarPalavraPorBarbearia(trecho, barbeariaId, janela),
+                        (trecho, janela) -> clienteRepository.buscarTrechoPorBarbearia(trecho, barbeariaId, janela));
+        List<Cliente> encontrados = new ArrayList<>(tamanho);
+        for (BiFunction<String, Pageable, List<Cliente>> faixa : faixas) {
+            if (encontrados.size() == tamanho) {
+                break;
+            }
+            encontrados.addAll(faixa.apply(padrao, PageRequest.of(0, tamanho - encontrados.size())));
+        }
+        return encontrados;
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> findByBarbeariaId(Long barbeariaId) {
         return clienteRepository.findByBarbeariaId(barbeariaId);
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByBarbeariaId(Long barbeariaId, String campos) {
+        return consultaCampos.listar(Cliente.class, campos,
+                (cb, cliente) -> cb.equal(cliente.get("barbearia").get("id"), barbeariaId), Pageable.unpaged(), "id");
+    }
+
+    // CPF repetido é barrado pela restrição única; o flush leva o INSERT/UPDATE ao banco aqui dentro
     public Cliente save(Cliente cliente) {
-        // Validação: verificar se CPF já existe
-        if (cliente.getCpf() != null && !cliente.getCpf().isEmpty()) {
-            Optional<Cliente> clienteExistente = clienteRepository.findByCpf(cliente.getCpf());
-            if (clienteExistente.isPresent() && !clienteExistente.get().getId().equals(cliente.getId())) {
-                throw new IllegalArgumentException("CPF já cadastrado");
-            }
+        try {
+            return clienteRepository.saveAndFlush(cliente);
+        } catch (DataIntegrityViolationException e) {
+            throw RestricoesUnicas.traduzir(e, Cliente.RESTRICAO_CPF, "CPF já cadastrado");
         }
-        return clienteRepository.save(cliente);
     }
 
     public Cliente update(Long id, Cliente clienteAtualizado) {
@@ -69,6 +168,54 @@ public class ClienteService {
                 .orElseThrow(() -> new RuntimeException("Barbearia não encontrada com id: " + barbeariaId));
     }
 
+    // Uma única consulta de CPF para o lote inteiro; os INSERTs saem em batches JDBC
+    public ResultadoLote saveLote(List<Cliente> clientes, Long barbeariaId) {
+        validadorLote.verificarTamanho(clientes.size());
+        Barbearia barbearia = null;
+        if (barbeariaId != null) {
+            barbearia = barbeariaRepository.findById(barbeariaId)
+                    .orElseThrow(() -> new RuntimeException("Barbearia não encontrada com id: " + barbeariaId));
+        }
+
+        Set<String> cpfs = clientes.stream()
+                .filter(cliente -> cliente != null && cliente.getCpf() != null && !cliente.getCpf().isEmpty())
+                .map(Cliente::getCpf)
+                .collect(Collectors.toSet());
+        Set<String> cpfsCadastrados = cpfs.isEmpty() ? Set.of() : clienteRepository.findByCpfIn(cpfs).stream()
+                .map(Cliente::getCpf)
+                .collect(Collectors.toSet());
+        Set<String> cpfsDoLote = new HashSet<>();
+
+        List<ItemLote> itens = new ArrayList<>(clientes.size());
+        List<Cliente> validos = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < clientes.size(); i++) {
+            Cliente cliente = clientes.get(i);
+            String erro = validadorLote.primeiroErro(cliente);
+            if (erro == null && cliente.getCpf() != null && !cliente.getCpf().isEmpty()
+                    && (cpfsCadastrados.contains(cliente.getCpf()) || !cpfsDoLote.add(cliente.getCpf()))) {
+                erro = "CPF já cadastrado";
+            }
+            if (erro != null) {
+                itens.add(ItemLote.falha(i, erro));
+                continue;
+            }
+            cliente.setId(null);
+            if (barbearia != null) {
+                cliente.setBarbearia(barbearia);
+            }
+            itens.add(null);
+            validos.add(cliente);
+            indices.add(i);
+        }
+
+        clienteRepository.saveAll(validos);
+        for (int i = 0; i < validos.size(); i++) {
+            itens.set(indices.get(i), ItemLote.sucesso(indices.get(i), validos.get(i).getId()));
+        }
+        return ResultadoLote.of(itens);
+    }
+
     public void deleteById(Long id) {
         if (!clienteRepository.existsById(id)) {
             throw new RuntimeException("Cliente não encontrado com id: " + id);
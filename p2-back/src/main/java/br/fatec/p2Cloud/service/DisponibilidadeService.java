@@ -0,0 +1,47 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.config.LeituraPrimaria;
+import br.fatec.p2Cloud.dto.Disponibilidade;
+import br.fatec.p2Cloud.dto.HorarioLivre;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class DisponibilidadeService {
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private OcupacaoAgenda ocupacaoAgenda;
+
+    @Value("${app.disponibilidade.abertura:08:00}")
+    private LocalTime abertura;
+
+    @Value("${app.disponibilidade.fechamento:20:00}")
+    private LocalTime fechamento;
+
+    // A grade de ocupação carregada aqui fica em memória; não pode vir de uma réplica atrasada
+    @LeituraPrimaria
+    public Disponibilidade calcular(Long barbeariaId, Long servicoId, LocalDate dia) {
+        Servico servico = servicoRepository.findById(servicoId)
+                .orElseThrow(() -> new RuntimeException("Serviço não encontrado com id: " + servicoId));
+        if (servico.getBarbearia() == null || !barbeariaId.equals(servico.getBarbearia().getId())) {
+            throw new IllegalArgumentException("Serviço não pertence à barbearia");
+        }
+
+        List<HorarioLivre> horarios = ocupacaoAgenda.horariosLivres(barbeariaId, dia, servico.getFuncionarios(),
+                servico.getDuracao(), abertura, fechamento, LocalDateTime.now());
+        return new Disponibilidade(dia, servicoId, servico.getDuracao(), horarios);
+    }
+}
@@ -0,0 +1,298 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.config.CacheConfig;
+import br.fatec.p2Cloud.config.LeituraPrimaria;
+import br.fatec.p2Cloud.config.VersoesRecursos;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.dto.HorarioOcupado;
+import br.fatec.p2Cloud.event.AgendaAlteradaEvent;
+import br.fatec.p2Cloud.model.ExclusaoBarbearia;
+import br.fatec.p2Cloud.model.ExclusaoBarbearia.Etapa;
+import br.fatec.p2Cloud.model.ExclusaoBarbearia.Situacao;
+import br.fatec.p2Cloud.repository.ExclusaoBarbeariaRepository;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
+import br.fatec.p2Cloud.repository.ReservasAlteracoes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Exclusão de uma barbearia com clientes, serviços e agendas. O DELETE só registra a exclusão
+// (ExclusaoBarbearia) e responde; o trabalho roda no exclusoesExecutor, em lotes de
+// app.exclusoes.lote linhas, cada um na sua transação: os ids do lote, as marcas em remocoes
+// (sincronização incremental) e o DELETE, tudo por conjunto, sem carregar entidades. Nem a thread
+// da requisição nem o heap dependem do tamanho da barbearia. Cada lote é idempotente (apaga o que
+// ainda existe), então uma exclusão interrompida por um restart é retomada de onde parou
+@Service
+public class ExclusaoBarbeariaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExclusaoBarbeariaService.class);
+
+    private static final Set<Situacao> EM_ANDAMENTO = Set.of(Situacao.PENDENTE, Situacao.EXECUTANDO);
+
+    // Um filho inserido durante a exclusão faz o DELETE da barbearia falhar pela chave estrangeira;
+    // nesse caso as etapas rodam de novo, até este limite
+    private static final int TENTATIVAS = 3;
+
+    @Autowired
+    private ExclusaoBarbeariaRepository exclusaoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReservasAlteracoes reservasAlteracoes;
+
+    @Autowired
+    private VersoesRecursos versoes;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    @Qualifier("exclusoesExecutor")
+    private TaskExecutor executor;
+
+    @Value("${app.exclusoes.lote:1000}")
+    private int lote;
+
+    // Exclusões já entregues ao executor nesta instância: a verificação periódica não as repete
+    private final Set<Long> despachadas = ConcurrentHashMap.newKeySet();
+
+    // Uma exclusão em andamento por barbearia: pedir de novo devolve a mesma. A linha da barbearia
+    // fica travada até o commit, então dois DELETE simultâneos não criam duas exclusões: o segundo
+    // espera e já enxerga a do primeiro
+    @Transactional
+    public ExclusaoBarbearia agendar(Long barbeariaId) {
+        if (jdbcTemplate.queryForList("select id from barbearias where id = ? for update", Long.class, barbeariaId)
+                .isEmpty()) {
+            throw new RuntimeException("Barbearia não encontrada com id: " + barbeariaId);
+        }
+        Optional<ExclusaoBarbearia> emAndamento = exclusaoRepository.findFirstByBarbeariaIdAndSituacaoIn(barbeariaId, EM_ANDAMENTO);
+        if (emAndamento.isPresent()) {
+            return emAndamento.get();
+        }
+        ExclusaoBarbearia exclusao = exclusaoRepository.save(new ExclusaoBarbearia(barbeariaId));
+        Long id = exclusao.getId();
+        // Só depois do commit: a thread da exclusão precisa enxergar a linha
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                despachar(id);
+            }
+        });
+        return exclusao;
+    }
+
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    public Optional<ExclusaoBarbearia> findById(Long id) {
+        return exclusaoRepository.findById(id);
+    }
+
+    // Ao subir retoma as que um restart interrompeu; depois, de tempos em tempos, as que a fila recusou
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.exclusoes.verificacao:PT1M}", fixedDelayString = "${app.exclusoes.verificacao:PT1M}")
+    public void retomar() {
+        exclusaoRepository.findIdsBySituacaoIn(EM_ANDAMENTO).forEach(this::despachar);
+    }
+
+    private void despachar(Long id) {
+        if (!despachadas.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    executar(id);
+                } finally {
+                    despachadas.remove(id);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            despachadas.remove(id);
+            log.warn("Exclusão {} recusada pelo executor; fica para a próxima verificação", id);
+        }
+    }
+
+    void executar(Long id) {
+        Long barbeariaId = jdbcTemplate.queryForObject("select barbearia_id from exclusoes_barbearia where id = ?",
+                Long.class, id);
+        try {
+            for (int tentativa = 1; ; tentativa++) {
+                removerDependentes(id, barbeariaId);
+                try {
+                    removerBarbearia(id, barbeariaId);
+                    break;
+                } catch (DataIntegrityViolationException e) {
+                    if (tentativa == TENTATIVAS) {
+                        throw e;
+                    }
+                    log.info("Barbearia {} ganhou linhas durante a exclusão {}; repetindo as etapas", barbeariaId, id);
+                }
+            }
+            log.info("Exclusão {} da barbearia {} concluída", id, barbeariaId);
+        } catch (RuntimeException e) {
+            log.error("Exclusão {} da barbearia {} falhou", id, barbeariaId, e);
+            String erro = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            jdbcTemplate.update("update exclusoes_barbearia set situacao = ?, erro = ?, atualizada_em = ? where id = ?",
+                    Situacao.FALHOU.name(), erro.substring(0, Math.min(erro.length(), 1000)), LocalDateTime.now(), id);
+        }
+    }
+
+    private void removerDependentes(Long id, Long barbeariaId) {
+        // Agendas da barbearia. As de outras barbearias que apontam para um cliente ou serviço daqui
+        // ficam e só perdem a referência (desvincular), senão a chave estrangeira barraria o DELETE
+        removerEtapa(id, Etapa.AGENDAS, "agendas_removidas", "agendas", barbeariaId, ids -> {
+            remover("agendas", RastreioAlteracoes.AGENDAS, "id in (:ids) and barbearia_id = :barbeariaId", ids, barbeariaId);
+            versoes.registrar(Recurso.AGENDAS, barbeariaId, true);
+        });
+        removerEtapa(id, Etapa.SERVICOS, "servicos_removidos", "servicos", barbeariaId, ids -> {
+            desvincular("servico_id", ids, barbeariaId);
+            namedJdbcTemplate.update("delete from servico_funcionarios where servico_id in (:ids)",
+                    new MapSqlParameterSource("ids", ids));
+            remover("servicos", RastreioAlteracoes.SERVICOS, "id in (:ids)", ids, barbeariaId);
+            versoes.registrar(Recurso.SERVICOS, barbeariaId, true);
+            limparCaches(CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS);
+        });
+        removerEtapa(id, Etapa.CLIENTES, "clientes_removidos", "clientes", barbeariaId, ids -> {
+            desvincular("cliente_id", ids, barbeariaId);
+            remover("clientes", RastreioAlteracoes.CLIENTES, "id in (:ids)", ids, barbeariaId);
+            versoes.registrar(Recurso.CLIENTES, barbeariaId, true);
+        });
+    }
+
+    // Lotes até sobrar menos que um lote inteiro
+    private void removerEtapa(Long id, Etapa etapa, String contador, String tabela, Long barbeariaId, RemocaoLote remocao) {
+        int removidos;
+        do {
+            removidos = removerLote(id, etapa, contador, tabela, barbeariaId, remocao);
+        } while (removidos == lote);
+    }
+
+    // Uma transação: até `lote` ids, a remoção e o progresso. Devolve quantos ids o lote pegou. Sem
+    // order by: o índice por barbearia_id (V2) entrega os primeiros `lote` sem ordenar o que ainda
+    // resta da barbearia, e o que um lote remove não volta no seguinte
+    private int removerLote(Long id, Etapa etapa, String contador, String tabela, Long barbeariaId, RemocaoLote remocao) {
+        Integer removidos = transactionTemplate.execute(status -> {
+            List<Long> ids = namedJdbcTemplate.queryForList("select id from " + tabela
+                            + " where barbearia_id = :barbeariaId limit :lote",
+                    new MapSqlParameterSource("barbeariaId", barbeariaId).addValue("lote", lote), Long.class);
+            if (!ids.isEmpty()) {
+                remocao.remover(ids);
+            }
+            jdbcTemplate.update("update exclusoes_barbearia set situacao = ?, etapa = ?, " + contador + " = " + contador
+                    + " + ?, atualizada_em = ? where id = ?", Situacao.EXECUTANDO.name(), etapa.name(), ids.size(),
+                    LocalDateTime.now(), id);
+            return ids.size();
+        });
+        return removidos != null ? removidos : 0;
+    }
+
+    // Marca em remocoes e apaga as linhas do filtro, dois comandos para o conjunto inteiro. A marca
+    // leva a barbearia da própria linha (agendas de outras barbearias continuam na delas)
+    private void remover(String tabela, String entidade, String filtro, List<Long> ids, Long barbeariaId) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids)
+                .addValue("barbeariaId", barbeariaId)
+                .addValue("entidade", entidade)
+                .addValue("agora", LocalDateTime.now());
+        reservasAlteracoes.registrar();
+        namedJdbcTemplate.update("insert into remocoes (sequencia, entidade, entidade_id, barbearia_id, removido_em) "
+                + "select nextval('alteracoes_seq'), :entidade, id, barbearia_id, :agora from " + tabela
+                + " where " + filtro, parametros);
+        namedJdbcTemplate.update("delete from " + tabela + " where " + filtro, parametros);
+    }
+
+    // Agendas de outras barbearias continuam nelas sem o cliente/serviço que some. Como toda alteração
+    // de agenda: nova posição em alteracoes_seq, versão da barbearia dona e o evento para a grade de
+    // ocupação e o stream (sem serviço a agenda passa a ocupar a duração padrão)
+    private void desvincular(String coluna, List<Long> ids, Long barbeariaId) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids)
+                .addValue("barbeariaId", barbeariaId)
+                .addValue("agora", LocalDateTime.now());
+        String filtro = " where a." + coluna + " in (:ids) and (a.barbearia_id is null or a.barbearia_id <> :barbeariaId)";
+        List<AgendaAlteradaEvent> alteracoes = namedJdbcTemplate.query("select a.id, a.barbearia_id, a.funcionario, "
+                + "a.data, s.duracao from agendas a left join servicos s on s.id = a.servico_id" + filtro, parametros,
+                (linha, i) -> {
+                    HorarioOcupado anterior = new HorarioOcupado(linha.getLong("id"), linha.getString("funcionario"),
+                            linha.getTimestamp("data").toLocalDateTime(), linha.getObject("duracao", Integer.class));
+                    HorarioOcupado atual = coluna.equals("servico_id")
+                            ? new HorarioOcupado(anterior.agendaId(), anterior.funcionario(), anterior.inicio(), null)
+                            : anterior;
+                    return AgendaAlteradaEvent.atualizada(linha.getObject("barbearia_id", Long.class), anterior, atual);
+                });
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+        reservasAlteracoes.registrar();
+        namedJdbcTemplate.update("update agendas a set " + coluna + " = null, atualizado_em = :agora, "
+                + "sequencia_alteracao = nextval('alteracoes_seq')" + filtro, parametros);
+        alteracoes.forEach(alteracao -> {
+            versoes.registrar(Recurso.AGENDAS, alteracao.barbeariaId(), true);
+            eventos.publishEvent(alteracao);
+        });
+        log.info("{} agendas de outras barbearias perderam a referência {} da barbearia {}", alteracoes.size(),
+                coluna, barbeariaId);
+    }
+
+    private void removerBarbearia(Long id, Long barbeariaId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from barbearias where id = ?", barbeariaId);
+            LocalDateTime agora = LocalDateTime.now();
+            jdbcTemplate.update("update exclusoes_barbearia set situacao = ?, etapa = ?, atualizada_em = ?, "
+                    + "concluida_em = ? where id = ?", Situacao.CONCLUIDA.name(), Etapa.BARBEARIA.name(), agora, agora, id);
+            versoes.registrar(Recurso.BARBEARIAS, barbeariaId, true);
+            limparCaches(CacheConfig.BARBEARIAS, CacheConfig.BARBEARIAS_PAGINA, CacheConfig.BARBEARIAS_CNPJ,
+                    CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS);
+        });
+    }
+
+    // Os caches são transacionais: a limpeza só vale depois do commit do lote
+    private void limparCaches(String... nomes) {
+        for (String nome : nomes) {
+            Cache cache = cacheManager.getCache(nome);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RemocaoLote {
+        void remover(List<Long> ids);
+    }
+}
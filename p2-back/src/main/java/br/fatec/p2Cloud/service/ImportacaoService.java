@@ -0,0 +1,604 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.config.CacheConfig;
+import br.fatec.p2Cloud.config.VersoesRecursos;
+import br.fatec.p2Cloud.config.VersoesRecursos.Recurso;
+import br.fatec.p2Cloud.dto.ResultadoImportacao;
+import br.fatec.p2Cloud.dto.ResultadoImportacao.ErroLinha;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.model.TermoBusca;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ReservasAlteracoes;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Importação de planilhas (CSV) de clientes e serviços de uma barbearia. O arquivo é lido em
+// stream, registro a registro; só o lote corrente (app.importacao.lote linhas) fica em memória,
+// além dos CPFs já vistos no arquivo, um long por linha (CargaImportacaoTest mede 500 mil linhas).
+// Cada lote é gravado na sua transação, com INSERT/UPDATE em batch JDBC e uma consulta só para
+// achar o que já existe: clientes pelo CPF, serviços pelo nome na barbearia (upsert só das
+// colunas que a linha preenche). As linhas inválidas viram erros por linha, com as mesmas regras
+// de validação das entidades. Se um lote falha, a importação para e o resultado diz a linha de
+// onde retomar: os lotes anteriores ficam.
+@Service
+public class ImportacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoService.class);
+
+    // Igual ao allocationSize dos @SequenceGenerator de Cliente e Servico: cada nextval reserva
+    // os ids (valor - 49) a valor, como no otimizador pooled do Hibernate
+    private static final int ALOCACAO_IDS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReservasAlteracoes reservasAlteracoes;
+
+    @Autowired
+    private BarbeariaRepository barbeariaRepository;
+
+    @Autowired
+    private ValidadorLote validadorLote;
+
+    @Autowired
+    private VersoesRecursos versoes;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${app.importacao.lote:1000}")
+    private int lote;
+
+    @Value("${app.importacao.max-erros:1000}")
+    private int maxErros;
+
+    private final ObjectReader leitorCsv = new CsvMapper()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .readerFor(String[].class);
+
+    public ResultadoImportacao importarClientes(Long barbeariaId, InputStream arquivo, Integer retomarDaLinha)
+            throws IOException {
+        return importar(barbeariaId, arquivo, retomarDaLinha, new Clientes(barbeariaId));
+    }
+
+    public ResultadoImportacao importarServicos(Long barbeariaId, InputStream arquivo, Integer retomarDaLinha)
+            throws IOException {
+        return importar(barbeariaId, arquivo, retomarDaLinha, new Servicos(barbeariaId));
+    }
+
+    private <T> ResultadoImportacao importar(Long barbeariaId, InputStream arquivo, Integer retomarDaLinha,
+                                             Importador<T> importador) throws IOException {
+        if (!barbeariaRepository.existsById(barbeariaId)) {
+            throw new RuntimeException("Barbearia não encontrada com id: " + barbeariaId);
+        }
+        if (retomarDaLinha != null && retomarDaLinha < 2) {
+            throw new IllegalArgumentException("retomarDaLinha deve ser a partir de 2 (a linha 1 é o cabeçalho)");
+        }
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(arquivo, StandardCharsets.UTF_8));
+        String cabecalho = leitor.readLine();
+        if (cabecalho == null || cabecalho.isBlank()) {
+            throw new IllegalArgumentException("Arquivo vazio");
+        }
+        // Planilhas salvas pelo Excel em português vêm com ";" e com BOM
+        cabecalho = cabecalho.startsWith("﻿") ? cabecalho.substring(1) : cabecalho;
+        char separador = contar(cabecalho, ';') > contar(cabecalho, ',') ? ';' : ',';
+        Registro.Colunas colunas = Registro.colunas(cabecalho, separador, importador);
+
+        Progresso progresso = new Progresso(maxErros);
+        List<Linha<T>> pendentes = new ArrayList<>(lote);
+        int linha = 1;
+        try (MappingIterator<String[]> registros = leitorCsv
+                .with(CsvSchema.emptySchema().withColumnSeparator(separador))
+                .readValues(leitor)) {
+            while (true) {
+                String[] valores;
+                try {
+                    if (!registros.hasNextValue()) {
+                        break;
+                    }
+                    valores = registros.nextValue();
+                } catch (IOException | RuntimeException e) {
+                    // CSV malformado (aspas sem fechar): o que veio antes ainda é gravado
+                    if (gravar(pendentes, importador, progresso)) {
+                        progresso.interromper(linha + 1, "CSV inválido depois da linha " + linha + ": "
+                                + e.getMessage());
+                    }
+                    return progresso.resultado();
+                }
+                linha++;
+                Registro registro = new Registro(colunas, valores);
+                if (registro.vazio()) {
+                    continue;
+                }
+                if (retomarDaLinha != null && linha < retomarDaLinha) {
+                    // Já gravada antes: só entra na verificação de repetidos do arquivo
+                    importador.repetido(importador.converterSemErro(registro));
+                    continue;
+                }
+                progresso.linhas++;
+                T item;
+                String erro;
+                try {
+                    item = importador.converter(registro);
+                    erro = validadorLote.primeiroErro(item);
+                } catch (IllegalArgumentException e) {
+                    item = null;
+                    erro = e.getMessage();
+                }
+                if (erro == null && importador.repetido(item)) {
+                    erro = importador.mensagemRepetido();
+                }
+                if (erro != null) {
+                    progresso.erro(linha, erro);
+                    continue;
+                }
+                pendentes.add(new Linha<>(linha, item, registro.preenchidas()));
+                if (pendentes.size() == lote && !gravar(pendentes, importador, progresso)) {
+                    return progresso.resultado();
+                }
+            }
+        }
+        gravar(pendentes, importador, progresso);
+        return progresso.resultado();
+    }
+
+    // false quando o lote falhou: a importação para ali
+    private <T> boolean gravar(List<Linha<T>> pendentes, Importador<T> importador, Progresso progresso) {
+        if (pendentes.isEmpty()) {
+            return true;
+        }
+        int primeira = pendentes.getFirst().numero();
+        try {
+            Gravacao gravacao = new TransactionTemplate(transactionManager).execute(status -> {
+                reservasAlteracoes.registrar();
+                return importador.gravar(pendentes);
+            });
+            progresso.inseridas += gravacao.inseridas();
+            progresso.atualizadas += gravacao.atualizadas();
+            gravacao.erros().forEach(erro -> progresso.erro(erro.linha(), erro.erro()));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Importação interrompida no lote que começa na linha {}", primeira, e);
+            progresso.interromper(primeira, "Falha ao gravar as linhas " + primeira + " a "
+                    + pendentes.getLast().numero() + ": " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return false;
+        } finally {
+            pendentes.clear();
+        }
+    }
+
+    private Deque<Long> reservarIds(String sequence, int quantidade) {
+        Deque<Long> ids = new ArrayDeque<>(quantidade);
+        while (ids.size() < quantidade) {
+            int blocos = (quantidade - ids.size() + ALOCACAO_IDS - 1) / ALOCACAO_IDS;
+            for (Long alto : jdbcTemplate.queryForList("select nextval('" + sequence + "') from generate_series(1, ?)",
+                    Long.class, blocos)) {
+                for (long id = Math.max(1, alto - ALOCACAO_IDS + 1); id <= alto; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static int contar(String texto, char caractere) {
+        return (int) texto.chars().filter(c -> c == caractere).count();
+    }
+
+    private static Double numero(String valor, String mensagem) {
+        if (valor == null) {
+            return null;
+        }
+        // "1.234,50" e "1234.50"
+        String normalizado = valor.contains(",") ? valor.replace(".", "").replace(',', '.') : valor;
+        try {
+            return Double.valueOf(normalizado);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(mensagem + ": " + valor);
+        }
+    }
+
+    private static Integer inteiro(String valor, String mensagem) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(mensagem + ": " + valor);
+        }
+    }
+
+    private interface Importador<T> {
+
+        List<String> colunas();
+
+        List<String> obrigatorias();
+
+        // IllegalArgumentException vira o erro da linha
+        T converter(Registro registro);
+
+        default T converterSemErro(Registro registro) {
+            try {
+                return converter(registro);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        // Registra a chave do item; true se ela já apareceu antes no arquivo
+        boolean repetido(T item);
+
+        String mensagemRepetido();
+
+        Gravacao gravar(List<Linha<T>> linhas);
+    }
+
+    // Clientes pela chave única do CPF; sem CPF a linha é sempre um cliente novo. Um CPF que já é
+    // de outra barbearia não é tomado dela
+    private final class Clientes implements Importador<Cliente> {
+
+        private final Long barbeariaId;
+        private final ConjuntoLongs cpfs = new ConjuntoLongs();
+
+        Clientes(Long barbeariaId) {
+            this.barbeariaId = barbeariaId;
+        }
+
+        @Override
+        public List<String> colunas() {
+            return List.of("nome", "cpf", "telefone", "email", "endereco");
+        }
+
+        @Override
+        public List<String> obrigatorias() {
+            return List.of("nome");
+        }
+
+        @Override
+        public Cliente converter(Registro registro) {
+            return new Cliente(registro.valor("nome"), registro.valor("cpf"), registro.valor("telefone"),
+                    registro.valor("email"), registro.valor("endereco"));
+        }
+
+        @Override
+        public boolean repetido(Cliente cliente) {
+            // CPF já normalizado e validado: 11 dígitos cabem em um long
+            return cliente != null && cliente.getCpf() != null && cliente.getCpf().matches("\\d{11}")
+                    && !cpfs.adicionar(Long.parseLong(cliente.getCpf()));
+        }
+
+        @Override
+        public String mensagemRepetido() {
+            return "CPF repetido no arquivo";
+        }
+
+        @Override
+        public Gravacao gravar(List<Linha<Cliente>> linhas) {
+            List<String> cpfsDoLote = linhas.stream().map(linha -> linha.item().getCpf()).filter(cpf -> cpf != null).toList();
+            Map<String, ClienteGravado> existentes = new HashMap<>();
+            if (!cpfsDoLote.isEmpty()) {
+                namedJdbcTemplate.query("select id, cpf, barbearia_id, telefone, email, endereco from clientes "
+                                + "where cpf in (:cpfs)",
+                        Map.of("cpfs", cpfsDoLote), linha -> {
+                            existentes.put(linha.getString("cpf"), new ClienteGravado(linha.getLong("id"),
+                                    linha.getObject("barbearia_id", Long.class), linha.getString("telefone"),
+                                    linha.getString("email"), linha.getString("endereco")));
+                        });
+            }
+
+            LocalDateTime agora = LocalDateTime.now();
+            List<ErroLinha> erros = new ArrayList<>();
+            List<Object[]> insercoes = new ArrayList<>();
+            List<Object[]> atualizacoes = new ArrayList<>();
+            for (Linha<Cliente> linha : linhas) {
+                Cliente cliente = linha.item();
+                ClienteGravado existente = cliente.getCpf() != null ? existentes.get(cliente.getCpf()) : null;
+                if (existente != null && !barbeariaId.equals(existente.barbeariaId())) {
+                    erros.add(new ErroLinha(linha.numero(), "CPF cadastrado em outra barbearia"));
+                } else if (existente != null) {
+                    Cliente atualizado = new Cliente(cliente.getNome(), cliente.getCpf(),
+                            linha.preenchidas().contains("telefone") ? cliente.getTelefone() : existente.telefone(),
+                            linha.preenchidas().contains("email") ? cliente.getEmail() : existente.email(),
+                            linha.preenchidas().contains("endereco") ? cliente.getEndereco() : existente.endereco());
+                    atualizacoes.add(new Object[]{atualizado.getNome(), atualizado.getTelefone(), atualizado.getEmail(),
+                            atualizado.getEndereco(), TermoBusca.de(atualizado), agora, existente.id()});
+                } else {
+                    insercoes.add(new Object[]{null, cliente.getNome(), cliente.getCpf(), cliente.getTelefone(),
+                            cliente.getEmail(), cliente.getEndereco(), barbeariaId, TermoBusca.de(cliente), agora});
+                }
+            }
+
+            Deque<Long> ids = reservarIds("clientes_seq", insercoes.size());
+            insercoes.forEach(valores -> valores[0] = ids.removeFirst());
+            // atualizado_em e sequencia_alteracao como no RastreioAlteracoes, para a sincronização incremental ver as linhas
+            jdbcTemplate.batchUpdate("insert into clientes (id, nome, cpf, telefone, email, endereco, barbearia_id, "
+                    + "termo_busca, atualizado_em, sequencia_alteracao) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, nextval('alteracoes_seq'))", insercoes);
+            jdbcTemplate.batchUpdate("update clientes set nome = ?, telefone = ?, email = ?, endereco = ?, "
+                    + "termo_busca = ?, atualizado_em = ?, sequencia_alteracao = nextval('alteracoes_seq') "
+                    + "where id = ?", atualizacoes);
+            // O nome do cliente aparece nas agendas: atualização vale como alteração dos dependentes
+            versoes.registrar(Recurso.CLIENTES, barbeariaId, !atualizacoes.isEmpty());
+            return new Gravacao(insercoes.size(), atualizacoes.size(), erros);
+        }
+    }
+
+    private record ClienteGravado(Long id, Long barbeariaId, String telefone, String email, String endereco) {
+    }
+
+    // Serviços pelo nome dentro da barbearia (não há restrição única: vale o de menor id).
+    // Funcionários separados por "|"
+    private final class Servicos implements Importador<Servico> {
+
+        private final Long barbeariaId;
+        private final Set<String> nomes = new HashSet<>();
+
+        Servicos(Long barbeariaId) {
+            this.barbeariaId = barbeariaId;
+        }
+
+        @Override
+        public List<String> colunas() {
+            return List.of("nome", "valor", "duracao", "descricao", "funcionarios");
+        }
+
+        @Override
+        public List<String> obrigatorias() {
+            return List.of("nome", "valor");
+        }
+
+        @Override
+        public Servico converter(Registro registro) {
+            String funcionarios = registro.valor("funcionarios");
+            return new Servico(registro.valor("nome"), numero(registro.valor("valor"), "Valor inválido"),
+                    funcionarios == null ? List.of() : Arrays.stream(funcionarios.split("\\|"))
+                            .map(String::strip).filter(nome -> !nome.isEmpty()).toList(),
+                    inteiro(registro.valor("duracao"), "Duração inválida"), registro.valor("descricao"));
+        }
+
+        @Override
+        public boolean repetido(Servico servico) {
+            return servico != null && servico.getNome() != null && !nomes.add(servico.getNome());
+        }
+
+        @Override
+        public String mensagemRepetido() {
+            return "Serviço repetido no arquivo";
+        }
+
+        @Override
+        public Gravacao gravar(List<Linha<Servico>> linhas) {
+            Map<String, ServicoGravado> existentes = new HashMap<>();
+            namedJdbcTemplate.query("select id, nome, duracao, descricao from servicos "
+                            + "where barbearia_id = :barbeariaId and nome in (:nomes) order by id desc",
+                    Map.of("barbeariaId", barbeariaId, "nomes", linhas.stream().map(linha -> linha.item().getNome()).toList()),
+                    linha -> {
+                        existentes.put(linha.getString("nome"), new ServicoGravado(linha.getLong("id"),
+                                linha.getInt("duracao"), linha.getString("descricao")));
+                    });
+
+            LocalDateTime agora = LocalDateTime.now();
+            List<Object[]> insercoes = new ArrayList<>();
+            List<Object[]> atualizacoes = new ArrayList<>();
+            List<Object[]> funcionarios = new ArrayList<>();
+            List<Object[]> substituidos = new ArrayList<>();
+            Deque<Long> ids = reservarIds("servicos_seq",
+                    (int) linhas.stream().filter(linha -> !existentes.containsKey(linha.item().getNome())).count());
+            for (Linha<Servico> linha : linhas) {
+                Servico servico = linha.item();
+                ServicoGravado existente = existentes.get(servico.getNome());
+                Long id;
+                if (existente != null) {
+                    id = existente.id();
+                    atualizacoes.add(new Object[]{servico.getValor(),
+                            linha.preenchidas().contains("duracao") ? servico.getDuracao() : existente.duracao(),
+                            linha.preenchidas().contains("descricao") ? servico.getDescricao() : existente.descricao(),
+                            agora, id});
+                    if (!linha.preenchidas().contains("funcionarios")) {
+                        continue;
+                    }
+                    substituidos.add(new Object[]{id});
+                } else {
+                    id = ids.removeFirst();
+                    insercoes.add(new Object[]{id, servico.getNome(), servico.getValor(), servico.getDuracao(),
+                            servico.getDescricao(), barbeariaId, agora});
+                }
+                for (String funcionario : servico.getFuncionarios()) {
+                    funcionarios.add(new Object[]{id, funcionario});
+                }
+            }
+
+            jdbcTemplate.batchUpdate("insert into servicos (id, nome, valor, duracao, descricao, barbearia_id, "
+                    + "atualizado_em, sequencia_alteracao) values (?, ?, ?, ?, ?, ?, ?, nextval('alteracoes_seq'))", insercoes);
+            jdbcTemplate.batchUpdate("update servicos set valor = ?, duracao = ?, descricao = ?, atualizado_em = ?, "
+                    + "sequencia_alteracao = nextval('alteracoes_seq') where id = ?", atualizacoes);
+            jdbcTemplate.batchUpdate("delete from servico_funcionarios where servico_id = ?", substituidos);
+            jdbcTemplate.batchUpdate("insert into servico_funcionarios (servico_id, funcionario) values (?, ?)", funcionarios);
+            versoes.registrar(Recurso.SERVICOS, barbeariaId, !atualizacoes.isEmpty());
+            // Os caches são transacionais: a limpeza só acontece depois do commit, como nos @CacheEvict do ServicoService
+            for (String nome : List.of(CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS)) {
+                Cache cache = cacheManager.getCache(nome);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            return new Gravacao(insercoes.size(), atualizacoes.size(), List.of());
+        }
+    }
+
+    private record ServicoGravado(Long id, Integer duracao, String descricao) {
+    }
+
+    // Valores de uma linha do CSV pelo nome da coluna; vazio vira null
+    private record Registro(Colunas colunas, String[] valores) {
+
+        record Colunas(Map<String, Integer> indices) {
+        }
+
+        // Cabeçalho sem diferença de maiúsculas, acentos e espaços ("Duração" = "duracao")
+        static Colunas colunas(String cabecalho, char separador, Importador<?> importador) {
+            Map<String, Integer> indices = new HashMap<>();
+            String[] nomes = cabecalho.split(java.util.regex.Pattern.quote(String.valueOf(separador)), -1);
+            for (int i = 0; i < nomes.length; i++) {
+                String nome = Normalizer.normalize(nomes[i].strip().replace("\"", ""), Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+                if (nome.isEmpty()) {
+                    continue;
+                }
+                if (!importador.colunas().contains(nome)) {
+                    throw new IllegalArgumentException("Coluna desconhecida no CSV: " + nomes[i].strip()
+                            + " (aceitas: " + String.join(", ", importador.colunas()) + ")");
+                }
+                indices.put(nome, i);
+            }
+            for (String obrigatoria : importador.obrigatorias()) {
+                if (!indices.containsKey(obrigatoria)) {
+                    throw new IllegalArgumentException("Coluna obrigatória ausente no CSV: " + obrigatoria);
+                }
+            }
+            return new Colunas(indices);
+        }
+
+        String valor(String coluna) {
+            Integer indice = colunas.indices().get(coluna);
+            if (indice == null || indice >= valores.length || valores[indice] == null) {
+                return null;
+            }
+            String valor = valores[indice].strip();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        Set<String> preenchidas() {
+            Set<String> preenchidas = new HashSet<>();
+            for (String coluna : colunas.indices().keySet()) {
+                if (valor(coluna) != null) {
+                    preenchidas.add(coluna);
+                }
+            }
+            return preenchidas;
+        }
+
+        boolean vazio() {
+            return Arrays.stream(valores).allMatch(valor -> valor == null || valor.isBlank());
+        }
+    }
+
+    // preenchidas: colunas com valor nesta linha. Na atualização, as ausentes do cabeçalho ou vazias
+    // mantêm o que já está gravado
+    private record Linha<T>(int numero, T item, Set<String> preenchidas) {
+    }
+
+    private record Gravacao(int inseridas, int atualizadas, List<ErroLinha> erros) {
+    }
+
+    private static final class Progresso {
+
+        private final int maxErros;
+        private final List<ErroLinha> erros = new ArrayList<>();
+        private int linhas;
+        private int inseridas;
+        private int atualizadas;
+        private int falhas;
+        private Integer retomarDaLinha;
+        private String interrupcao;
+
+        Progresso(int maxErros) {
+            this.maxErros = maxErros;
+        }
+
+        void erro(int linha, String mensagem) {
+            falhas++;
+            if (erros.size() < maxErros) {
+                erros.add(new ErroLinha(linha, mensagem));
+            }
+        }
+
+        void interromper(int linha, String motivo) {
+            retomarDaLinha = linha;
+            interrupcao = motivo;
+        }
+
+        ResultadoImportacao resultado() {
+            return new ResultadoImportacao(linhas, inseridas, atualizadas, falhas, List.copyOf(erros),
+                    retomarDaLinha, interrupcao);
+        }
+    }
+
+    // CPFs já vistos no arquivo, 8 bytes cada em vez de um String por CPF: 500 mil linhas cabem em
+    // alguns MB. Endereçamento aberto; o valor guardado é CPF + 1 para o 0 marcar posição livre
+    private static final class ConjuntoLongs {
+
+        private long[] valores = new long[1 << 12];
+        private int tamanho;
+
+        boolean adicionar(long valor) {
+            if (tamanho * 2 >= valores.length) {
+                long[] antigos = valores;
+                valores = new long[antigos.length * 2];
+                tamanho = 0;
+                for (long antigo : antigos) {
+                    if (antigo != 0) {
+                        inserir(antigo);
+                    }
+                }
+            }
+            return inserir(valor + 1);
+        }
+
+        private boolean inserir(long guardado) {
+            int mascara = valores.length - 1;
+            int i = Long.hashCode(guardado * 0x9E3779B97F4A7C15L) & mascara;
+            while (valores[i] != 0) {
+                if (valores[i] == guardado) {
+                    return false;
+                }
+                i = (i + 1) & mascara;
+            }
+            valores[i] = guardado;
+            tamanho++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.HorarioLivre;
+import br.fatec.p2Cloud.dto.HorarioOcupado;
+import br.fatec.p2Cloud.event.AgendaAlteradaEvent;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Grade de ocupação em memória por barbearia, dia e profissional, em slots de 5 minutos.
+// É carregada do banco na primeira consulta do dia e depois mantida pelos eventos do AgendaService;
+// a validade limita o atraso em relação a gravações feitas por outras instâncias.
+@Component
+public class OcupacaoAgenda {
+
+    public static final int MINUTOS_SLOT = 5;
+    private static final int SLOTS_DIA = 24 * 60 / MINUTOS_SLOT;
+    private static final String SEM_FUNCIONARIO = "";
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Value("${app.disponibilidade.dias-em-memoria:5000}")
+    private int diasEmMemoria;
+
+    @Value("${app.disponibilidade.validade:PT1M}")
+    private Duration validade;
+
+    // Acesso sempre sincronizado em "dias"; a ordem de acesso descarta primeiro os dias menos consultados
+    private final LinkedHashMap<ChaveDia, Dia> dias = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ChaveDia, Dia> maisAntigo) {
+            return size() > diasEmMemoria;
+        }
+    };
+
+    // Incrementada a cada alteração; impede guardar um dia lido do banco antes de um commit concorrente
+    private final Map<Long, Long> geracoes = new HashMap<>();
+
+    public List<HorarioLivre> horariosLivres(Long barbeariaId, LocalDate dia, List<String> funcionarios,
+                                             int duracao, LocalTime abertura, LocalTime fechamento,
+                                             LocalDateTime aPartirDe) {
+        List<String> trilhas = funcionarios.isEmpty() ? List.of(SEM_FUNCIONARIO) : funcionarios;
+        int slots = Math.max(1, (duracao + MINUTOS_SLOT - 1) / MINUTOS_SLOT);
+        int primeiro = (abertura.toSecondOfDay() / 60 + MINUTOS_SLOT - 1) / MINUTOS_SLOT;
+        int limite = fechamento.equals(LocalTime.MIDNIGHT) ? SLOTS_DIA : fechamento.toSecondOfDay() / 60 / MINUTOS_SLOT;
+        if (dia.equals(aPartirDe.toLocalDate())) {
+            primeiro = Math.max(primeiro, (aPartirDe.toLocalTime().toSecondOfDay() / 60 + MINUTOS_SLOT - 1) / MINUTOS_SLOT);
+        } else if (dia.isBefore(aPartirDe.toLocalDate())) {
+            return List.of();
+        }
+
+        Dia ocupacao = obter(barbeariaId, dia);
+        List<HorarioLivre> horarios = new ArrayList<>();
+        synchronized (ocupacao) {
+            for (int slot = primeiro; slot + slots <= limite; slot++) {
+                List<String> livres = new ArrayList<>(trilhas.size());
+                for (String trilha : trilhas) {
+                    if (ocupacao.livre(trilha, slot, slots)) {
+                        livres.add(trilha);
+                    }
+                }
+                if (!livres.isEmpty()) {
+                    LocalTime inicio = LocalTime.ofSecondOfDay((long) slot * MINUTOS_SLOT * 60);
+                    horarios.add(new HorarioLivre(inicio, funcionarios.isEmpty() ? List.of() : livres));
+                }
+            }
+        }
+        return horarios;
+    }
+
+    @TransactionalEventListener
+    public void onAgendaAlterada(AgendaAlteradaEvent evento) {
+        Long barbeariaId = evento.barbeariaId();
+        if (barbeariaId == null) {
+            return;
+        }
+        synchronized (dias) {
+            geracoes.merge(barbeariaId, 1L, Long::sum);
+            if (evento.tipo() == AgendaAlteradaEvent.Tipo.ATUALIZADA && evento.anterior() == null) {
+                dias.keySet().removeIf(chave -> chave.barbeariaId().equals(barbeariaId));
+                return;
+            }
+            if (evento.anterior() != null) {
+                aplicar(barbeariaId, evento.anterior(), false);
+            }
+            if (evento.atual() != null) {
+                aplicar(barbeariaId, evento.atual(), true);
+            }
+        }
+    }
+
+    private void aplicar(Long barbeariaId, HorarioOcupado horario, boolean ocupar) {
+        LocalDate ultimoDia = horario.fim().minusNanos(1).toLocalDate();
+        for (LocalDate dia = horario.inicio().toLocalDate(); !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+            Dia ocupacao = dias.get(new ChaveDia(barbeariaId, dia));
+            if (ocupacao != null) {
+                synchronized (ocupacao) {
+                    if (ocupar) {
+                        ocupacao.ocupar(horario);
+                    } else {
+                        ocupacao.liberar(horario.agendaId());
+                    }
+                }
+            }
+        }
+    }
+
+    private Dia obter(Long barbeariaId, LocalDate dia) {
+        ChaveDia chave = new ChaveDia(barbeariaId, dia);
+        long geracao;
+        synchronized (dias) {
+            Dia ocupacao = dias.get(chave);
+            if (ocupacao != null && ocupacao.carregadoEm.plus(validade).isAfter(Instant.now())) {
+                return ocupacao;
+            }
+            geracao = geracoes.getOrDefault(barbeariaId, 0L);
+        }
+
+        Dia ocupacao = new Dia(dia);
+        // Inclui as agendas da véspera que ainda podem atravessar a meia-noite; marcar() recorta o que é do dia
+        LocalDateTime inicio = dia.atStartOfDay();
+        Integer maiorDuracao = servicoRepository.findMaiorDuracao(barbeariaId);
+        LocalDateTime desde = inicio.minusMinutes(
+                Math.max(HorarioOcupado.DURACAO_PADRAO, maiorDuracao != null ? maiorDuracao : 0));
+        for (HorarioOcupado horario : agendaRepository.findHorariosOcupados(barbeariaId, desde, inicio.plusDays(1))) {
+            ocupacao.ocupar(horario);
+        }
+
+        synchronized (dias) {
+            if (geracoes.getOrDefault(barbeariaId, 0L) == geracao) {
+                dias.put(chave, ocupacao);
+            }
+        }
+        return ocupacao;
+    }
+
+    private record ChaveDia(Long barbeariaId, LocalDate dia) {
+    }
+
+    // Contador por slot (e não um bit) para que liberar uma agenda não libere um horário
+    // que outra agenda sobreposta ainda ocupa
+    private static final class Dia {
+
+        private final LocalDate dia;
+        private final Instant carregadoEm = Instant.now();
+        private final Map<String, short[]> porFuncionario = new HashMap<>();
+        private final Map<Long, HorarioOcupado> agendas = new HashMap<>();
+
+        private Dia(LocalDate dia) {
+            this.dia = dia;
+        }
+
+        void ocupar(HorarioOcupado horario) {
+            liberar(horario.agendaId());
+            agendas.put(horario.agendaId(), horario);
+            marcar(horario, 1);
+        }
+
+        void liberar(Long agendaId) {
+            HorarioOcupado anterior = agendas.remove(agendaId);
+            if (anterior != null) {
+                marcar(anterior, -1);
+            }
+        }
+
+        // Agenda sem funcionário não diz quem vai atender: ocupa todos os profissionais. Pela mesma
+        // regra, a trilha sem funcionário (serviço sem profissionais listados) esbarra em qualquer agenda
+        boolean livre(String funcionario, int primeiro, int quantidade) {
+            if (funcionario.equals(SEM_FUNCIONARIO)) {
+                return porFuncionario.values().stream().allMatch(slots -> livre(slots, primeiro, quantidade));
+            }
+            return livre(porFuncionario.get(funcionario), primeiro, quantidade)
+                    && livre(porFuncionario.get(SEM_FUNCIONARIO), primeiro, quantidade);
+        }
+
+        private static boolean livre(short[] slots, int primeiro, int quantidade) {
+            if (slots == null) {
+                return true;
+            }
+            for (int i = primeiro; i < primeiro + quantidade; i++) {
+                if (slots[i] > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void marcar(HorarioOcupado horario, int delta) {
+            LocalDateTime inicioDia = dia.atStartOfDay();
+            LocalDateTime inicio = horario.inicio().isBefore(inicioDia) ? inicioDia : horario.inicio();
+            LocalDateTime fim = horario.fim().isAfter(inicioDia.plusDays(1)) ? inicioDia.plusDays(1) : horario.fim();
+            if (!inicio.isBefore(fim)) {
+                return;
+            }
+            long minutoInicio = Duration.between(inicioDia, inicio).toMinutes();
+            long minutoFim = Duration.between(inicioDia, fim).toMinutes();
+            int primeiro = (int) (minutoInicio / MINUTOS_SLOT);
+            int ultimo = (int) Math.min(SLOTS_DIA, (minutoFim + MINUTOS_SLOT - 1) / MINUTOS_SLOT);
+            String funcionario = horario.funcionario() != null ? horario.funcionario() : SEM_FUNCIONARIO;
+            short[] slots = porFuncionario.computeIfAbsent(funcionario, f -> new short[SLOTS_DIA]);
+            for (int i = primeiro; i < ultimo; i++) {
+                slots[i] += delta;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package br.fatec.p2Cloud.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+@Component
+public class Paginacao {
+
+    @Value("${app.paginacao.tamanho-padrao:50}")
+    private int tamanhoPadrao;
+
+    @Value("${app.paginacao.tamanho-maximo:200}")
+    private int tamanhoMaximo;
+
+    public int limite(Integer solicitado) {
+        if (solicitado == null) {
+            return Math.min(tamanhoPadrao, tamanhoMaximo);
+        }
+        if (solicitado < 1) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        return Math.min(solicitado, tamanhoMaximo);
+    }
+
+    // Busca uma linha a mais para saber se existe próxima página sem precisar de COUNT
+    public Pageable janela(int limite) {
+        return PageRequest.of(0, limite + 1);
+    }
+}
@@ -0,0 +1,128 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.AgendaResumo;
+import br.fatec.p2Cloud.dto.Painel;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// As quatro leituras da tela inicial rodam ao mesmo tempo no painelExecutor, cada uma na sua
+// transação somente leitura; a resposta espera a mais lenta, não a soma. Todas têm o mesmo prazo
+// (app.painel.timeout, contado do início): a que não termina a tempo é cancelada e o painel sai
+// sem ela. A transação de cada seção tem o mesmo prazo, que vira timeout das consultas no banco
+@Service
+public class PainelService {
+
+    private static final Logger log = LoggerFactory.getLogger(PainelService.class);
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    @Qualifier("painelExecutor")
+    private AsyncTaskExecutor executor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.painel.timeout:PT2S}")
+    private Duration timeout;
+
+    private TransactionTemplate leitura;
+
+    @PostConstruct
+    void iniciar() {
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        // O timeout de transação é em segundos; arredonda para cima para não cortar antes do prazo
+        leitura.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+    }
+
+    // Vazio quando a barbearia não existe; as seções que faltarem ficam em Painel.erros
+    public Optional<Painel> montar(Long barbeariaId) {
+        long prazo = System.nanoTime() + timeout.toNanos();
+        Future<Optional<Barbearia>> barbearia = secao(() -> barbeariaService.findById(barbeariaId));
+        Future<List<Cliente>> clientes = secao(() -> clienteService.findByBarbeariaId(barbeariaId));
+        Future<List<Servico>> servicos = secao(() -> servicoService.findByBarbeariaId(barbeariaId));
+        Future<List<AgendaResumo>> agendas = secao(() -> agendaService.findByBarbeariaId(barbeariaId));
+
+        Map<String, String> erros = new LinkedHashMap<>();
+        Optional<Barbearia> dadosBarbearia = aguardar("barbearia", barbearia, prazo, erros);
+        if (dadosBarbearia != null && dadosBarbearia.isEmpty()) {
+            clientes.cancel(true);
+            servicos.cancel(true);
+            agendas.cancel(true);
+            return Optional.empty();
+        }
+        return Optional.of(new Painel(
+                dadosBarbearia == null ? null : dadosBarbearia.get(),
+                aguardar("clientes", clientes, prazo, erros),
+                aguardar("servicos", servicos, prazo, erros),
+                aguardar("agendas", agendas, prazo, erros),
+                erros.isEmpty() ? null : erros));
+    }
+
+    private <T> Future<T> secao(Supplier<T> consulta) {
+        try {
+            return executor.submit(() -> leitura.execute(status -> consulta.get()));
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // null quando a seção não veio; o motivo fica em erros
+    private <T> T aguardar(String secao, Future<T> futuro, long prazo, Map<String, String> erros) {
+        try {
+            return futuro.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            log.warn("Seção {} do painel passou do prazo de {}", secao, timeout);
+            erros.put(secao, "timeout");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TaskRejectedException) {
+                log.warn("Seção {} do painel recusada: executor cheio", secao);
+                erros.put(secao, "indisponivel");
+            } else {
+                log.warn("Seção {} do painel falhou", secao, e.getCause());
+                erros.put(secao, "erro");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(true);
+            erros.put(secao, "interrompido");
+        }
+        return null;
+    }
+}
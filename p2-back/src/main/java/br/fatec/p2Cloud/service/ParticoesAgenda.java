@@ -0,0 +1,168 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.config.VersoesRecursos;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
+import br.fatec.p2Cloud.repository.ReservasAlteracoes;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Manutenção das partições mensais de agendas (PostgreSQL, ver V4__particiona_agendas.sql).
+// Cria os próximos meses com antecedência e arquiva os que saíram da janela de retenção:
+// a partição é exportada em CSV gzip para o ArmazenamentoArquivos e só depois desanexada e apagada,
+// na mesma transação que marca as agendas dela em remocoes para a sincronização incremental.
+@Component
+@ConditionalOnProperty(name = "app.agendas.particoes.habilitado", havingValue = "true")
+public class ParticoesAgenda {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticoesAgenda.class);
+
+    private static final Pattern NOME_PARTICAO = Pattern.compile("agendas_p(\\d{6})");
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ArmazenamentoArquivos armazenamento;
+
+    @Autowired
+    private VersoesRecursos versoes;
+
+    @Autowired
+    private ReservasAlteracoes reservasAlteracoes;
+
+    @Value("${app.agendas.particoes.meses-a-frente:3}")
+    private int mesesAFrente;
+
+    @Value("${app.agendas.particoes.retencao-meses:24}")
+    private int retencaoMeses;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        criarFuturas();
+    }
+
+    @Scheduled(cron = "${app.agendas.particoes.cron:0 30 3 * * *}")
+    public void manter() {
+        criarFuturas();
+        arquivarAntigas();
+    }
+
+    public void criarFuturas() {
+        YearMonth atual = YearMonth.now();
+        for (int i = 0; i <= mesesAFrente; i++) {
+            jdbcTemplate.queryForObject("select agendas_cria_particao(?)", String.class, atual.plusMonths(i).atDay(1));
+        }
+    }
+
+    // Devolve as partições arquivadas nesta execução; as que falharem ficam para a próxima
+    public List<String> arquivarAntigas() {
+        List<String> anexadas = jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                        + "where i.inhparent = 'agendas'::regclass", String.class);
+        List<String> arquivadas = new ArrayList<>();
+        for (String particao : anterioresA(anexadas, YearMonth.now().minusMonths(retencaoMeses))) {
+            try {
+                if (arquivar(particao)) {
+                    arquivadas.add(particao);
+                }
+            } catch (IOException | UncheckedIOException | DataAccessException e) {
+                log.error("Falha ao arquivar a partição {}", particao, e);
+            }
+        }
+        return arquivadas;
+    }
+
+    // Partições mensais (agendas_pAAAAMM) de meses anteriores ao limite, da mais antiga para a mais nova.
+    // A partição padrão e nomes fora do padrão nunca entram.
+    static List<String> anterioresA(Collection<String> particoes, YearMonth limite) {
+        List<String> antigas = new ArrayList<>();
+        for (String particao : particoes) {
+            Matcher nome = NOME_PARTICAO.matcher(particao);
+            if (nome.matches() && YearMonth.parse(nome.group(1), MES).isBefore(limite)) {
+                antigas.add(particao);
+            }
+        }
+        antigas.sort(null);
+        return antigas;
+    }
+
+    private boolean arquivar(String particao) throws IOException {
+        Path temporario = Files.createTempFile(particao, ".csv.gz");
+        try {
+            long exportadas = exportar(particao, temporario);
+            armazenamento.gravar("agendas/" + particao + ".csv.gz", temporario);
+            Boolean removida = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForObject("select pg_advisory_xact_lock(hashtext('agendas_particoes'))", Object.class);
+                if (jdbcTemplate.queryForObject("select to_regclass(?) is null", Boolean.class, particao)) {
+                    return false;
+                }
+                // Mês antigo não deveria mudar; se mudou depois da exportação, tenta de novo na próxima execução
+                jdbcTemplate.execute("lock table " + particao + " in share mode");
+                long atuais = jdbcTemplate.queryForObject("select count(*) from " + particao, Long.class);
+                if (atuais != exportadas) {
+                    log.warn("Partição {} mudou durante o arquivamento ({} linhas exportadas, {} atuais)",
+                            particao, exportadas, atuais);
+                    return false;
+                }
+                // Os clientes do /changes precisam saber que essas agendas saíram
+                reservasAlteracoes.registrar();
+                jdbcTemplate.update("insert into remocoes (sequencia, entidade, entidade_id, barbearia_id, removido_em) "
+                        + "select nextval('alteracoes_seq'), ?, id, barbearia_id, localtimestamp from " + particao,
+                        RastreioAlteracoes.AGENDAS);
+                jdbcTemplate.execute("alter table agendas detach partition " + particao);
+                jdbcTemplate.execute("drop table " + particao);
+                return true;
+            });
+            if (Boolean.TRUE.equals(removida)) {
+                // As agendas saíram por SQL, sem passar pelo JPA: nenhum ETag de agenda vale mais
+                versoes.alterarTodas(VersoesRecursos.Recurso.AGENDAS);
+                log.info("Partição {} arquivada com {} agendas", particao, exportadas);
+                return true;
+            }
+            return false;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private long exportar(String particao, Path destino) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) conexao -> {
+            try (OutputStream saida = new GZIPOutputStream(Files.newOutputStream(destino))) {
+                return conexao.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("copy " + particao + " to stdout with (format csv, header)", saida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
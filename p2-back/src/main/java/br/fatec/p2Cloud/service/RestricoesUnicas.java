@@ -0,0 +1,25 @@
+package br.fatec.p2Cloud.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+// A unicidade de CPF e CNPJ é conferida só pelo banco, no INSERT/UPDATE: nada de SELECT antes.
+// Aqui a violação da restrição vira a mesma IllegalArgumentException (400) da validação antiga
+final class RestricoesUnicas {
+
+    private RestricoesUnicas() {
+    }
+
+    static IllegalArgumentException traduzir(DataIntegrityViolationException e, String restricao, String mensagem) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            // O H2 devolve o nome do índice da restrição ("public.uk_clientes_cpf_index_2"), o PostgreSQL o nome exato
+            if (causa instanceof ConstraintViolationException violacao && violacao.getConstraintName() != null
+                    && violacao.getConstraintName().toLowerCase(Locale.ROOT).contains(restricao)) {
+                return new IllegalArgumentException(mensagem, e);
+            }
+        }
+        throw e;
+    }
+}
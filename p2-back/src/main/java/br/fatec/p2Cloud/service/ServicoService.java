@@ -1,13 +1,30 @@
 package br.fatec.p2Cloud.service;
 
+import br.fatec.p2Cloud.config.CacheConfig;
+import br.fatec.p2Cloud.config.LeituraPrimaria;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.Cursor;
+import br.fatec.p2Cloud.dto.ItemLote;
+import br.fatec.p2Cloud.dto.PaginaCursor;
+import br.fatec.p2Cloud.dto.ResultadoLote;
+import br.fatec.p2Cloud.model.Barbearia;
 import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.RastreioAlteracoes;
 import br.fatec.p2Cloud.repository.ServicoRepository;
 import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ConsultaCampos;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,19 +37,75 @@ public class ServicoService {
     @Autowired
     private BarbeariaRepository barbeariaRepository;
 
-    public List<Servico> findAll() {
-        return servicoRepository.findAll();
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private ConsultaCampos consultaCampos;
+
+    @Autowired
+    private Sincronizacao sincronizacao;
+
+    @Autowired
+    private ValidadorLote validadorLote;
+
+    @Transactional(readOnly = true)
+    public PaginaCursor<Servico> findPagina(String cursor, Integer tamanho) {
+        int limite = paginacao.limite(tamanho);
+        Long aposId = cursor == null || cursor.isBlank() ? 0L : Cursor.paraId(cursor);
+        List<Servico> servicos = servicoRepository.findByIdGreaterThanOrderByIdAsc(aposId, paginacao.janela(limite));
+        // Inicializa os funcionários ainda na transação: um SELECT por lote de 50 serviços
+        servicos.forEach(servico -> Hibernate.initialize(servico.getFuncionarios()));
+        return PaginaCursor.of(servicos, limite, servico -> Cursor.codificar(servico.getId()));
+    }
+
+    // Os funcionários (coleção) não entram nos campos escolhidos: seriam uma segunda consulta
+    @Transactional(readOnly = true)
+    public PaginaCursor<Map<String, Object>> findPagina(String cursor, Integer tamanho, String campos) {
+        int limite = paginacao.limite(tamanho);
+        Long aposId = cursor == null || cursor.isBlank() ? 0L : Cursor.paraId(cursor);
+        List<Map<String, Object>> servicos = consultaCampos.listar(Servico.class, campos,
+                (cb, servico) -> cb.greaterThan(servico.<Long>get("id"), aposId), paginacao.janela(limite), "id");
+        return PaginaCursor.of(servicos, limite, servico -> Cursor.codificar(servico.get("id")));
     }
 
+    // Sempre no primário: uma réplica atrasada poderia esconder uma alteração já confirmada abaixo
+    // das reservas abertas e o token passaria por ela
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    public Alteracoes<Servico> findAlteracoes(String token, Long barbeariaId, Integer tamanho) {
+        return sincronizacao.alteracoes(RastreioAlteracoes.SERVICOS, token, barbeariaId, tamanho,
+                (desde, janela) -> barbeariaId == null
+                        ? servicoRepository.findAlteracoes(desde, janela)
+                        : servicoRepository.findAlteracoesByBarbeariaId(desde, barbeariaId, janela),
+                servicoRepository::findByIdIn, Servico::getId);
+    }
+
+    @Transactional(readOnly = true)
+    @LeituraPrimaria
+    @Cacheable(cacheNames = CacheConfig.SERVICOS_BARBEARIA, key = "#barbeariaId")
     public List<Servico> findByBarbeariaId(Long barbeariaId) {
         return servicoRepository.findByBarbeariaId(barbeariaId);
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByBarbeariaId(Long barbeariaId, String campos) {
+        return consultaCampos.listar(Servico.class, campos,
+                (cb, servico) -> cb.equal(servico.get("barbearia").get("id"), barbeariaId), Pageable.unpaged(), "id");
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Servico> findById(Long id) {
         return servicoRepository.findById(id);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
     public Servico save(Servico servico) {
+        validar(servico);
+        return servicoRepository.save(servico);
+    }
+
+    private void validar(Servico servico) {
         // Validação de valor
         if (servico.getValor() < 0) {
             throw new IllegalArgumentException("Valor não pode ser negativo");
@@ -42,10 +115,9 @@ public class ServicoService {
         if (servico.getDuracao() < 0) {
             throw new IllegalArgumentException("Duração não pode ser negativa");
         }
-        
-        return servicoRepository.save(servico);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
     public Servico saveWithBarbearia(Servico servico, Long barbeariaId) {
         return barbeariaRepository.findById(barbeariaId)
                 .map(barbearia -> {
@@ -55,6 +127,7 @@ public class ServicoService {
                 .orElseThrow(() -> new RuntimeException("Barbearia não encontrada com id: " + barbeariaId));
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
     public Servico update(Long id, Servico servicoAtualizado) {
         Servico servico = servicoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Serviço não encontrado com id: " + id));
@@ -64,10 +137,56 @@ public class ServicoService {
         servico.setFuncionarios(servicoAtualizado.getFuncionarios());
         servico.setDuracao(servicoAtualizado.getDuracao());
         servico.setDescricao(servicoAtualizado.getDescricao());
+        // Trocar só os funcionários não suja a entidade e o @PreUpdate não rodaria; o horário
+        // marcado aqui garante a nova sequência de alteração
+        servico.setAtualizadoEm(LocalDateTime.now());
         
         return save(servico);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
+    public ResultadoLote saveLote(List<Servico> servicos, Long barbeariaId) {
+        validadorLote.verificarTamanho(servicos.size());
+        Barbearia barbearia = null;
+        if (barbeariaId != null) {
+            barbearia = barbeariaRepository.findById(barbeariaId)
+                    .orElseThrow(() -> new RuntimeException("Barbearia não encontrada com id: " + barbeariaId));
+        }
+
+        List<ItemLote> itens = new ArrayList<>(servicos.size());
+        List<Servico> validos = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < servicos.size(); i++) {
+            Servico servico = servicos.get(i);
+            String erro = validadorLote.primeiroErro(servico);
+            if (erro == null) {
+                try {
+                    validar(servico);
+                } catch (IllegalArgumentException e) {
+                    erro = e.getMessage();
+                }
+            }
+            if (erro != null) {
+                itens.add(ItemLote.falha(i, erro));
+                continue;
+            }
+            servico.setId(null);
+            if (barbearia != null) {
+                servico.setBarbearia(barbearia);
+            }
+            itens.add(null);
+            validos.add(servico);
+            indices.add(i);
+        }
+
+        servicoRepository.saveAll(validos);
+        for (int i = 0; i < validos.size(); i++) {
+            itens.set(indices.get(i), ItemLote.sucesso(indices.get(i), validos.get(i).getId()));
+        }
+        return ResultadoLote.of(itens);
+    }
+
+    @CacheEvict(cacheNames = {CacheConfig.SERVICOS_BARBEARIA, CacheConfig.RESPOSTAS}, allEntries = true)
     public void deleteById(Long id) {
         if (!servicoRepository.existsById(id)) {
             throw new RuntimeException("Serviço não encontrado com id: " + id);
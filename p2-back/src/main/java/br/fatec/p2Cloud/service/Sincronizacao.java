@@ -0,0 +1,84 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.Alteracao;
+import br.fatec.p2Cloud.dto.Alteracoes;
+import br.fatec.p2Cloud.dto.Cursor;
+import br.fatec.p2Cloud.repository.RemocaoRepository;
+import br.fatec.p2Cloud.repository.ReservasAlteracoes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Sincronização incremental (/changes): alterações e remoções de uma entidade depois da posição
+// guardada no token, na ordem de alteracoes_seq (ver RastreioAlteracoes)
+@Component
+public class Sincronizacao {
+
+    @Autowired
+    private RemocaoRepository remocaoRepository;
+
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private ReservasAlteracoes reservasAlteracoes;
+
+    public <T> Alteracoes<T> alteracoes(String entidade, String token, Long barbeariaId, Integer tamanho,
+                                        BiFunction<Long, Pageable, List<Alteracao>> historico,
+                                        Function<List<Long>, List<T>> carregar, Function<T, Long> idDe) {
+        long desde = token == null || token.isBlank() ? 0 : Cursor.paraId(token);
+        int limite = paginacao.limite(tamanho);
+        Pageable janela = paginacao.janela(limite);
+
+        // A sequence é reservada durante a transação e o commit vem depois: uma transação ainda aberta
+        // pode confirmar uma sequência menor que a de outra já visível. O token só passa de sequências
+        // abaixo da reserva aberta mais antiga, lida antes do histórico; as demais voltam na próxima
+        // chamada (o cliente aplica de novo)
+        long confirmadas = reservasAlteracoes.limiteConfirmado();
+        List<Alteracao> alterados = historico.apply(desde, janela);
+        List<Alteracao> removidos = barbeariaId == null
+                ? remocaoRepository.findAlteracoes(entidade, desde, janela)
+                : remocaoRepository.findAlteracoesByBarbeariaId(entidade, desde, barbeariaId, janela);
+
+        // As duas listas vêm ordenadas pela sequência; a página é o começo da junção delas
+        List<Alteracao> ordenadas = Stream.concat(alterados.stream(), removidos.stream())
+                .sorted(Comparator.comparing(Alteracao::sequencia))
+                .toList();
+        List<Alteracao> pagina = ordenadas.subList(0, Math.min(limite, ordenadas.size()));
+
+        long novoToken = desde;
+        for (Alteracao alteracao : pagina) {
+            if (alteracao.sequencia() >= confirmadas) {
+                break;
+            }
+            novoToken = alteracao.sequencia();
+        }
+        // Com o token parado antes do fim da página, repetir agora traria a mesma página
+        boolean hasMore = ordenadas.size() > limite && novoToken == pagina.get(pagina.size() - 1).sequencia();
+
+        Set<Alteracao> remocoes = new HashSet<>(removidos);
+        List<Long> idsRemovidos = new ArrayList<>();
+        List<Long> idsAlterados = new ArrayList<>();
+        for (Alteracao alteracao : pagina) {
+            (remocoes.contains(alteracao) ? idsRemovidos : idsAlterados).add(alteracao.id());
+        }
+        Map<Long, T> linhas = idsAlterados.isEmpty() ? Map.of() : carregar.apply(idsAlterados).stream()
+                .collect(Collectors.toMap(idDe, Function.identity()));
+        // Uma linha removida entre as duas consultas some daqui e chega como remoção na próxima chamada
+        List<T> changed = idsAlterados.stream().map(linhas::get).filter(Objects::nonNull).toList();
+
+        return new Alteracoes<>(changed, idsRemovidos, Cursor.codificar(novoToken), hasMore);
+    }
+}
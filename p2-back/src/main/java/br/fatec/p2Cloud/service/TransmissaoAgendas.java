@@ -0,0 +1,323 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.config.DataSourceRoteado;
+import br.fatec.p2Cloud.dto.AgendaResumo;
+import br.fatec.p2Cloud.dto.EventoAgenda;
+import br.fatec.p2Cloud.event.AgendaAlteradaEvent;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Stream (SSE) das alterações de agenda por barbearia, em memória desta instância.
+// Os AgendaAlteradaEvent chegam depois do commit; uma thread os prepara em lote (os resumos vêm
+// em uma consulta só), numera por barbearia e guarda no histórico do canal para a reconexão com
+// Last-Event-ID. Cada assinante tem uma fila limitada: se o cliente não acompanha, os eventos mais
+// antigos são descartados e ele recebe um "reset" para recarregar a lista inteira.
+@Component
+public class TransmissaoAgendas {
+
+    private static final Logger log = LoggerFactory.getLogger(TransmissaoAgendas.class);
+
+    public static final String EVENTO_RESET = "reset";
+    private static final int LOTE = 500;
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    @Value("${app.agendas.stream.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${app.agendas.stream.buffer:100}")
+    private int buffer;
+
+    @Value("${app.agendas.stream.historico:500}")
+    private int historico;
+
+    @Value("${app.agendas.stream.retencao-canal:PT5M}")
+    private Duration retencaoCanal;
+
+    // Os ids dos eventos levam a época da instância: um Last-Event-ID de outra instância
+    // (ou de antes de um restart) nunca é confundido com um id daqui
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, Canal> canais = new ConcurrentHashMap<>();
+    private final BlockingQueue<AgendaAlteradaEvent> pendentes = new LinkedBlockingQueue<>();
+    private final ExecutorService envio = Executors.newVirtualThreadPerTaskExecutor();
+    private Thread preparador;
+
+    @PostConstruct
+    void iniciar() {
+        preparador = Thread.ofPlatform().daemon().name("transmissao-agendas").start(this::preparar);
+    }
+
+    @PreDestroy
+    void parar() {
+        preparador.interrupt();
+        canais.values().forEach(canal -> canal.assinantes.forEach(assinante -> assinante.emitter.complete()));
+        envio.shutdownNow();
+    }
+
+    public SseEmitter assinar(Long barbeariaId, String ultimoEventoId) {
+        Assinante assinante = new Assinante(new SseEmitter(timeout.toMillis()));
+        canais.compute(barbeariaId, (id, canal) -> {
+            canal = canal != null ? canal : new Canal();
+            synchronized (canal) {
+                assinante.canal = canal;
+                canal.assinantes.add(assinante);
+                if (ultimoEventoId != null && !canal.reenviarApos(sequenciaDe(ultimoEventoId), assinante)) {
+                    assinante.perdeuEventos = true;
+                }
+            }
+            return canal;
+        });
+        assinante.emitter.onCompletion(() -> remover(assinante));
+        assinante.emitter.onTimeout(() -> remover(assinante));
+        assinante.emitter.onError(erro -> remover(assinante));
+        agendar(assinante);
+        return assinante.emitter;
+    }
+
+    @TransactionalEventListener
+    public void onAgendaAlterada(AgendaAlteradaEvent evento) {
+        if (evento.barbeariaId() != null && canais.containsKey(evento.barbeariaId())) {
+            pendentes.add(evento);
+        }
+    }
+
+    // Mantém as conexões vivas em proxies e no ALB e libera canais sem assinantes há algum tempo
+    @Scheduled(fixedDelayString = "${app.agendas.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        Instant limite = Instant.now().minus(retencaoCanal);
+        canais.forEach((barbeariaId, canal) -> {
+            for (Assinante assinante : canal.assinantes) {
+                envio.execute(() -> enviar(assinante, SseEmitter.event().comment("")));
+            }
+        });
+        canais.keySet().forEach(barbeariaId -> canais.computeIfPresent(barbeariaId, (id, canal) -> {
+            synchronized (canal) {
+                return canal.assinantes.isEmpty() && canal.ociosoDesde.isBefore(limite) ? null : canal;
+            }
+        }));
+    }
+
+    public int getAssinantes() {
+        return canais.values().stream().mapToInt(canal -> canal.assinantes.size()).sum();
+    }
+
+    private void preparar() {
+        // Logo depois do commit uma réplica ainda pode não ter a alteração
+        DataSourceRoteado.exigirPrimario(true);
+        List<AgendaAlteradaEvent> lote = new ArrayList<>(LOTE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                lote.add(pendentes.take());
+                pendentes.drainTo(lote, LOTE - 1);
+                publicar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao publicar {} eventos de agenda no stream", lote.size(), e);
+                descartar(lote);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void publicar(List<AgendaAlteradaEvent> lote) {
+        List<Long> ids = lote.stream()
+                .filter(evento -> evento.tipo() != AgendaAlteradaEvent.Tipo.REMOVIDA)
+                .map(AgendaAlteradaEvent::agendaId)
+                .distinct()
+                .toList();
+        Map<Long, AgendaResumo> resumos = ids.isEmpty() ? Map.of() : agendaRepository.findResumosByIdIn(ids).stream()
+                .collect(Collectors.toMap(AgendaResumo::id, Function.identity()));
+
+        for (AgendaAlteradaEvent evento : lote) {
+            Canal canal = canais.get(evento.barbeariaId());
+            if (canal == null) {
+                continue;
+            }
+            EventoAgenda dados = new EventoAgenda(evento.tipo().name(), evento.agendaId(),
+                    evento.tipo() == AgendaAlteradaEvent.Tipo.REMOVIDA ? null : resumos.get(evento.agendaId()));
+            synchronized (canal) {
+                canal.publicar(dados);
+            }
+            canal.assinantes.forEach(this::agendar);
+        }
+    }
+
+    // Os eventos do lote não vão sair: quem assina as barbearias dele recebe "reset", e a reconexão
+    // com um Last-Event-ID anterior à falha também (o histórico não tem o que se perdeu)
+    private void descartar(List<AgendaAlteradaEvent> lote) {
+        lote.stream().map(AgendaAlteradaEvent::barbeariaId).distinct().forEach(barbeariaId -> {
+            Canal canal = canais.get(barbeariaId);
+            if (canal == null) {
+                return;
+            }
+            synchronized (canal) {
+                canal.perderEventos();
+            }
+            canal.assinantes.forEach(this::agendar);
+        });
+    }
+
+    private void agendar(Assinante assinante) {
+        if (assinante.enviando.compareAndSet(false, true)) {
+            envio.execute(() -> drenar(assinante));
+        }
+    }
+
+    // Um envio por vez por assinante, na ordem da fila. Depois de uma perda vai um "reset" sem id
+    // (o Last-Event-ID do navegador continua o do último evento entregue) e a fila segue normalmente
+    private void drenar(Assinante assinante) {
+        while (true) {
+            SseEmitter.SseEventBuilder evento;
+            synchronized (assinante) {
+                if (assinante.perdeuEventos) {
+                    assinante.perdeuEventos = false;
+                    evento = SseEmitter.event().name(EVENTO_RESET).data("");
+                } else {
+                    Mensagem mensagem = assinante.fila.poll();
+                    if (mensagem == null) {
+                        assinante.enviando.set(false);
+                        return;
+                    }
+                    evento = SseEmitter.event().id(epoca + "-" + mensagem.sequencia).name(mensagem.dados.tipo())
+                            .data(mensagem.dados, MediaType.APPLICATION_JSON);
+                }
+            }
+            if (!enviar(assinante, evento)) {
+                assinante.enviando.set(false);
+                return;
+            }
+        }
+    }
+
+    private boolean enviar(Assinante assinante, SseEmitter.SseEventBuilder evento) {
+        try {
+            assinante.emitter.send(evento);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou; o emitter dispara onError/onCompletion
+            remover(assinante);
+            return false;
+        }
+    }
+
+    private void remover(Assinante assinante) {
+        Canal canal = assinante.canal;
+        synchronized (canal) {
+            if (canal.assinantes.remove(assinante) && canal.assinantes.isEmpty()) {
+                canal.ociosoDesde = Instant.now();
+            }
+        }
+    }
+
+    // Sequência de um id desta instância ou -1 se o id não é daqui
+    private long sequenciaDe(String ultimoEventoId) {
+        int separador = ultimoEventoId.lastIndexOf('-');
+        if (separador < 0 || !ultimoEventoId.substring(0, separador).equals(epoca)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(ultimoEventoId.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Mensagem(long sequencia, EventoAgenda dados) {
+    }
+
+    // Acesso a sequencia/historico sempre sincronizado no canal
+    private final class Canal {
+
+        private long sequencia;
+        private final ArrayDeque<Mensagem> historico = new ArrayDeque<>();
+        private final Set<Assinante> assinantes = new CopyOnWriteArraySet<>();
+        private Instant ociosoDesde = Instant.now();
+
+        void publicar(EventoAgenda dados) {
+            Mensagem mensagem = new Mensagem(++sequencia, dados);
+            historico.addLast(mensagem);
+            if (historico.size() > TransmissaoAgendas.this.historico) {
+                historico.removeFirst();
+            }
+            assinantes.forEach(assinante -> assinante.enfileirar(mensagem));
+        }
+
+        // A sequência pula uma posição (a dos eventos perdidos) e o histórico recomeça depois dela
+        void perderEventos() {
+            sequencia++;
+            historico.clear();
+            assinantes.forEach(Assinante::perderEventos);
+        }
+
+        // false quando o histórico já não tem tudo o que veio depois da sequência informada
+        boolean reenviarApos(long ultimaRecebida, Assinante assinante) {
+            long primeiraGuardada = historico.isEmpty() ? sequencia + 1 : historico.getFirst().sequencia;
+            if (ultimaRecebida < primeiraGuardada - 1 || ultimaRecebida > sequencia) {
+                return false;
+            }
+            for (Mensagem mensagem : historico) {
+                if (mensagem.sequencia > ultimaRecebida) {
+                    assinante.enfileirar(mensagem);
+                }
+            }
+            return true;
+        }
+    }
+
+    private final class Assinante {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<Mensagem> fila = new ArrayDeque<>();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private boolean perdeuEventos;
+        private Canal canal;
+
+        Assinante(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void enfileirar(Mensagem mensagem) {
+            if (fila.size() >= buffer) {
+                fila.removeFirst();
+                perdeuEventos = true;
+            }
+            fila.addLast(mensagem);
+        }
+
+        synchronized void perderEventos() {
+            perdeuEventos = true;
+        }
+    }
+}
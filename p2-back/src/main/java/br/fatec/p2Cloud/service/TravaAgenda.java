@@ -0,0 +1,71 @@
+package br.fatec.p2Cloud.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.SortedSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Serializa as gravações de agenda de uma mesma barbearia até o fim da transação.
+// Dentro da instância usa travas listradas por barbearia; no PostgreSQL também pega um
+// advisory lock por barbearia e dia, que vale entre todas as tasks do ECS.
+@Component
+public class TravaAgenda {
+
+    private static final int LISTRAS = 64;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ReentrantLock[] travas = new ReentrantLock[LISTRAS];
+
+    private boolean postgres;
+
+    public TravaAgenda() {
+        for (int i = 0; i < LISTRAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    void detectarBanco() throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            postgres = "PostgreSQL".equals(conexao.getMetaData().getDatabaseProductName());
+        }
+    }
+
+    // Precisa ser chamado dentro de uma transação; as travas são soltas depois do commit ou rollback
+    public void travar(Long barbeariaId, SortedSet<LocalDate> dias) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("TravaAgenda exige uma transação ativa");
+        }
+        ReentrantLock trava = travas[Math.floorMod(barbeariaId.hashCode(), LISTRAS)];
+        trava.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                trava.unlock();
+            }
+        });
+        if (postgres) {
+            // Dias em ordem crescente para duas transações nunca se esperarem em ordens opostas
+            for (LocalDate dia : dias) {
+                entityManager.createNativeQuery("select 1 from pg_advisory_xact_lock(:barbearia, :dia)")
+                        .setParameter("barbearia", barbeariaId.hashCode())
+                        .setParameter("dia", (int) dia.toEpochDay())
+                        .getSingleResult();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package br.fatec.p2Cloud.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// Aplica aos itens de um lote as mesmas regras que o @Valid aplica em um POST individual,
+// mas reportando o erro por item em vez de rejeitar a requisição inteira
+@Component
+public class ValidadorLote {
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.lote.tamanho-maximo:5000}")
+    private int tamanhoMaximo;
+
+    public void verificarTamanho(int tamanho) {
+        if (tamanho == 0) {
+            throw new IllegalArgumentException("Lote vazio");
+        }
+        if (tamanho > tamanhoMaximo) {
+            throw new IllegalArgumentException("Lote excede o máximo de " + tamanhoMaximo + " itens");
+        }
+    }
+
+    public String primeiroErro(Object item) {
+        if (item == null) {
+            return "Item nulo";
+        }
+        Set<ConstraintViolation<Object>> violacoes = validator.validate(item);
+        return violacoes.isEmpty() ? null : violacoes.iterator().next().getMessage();
+    }
+}
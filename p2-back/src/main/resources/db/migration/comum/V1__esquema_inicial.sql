@@ -0,0 +1,62 @@
+-- Esquema que o Hibernate criava com ddl-auto=update. Bancos ja existentes entram com
+-- baseline na versao 0 e passam por aqui sem alteracao (IF NOT EXISTS).
+
+CREATE SEQUENCE IF NOT EXISTS barbearias_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS clientes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS servicos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS agendas_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS barbearias (
+    id       BIGINT       NOT NULL,
+    nome     VARCHAR(255) NOT NULL,
+    cnpj     VARCHAR(255),
+    telefone VARCHAR(255),
+    email    VARCHAR(255),
+    endereco VARCHAR(255),
+    CONSTRAINT pk_barbearias PRIMARY KEY (id),
+    CONSTRAINT uk_barbearias_cnpj UNIQUE (cnpj)
+);
+
+CREATE TABLE IF NOT EXISTS clientes (
+    id           BIGINT       NOT NULL,
+    nome         VARCHAR(255) NOT NULL,
+    cpf          VARCHAR(255),
+    telefone     VARCHAR(255),
+    email        VARCHAR(255),
+    endereco     VARCHAR(255),
+    barbearia_id BIGINT,
+    CONSTRAINT pk_clientes PRIMARY KEY (id),
+    CONSTRAINT uk_clientes_cpf UNIQUE (cpf),
+    CONSTRAINT fk_clientes_barbearia FOREIGN KEY (barbearia_id) REFERENCES barbearias (id)
+);
+
+CREATE TABLE IF NOT EXISTS servicos (
+    id           BIGINT           NOT NULL,
+    nome         VARCHAR(255)     NOT NULL,
+    valor        DOUBLE PRECISION NOT NULL,
+    duracao      INTEGER          NOT NULL,
+    descricao    TEXT,
+    barbearia_id BIGINT,
+    CONSTRAINT pk_servicos PRIMARY KEY (id),
+    CONSTRAINT fk_servicos_barbearia FOREIGN KEY (barbearia_id) REFERENCES barbearias (id)
+);
+
+CREATE TABLE IF NOT EXISTS servico_funcionarios (
+    servico_id  BIGINT NOT NULL,
+    funcionario VARCHAR(255),
+    CONSTRAINT fk_servico_funcionarios_servico FOREIGN KEY (servico_id) REFERENCES servicos (id)
+);
+
+CREATE TABLE IF NOT EXISTS agendas (
+    id           BIGINT       NOT NULL,
+    data         TIMESTAMP(6) NOT NULL,
+    descricao    TEXT,
+    funcionario  VARCHAR(255),
+    barbearia_id BIGINT,
+    cliente_id   BIGINT,
+    servico_id   BIGINT,
+    CONSTRAINT pk_agendas PRIMARY KEY (id),
+    CONSTRAINT fk_agendas_barbearia FOREIGN KEY (barbearia_id) REFERENCES barbearias (id),
+    CONSTRAINT fk_agendas_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id),
+    CONSTRAINT fk_agendas_servico FOREIGN KEY (servico_id) REFERENCES servicos (id)
+);
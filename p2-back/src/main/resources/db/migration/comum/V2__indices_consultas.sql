@@ -0,0 +1,26 @@
+-- Indices escolhidos pelos finders dos repositories. As chaves estrangeiras nao ganham
+-- indice sozinhas no PostgreSQL; sem eles toda listagem por barbearia/cliente era seq scan.
+
+-- AgendaRepository.findByBarbeariaId / streamByBarbeariaId (order by data, id) e
+-- findHorariosOcupados (barbearia_id = ? and data in [inicio, fim))
+CREATE INDEX IF NOT EXISTS idx_agendas_barbearia_data ON agendas (barbearia_id, data, id);
+
+-- AgendaRepository.findByClienteId (order by data, id)
+CREATE INDEX IF NOT EXISTS idx_agendas_cliente_data ON agendas (cliente_id, data, id);
+
+-- AgendaRepository.findByDataBetween e a paginacao por cursor (data, id)
+CREATE INDEX IF NOT EXISTS idx_agendas_data ON agendas (data, id);
+
+-- Exclusao de servico verifica as agendas que o referenciam
+CREATE INDEX IF NOT EXISTS idx_agendas_servico ON agendas (servico_id);
+
+-- ClienteRepository.findByBarbeariaId e ServicoRepository.findByBarbeariaId
+CREATE INDEX IF NOT EXISTS idx_clientes_barbearia ON clientes (barbearia_id);
+CREATE INDEX IF NOT EXISTS idx_servicos_barbearia ON servicos (barbearia_id);
+
+-- Carga em lote dos funcionarios (@BatchSize): servico_id in (...)
+CREATE INDEX IF NOT EXISTS idx_servico_funcionarios_servico ON servico_funcionarios (servico_id);
+
+-- findByEmail de clientes e barbearias (cpf e cnpj ja tem indice pela restricao unique)
+CREATE INDEX IF NOT EXISTS idx_clientes_email ON clientes (email);
+CREATE INDEX IF NOT EXISTS idx_barbearias_email ON barbearias (email);
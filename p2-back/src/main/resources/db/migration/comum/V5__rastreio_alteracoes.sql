@@ -0,0 +1,54 @@
+-- Sincronizacao incremental (GET /api/{clientes,servicos,agendas}/changes): cada linha guarda o
+-- horario e a posicao da ultima alteracao em um contador global; exclusoes viram linhas em remocoes.
+-- A aplicacao preenche as colunas (RastreioAlteracoes); o DEFAULT cobre inserts feitos por fora dela.
+
+CREATE SEQUENCE IF NOT EXISTS alteracoes_seq START WITH 1 INCREMENT BY 1;
+
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS atualizado_em TIMESTAMP(6);
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS sequencia_alteracao BIGINT;
+ALTER TABLE servicos ADD COLUMN IF NOT EXISTS atualizado_em TIMESTAMP(6);
+ALTER TABLE servicos ADD COLUMN IF NOT EXISTS sequencia_alteracao BIGINT;
+ALTER TABLE agendas ADD COLUMN IF NOT EXISTS atualizado_em TIMESTAMP(6);
+ALTER TABLE agendas ADD COLUMN IF NOT EXISTS sequencia_alteracao BIGINT;
+
+-- Linhas existentes entram no historico como alteradas agora: um cliente sem token recebe tudo
+UPDATE clientes SET atualizado_em = LOCALTIMESTAMP, sequencia_alteracao = nextval('alteracoes_seq')
+WHERE sequencia_alteracao IS NULL;
+UPDATE servicos SET atualizado_em = LOCALTIMESTAMP, sequencia_alteracao = nextval('alteracoes_seq')
+WHERE sequencia_alteracao IS NULL;
+UPDATE agendas SET atualizado_em = LOCALTIMESTAMP, sequencia_alteracao = nextval('alteracoes_seq')
+WHERE sequencia_alteracao IS NULL;
+
+ALTER TABLE clientes ALTER COLUMN atualizado_em SET DEFAULT LOCALTIMESTAMP;
+ALTER TABLE clientes ALTER COLUMN atualizado_em SET NOT NULL;
+ALTER TABLE clientes ALTER COLUMN sequencia_alteracao SET DEFAULT nextval('alteracoes_seq');
+ALTER TABLE clientes ALTER COLUMN sequencia_alteracao SET NOT NULL;
+ALTER TABLE servicos ALTER COLUMN atualizado_em SET DEFAULT LOCALTIMESTAMP;
+ALTER TABLE servicos ALTER COLUMN atualizado_em SET NOT NULL;
+ALTER TABLE servicos ALTER COLUMN sequencia_alteracao SET DEFAULT nextval('alteracoes_seq');
+ALTER TABLE servicos ALTER COLUMN sequencia_alteracao SET NOT NULL;
+ALTER TABLE agendas ALTER COLUMN atualizado_em SET DEFAULT LOCALTIMESTAMP;
+ALTER TABLE agendas ALTER COLUMN atualizado_em SET NOT NULL;
+ALTER TABLE agendas ALTER COLUMN sequencia_alteracao SET DEFAULT nextval('alteracoes_seq');
+ALTER TABLE agendas ALTER COLUMN sequencia_alteracao SET NOT NULL;
+
+-- findAlteracoes (sequencia > ?) e findAlteracoesByBarbeariaId (barbearia_id = ? and sequencia > ?)
+CREATE INDEX IF NOT EXISTS idx_clientes_sequencia ON clientes (sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_clientes_barbearia_sequencia ON clientes (barbearia_id, sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_servicos_sequencia ON servicos (sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_servicos_barbearia_sequencia ON servicos (barbearia_id, sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_agendas_sequencia ON agendas (sequencia_alteracao);
+CREATE INDEX IF NOT EXISTS idx_agendas_barbearia_sequencia ON agendas (barbearia_id, sequencia_alteracao);
+
+-- Marcas de exclusao; sem chave estrangeira porque a barbearia pode ter sido excluida junto
+CREATE TABLE IF NOT EXISTS remocoes (
+    sequencia    BIGINT       NOT NULL,
+    entidade     VARCHAR(30)  NOT NULL,
+    entidade_id  BIGINT       NOT NULL,
+    barbearia_id BIGINT,
+    removido_em  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_remocoes PRIMARY KEY (sequencia)
+);
+
+CREATE INDEX IF NOT EXISTS idx_remocoes_entidade ON remocoes (entidade, sequencia);
+CREATE INDEX IF NOT EXISTS idx_remocoes_barbearia ON remocoes (barbearia_id, entidade, sequencia);
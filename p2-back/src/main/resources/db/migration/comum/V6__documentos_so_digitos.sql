@@ -0,0 +1,23 @@
+-- CPF e CNPJ passam a ser guardados so com os digitos (Documentos): a restricao unica vale para
+-- qualquer formato e a busca por documento usa o indice dela.
+-- Documentos que so diferiam na pontuacao ficam com o cadastro mais antigo; nos outros o documento
+-- e apagado (o cadastro continua) e a alteracao entra no historico da sincronizacao.
+
+UPDATE clientes c SET cpf = NULL, atualizado_em = LOCALTIMESTAMP, sequencia_alteracao = nextval('alteracoes_seq')
+WHERE c.cpf IS NOT NULL AND EXISTS (
+    SELECT 1 FROM clientes o
+    WHERE o.id < c.id AND REPLACE(REPLACE(o.cpf, '.', ''), '-', '') = REPLACE(REPLACE(c.cpf, '.', ''), '-', ''));
+
+UPDATE clientes
+SET cpf = NULLIF(REPLACE(REPLACE(cpf, '.', ''), '-', ''), ''),
+    atualizado_em = LOCALTIMESTAMP, sequencia_alteracao = nextval('alteracoes_seq')
+WHERE cpf <> REPLACE(REPLACE(cpf, '.', ''), '-', '') OR cpf = '';
+
+UPDATE barbearias b SET cnpj = NULL
+WHERE b.cnpj IS NOT NULL AND EXISTS (
+    SELECT 1 FROM barbearias o
+    WHERE o.id < b.id
+      AND REPLACE(REPLACE(REPLACE(o.cnpj, '.', ''), '/', ''), '-', '') = REPLACE(REPLACE(REPLACE(b.cnpj, '.', ''), '/', ''), '-', ''));
+
+UPDATE barbearias SET cnpj = NULLIF(REPLACE(REPLACE(REPLACE(cnpj, '.', ''), '/', ''), '-', ''), '')
+WHERE cnpj <> REPLACE(REPLACE(REPLACE(cnpj, '.', ''), '/', ''), '-', '') OR cnpj = '';
@@ -0,0 +1,4 @@
+-- Texto pesquisavel do cliente (TermoBusca), preenchido pela aplicacao a cada insercao/atualizacao.
+-- O preenchimento das linhas existentes e o indice de trigramas sao do PostgreSQL (V8)
+
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS termo_busca VARCHAR(1024);
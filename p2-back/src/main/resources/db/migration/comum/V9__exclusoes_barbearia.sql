@@ -0,0 +1,22 @@
+-- Exclusao de barbearia em segundo plano (DELETE /api/barbearias/{id} responde 202): uma linha por
+-- exclusao pedida, com a etapa e o progresso. Sem chave estrangeira porque a barbearia some no fim.
+
+CREATE SEQUENCE IF NOT EXISTS exclusoes_barbearia_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS exclusoes_barbearia (
+    id                 BIGINT        NOT NULL,
+    barbearia_id       BIGINT        NOT NULL,
+    situacao           VARCHAR(20)   NOT NULL,
+    etapa              VARCHAR(20),
+    agendas_removidas  BIGINT        NOT NULL,
+    servicos_removidos BIGINT        NOT NULL,
+    clientes_removidos BIGINT        NOT NULL,
+    erro               VARCHAR(1000),
+    criada_em          TIMESTAMP(6)  NOT NULL,
+    atualizada_em      TIMESTAMP(6)  NOT NULL,
+    concluida_em       TIMESTAMP(6),
+    CONSTRAINT pk_exclusoes_barbearia PRIMARY KEY (id)
+);
+
+-- Exclusao em andamento de uma barbearia (um segundo DELETE devolve a mesma) e retomada ao subir
+CREATE INDEX IF NOT EXISTS idx_exclusoes_barbearia_situacao ON exclusoes_barbearia (barbearia_id, situacao);
@@ -0,0 +1,10 @@
+-- Primeira faixa de GET /api/clientes/search (ClienteRepository.buscarInicio): termo_busca LIKE 'abc%'
+-- ordenado por termo_busca, id. Com a collation "C" o btree atende o prefixo e ja entrega na ordem,
+-- e a consulta para no limite sem ordenar todos os clientes que comecam com o trecho. termo_busca so
+-- tem texto normalizado (minusculas sem acento e digitos), entao a ordem byte a byte e a alfabetica.
+-- O indice de trigramas (V8) continua atendendo as outras faixas
+
+ALTER TABLE clientes ALTER COLUMN termo_busca TYPE VARCHAR(1024) COLLATE "C";
+
+CREATE INDEX IF NOT EXISTS idx_clientes_termo_busca_inicio ON clientes (termo_busca, id);
+CREATE INDEX IF NOT EXISTS idx_clientes_barbearia_termo_busca ON clientes (barbearia_id, termo_busca, id);
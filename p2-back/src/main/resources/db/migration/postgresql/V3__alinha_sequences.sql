@@ -0,0 +1,7 @@
+-- As entidades usam sequences com incremento 50 (otimizador pooled do Hibernate).
+-- Em bancos criados quando os ids eram IDENTITY, a sequence nova começaria abaixo dos ids
+-- existentes; esta migração a posiciona depois do maior id sem nunca voltá-la para trás.
+SELECT setval('agendas_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM agendas), (SELECT last_value FROM agendas_seq)));
+SELECT setval('clientes_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM clientes), (SELECT last_value FROM clientes_seq)));
+SELECT setval('servicos_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM servicos), (SELECT last_value FROM servicos_seq)));
+SELECT setval('barbearias_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM barbearias), (SELECT last_value FROM barbearias_seq)));
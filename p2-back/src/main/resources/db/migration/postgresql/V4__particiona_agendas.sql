@@ -0,0 +1,64 @@
+-- agendas passa a ser particionada por mes em data. A chave primaria inclui data (exigencia do
+-- PostgreSQL para tabelas particionadas); o Hibernate continua enxergando so o id.
+-- Datas sem particao propria caem em agendas_padrao ate o mes ser criado.
+
+CREATE TABLE agendas_particionada (
+    id           BIGINT       NOT NULL,
+    data         TIMESTAMP(6) NOT NULL,
+    descricao    TEXT,
+    funcionario  VARCHAR(255),
+    barbearia_id BIGINT,
+    cliente_id   BIGINT,
+    servico_id   BIGINT
+) PARTITION BY RANGE (data);
+
+CREATE TABLE agendas_padrao PARTITION OF agendas_particionada DEFAULT;
+
+INSERT INTO agendas_particionada (id, data, descricao, funcionario, barbearia_id, cliente_id, servico_id)
+SELECT id, data, descricao, funcionario, barbearia_id, cliente_id, servico_id FROM agendas;
+
+DROP TABLE agendas;
+ALTER TABLE agendas_particionada RENAME TO agendas;
+
+-- Restricoes e indices no pai valem para todas as particoes, inclusive as anexadas depois
+ALTER TABLE agendas ADD CONSTRAINT pk_agendas PRIMARY KEY (id, data);
+ALTER TABLE agendas ADD CONSTRAINT fk_agendas_barbearia FOREIGN KEY (barbearia_id) REFERENCES barbearias (id);
+ALTER TABLE agendas ADD CONSTRAINT fk_agendas_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id);
+ALTER TABLE agendas ADD CONSTRAINT fk_agendas_servico FOREIGN KEY (servico_id) REFERENCES servicos (id);
+CREATE INDEX idx_agendas_barbearia_data ON agendas (barbearia_id, data, id);
+CREATE INDEX idx_agendas_cliente_data ON agendas (cliente_id, data, id);
+CREATE INDEX idx_agendas_data ON agendas (data, id);
+CREATE INDEX idx_agendas_servico ON agendas (servico_id);
+
+-- Cria (se ainda nao existir) a particao agendas_pAAAAMM do mes de "mes". Linhas desse mes que
+-- estiverem na particao padrao sao movidas antes do ATTACH. Usada pela migracao e pelo
+-- agendamento da aplicacao (ParticoesAgenda); o advisory lock serializa varias instancias.
+CREATE OR REPLACE FUNCTION agendas_cria_particao(mes DATE) RETURNS TEXT AS $$
+DECLARE
+    inicio TIMESTAMP := date_trunc('month', mes);
+    fim    TIMESTAMP := date_trunc('month', mes) + INTERVAL '1 month';
+    nome   TEXT      := 'agendas_p' || to_char(mes, 'YYYYMM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('agendas_particoes'));
+    IF to_regclass(nome) IS NOT NULL THEN
+        RETURN nome;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE agendas INCLUDING DEFAULTS)', nome);
+    EXECUTE format('WITH movidas AS (DELETE FROM agendas_padrao WHERE data >= %L AND data < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM movidas', inicio, fim, nome);
+    EXECUTE format('ALTER TABLE agendas ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nome, inicio, fim);
+    RETURN nome;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Um mes por particao desde a agenda mais antiga ate tres meses a frente
+DO $$
+DECLARE
+    mes DATE := date_trunc('month', COALESCE((SELECT MIN(data) FROM agendas), now()));
+BEGIN
+    WHILE mes <= date_trunc('month', now()) + INTERVAL '3 months' LOOP
+        PERFORM agendas_cria_particao(mes);
+        mes := mes + INTERVAL '1 month';
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,15 @@
+-- GET /api/clientes/search faz LIKE '%...%' em termo_busca: o indice GIN de trigramas atende
+-- trechos do comeco ou do meio do texto. unaccent so e usado aqui, para preencher as linhas que ja
+-- existiam com o mesmo formato do TermoBusca (nome e e-mail sem acento, CPF e telefone so digitos)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+UPDATE clientes SET termo_busca = concat_ws(' ',
+        nullif(regexp_replace(lower(unaccent(trim(nome))), '\s+', ' ', 'g'), ''),
+        nullif(regexp_replace(lower(unaccent(trim(email))), '\s+', ' ', 'g'), ''),
+        cpf,
+        nullif(regexp_replace(telefone, '\D', '', 'g'), ''))
+WHERE termo_busca IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_clientes_termo_busca ON clientes USING gin (termo_busca gin_trgm_ops);
@@ -0,0 +1,58 @@
+package br.fatec.p2Cloud;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sobe o contexto com o esquema das migrações e o Hibernate em validate:
+// se uma entidade mudar sem migração correspondente, o contexto não carrega
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migracoes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class MigracoesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void criaOsIndicesDosFinders() {
+        List<String> indices = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where index_name like 'idx_%'", String.class);
+
+        assertTrue(indices.containsAll(List.of(
+                "idx_agendas_barbearia_data",
+                "idx_agendas_cliente_data",
+                "idx_agendas_data",
+                "idx_clientes_barbearia",
+                "idx_servicos_barbearia",
+                "idx_servico_funcionarios_servico",
+                "idx_clientes_barbearia_sequencia",
+                "idx_agendas_barbearia_sequencia",
+                "idx_remocoes_entidade")), () -> "Índices encontrados: " + indices);
+    }
+
+    @Test
+    void listagemDaBarbeariaUsaOIndice() {
+        String plano = String.join("\n", jdbcTemplate.queryForList(
+                "explain select a.id from agendas a where a.barbearia_id = 1 "
+                        + "and a.data >= timestamp '2025-01-01 00:00:00' order by a.data, a.id", String.class));
+
+        assertTrue(plano.contains("idx_agendas_barbearia_data"), plano);
+    }
+
+    @Test
+    void sequencesComIncrementoDoHibernate() {
+        Long incremento = jdbcTemplate.queryForObject(
+                "select increment from information_schema.sequences where sequence_name = 'agendas_seq'", Long.class);
+
+        assertEquals(50L, incremento);
+    }
+}
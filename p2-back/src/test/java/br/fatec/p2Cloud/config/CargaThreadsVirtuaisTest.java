@@ -0,0 +1,211 @@
+package br.fatec.p2Cloud.config;
+
+import br.fatec.p2Cloud.P2CloudApplication;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Comparação de latência entre o pool de threads do Tomcat e o modo com threads virtuais.
+// Fora do build padrão; rodar com: ./mvnw test -Pcarga
+// Cada comando SQL ganha LATENCIA_SQL_MS de atraso (simulando a ida e volta até o RDS), e metade das
+// requisições não toca no banco (barbearia em cache). Com poucas threads de plataforma, essas
+// requisições rápidas ficam na fila atrás das que esperam o banco; com threads virtuais só a parte
+// que usa conexão espera, no LimitadorConexoes.
+@Tag("carga")
+class CargaThreadsVirtuaisTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaThreadsVirtuaisTest.class);
+
+    private static final int CLIENTES = 200;
+    private static final int REQUISICOES_POR_CLIENTE = 20;
+    private static final int LATENCIA_SQL_MS = 20;
+    private static final int THREADS_TOMCAT = 40;
+    private static final int POOL_CONEXOES = 10;
+
+    @Test
+    void compararModos() throws Exception {
+        for (boolean virtuais : new boolean[]{false, true}) {
+            executar(virtuais);
+        }
+    }
+
+    private void executar(boolean virtuais) throws Exception {
+        String modo = virtuais ? "threads virtuais" : "threads de plataforma";
+        try (ConfigurableApplicationContext contexto = iniciar(virtuais)) {
+            assertEquals(virtuais, contexto.getBean(DataSource.class).isWrapperFor(LimitadorConexoes.class));
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            Long barbeariaId = popular(contexto);
+            URI cache = URI.create("http://localhost:" + porta + "/api/barbearias/" + barbeariaId);
+            URI banco = URI.create("http://localhost:" + porta + "/api/agendas/barbearia/" + barbeariaId);
+
+            HttpClient cliente = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+            // Aquecimento
+            for (int i = 0; i < 50; i++) {
+                chamar(cliente, i % 2 == 0 ? cache : banco);
+            }
+
+            long[] latenciasCache = new long[CLIENTES * REQUISICOES_POR_CLIENTE / 2];
+            long[] latenciasBanco = new long[CLIENTES * REQUISICOES_POR_CLIENTE / 2];
+            AtomicInteger proximaCache = new AtomicInteger();
+            AtomicInteger proximaBanco = new AtomicInteger();
+            AtomicInteger erros = new AtomicInteger();
+            long inicio = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int c = 0; c < CLIENTES; c++) {
+                    tarefas.add(executor.submit(() -> {
+                        for (int r = 0; r < REQUISICOES_POR_CLIENTE; r++) {
+                            boolean usaCache = r % 2 == 0;
+                            long antes = System.nanoTime();
+                            int status = chamar(cliente, usaCache ? cache : banco);
+                            long duracao = System.nanoTime() - antes;
+                            if (status != 200) {
+                                erros.incrementAndGet();
+                            }
+                            if (usaCache) {
+                                latenciasCache[proximaCache.getAndIncrement()] = duracao;
+                            } else {
+                                latenciasBanco[proximaBanco.getAndIncrement()] = duracao;
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> tarefa : tarefas) {
+                    tarefa.get();
+                }
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            assertEquals(0, erros.get(), modo + ": requisições com erro");
+
+            double vazao = CLIENTES * REQUISICOES_POR_CLIENTE / segundos;
+            // Ainda com o contexto aberto: ao fechar, o Spring Boot desliga o logging
+            log.info("Latências da carga:{}{}{}{}{}{}", System.lineSeparator(),
+                    String.format("%-22s %-12s %8s %8s %8s %8s %10s", "modo", "endpoint", "p50 ms", "p95 ms",
+                            "p99 ms", "max ms", "req/s"), System.lineSeparator(),
+                    linha(modo, "cache", latenciasCache, vazao), System.lineSeparator(),
+                    linha(modo, "banco", latenciasBanco, vazao));
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(boolean virtuais) {
+        // Argumentos de linha de comando: precisam vencer o application.properties
+        return new SpringApplicationBuilder(P2CloudApplication.class)
+                .profiles("test")
+                .initializers(contexto -> contexto.getBeanFactory().addBeanPostProcessor(new LatenciaSql()))
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level." + CargaThreadsVirtuaisTest.class.getName() + "=INFO",
+                        "--spring.datasource.url=jdbc:h2:mem:carga-" + virtuais + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + virtuais,
+                        "--server.tomcat.threads.max=" + THREADS_TOMCAT,
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_CONEXOES,
+                        "--app.jdbc.limite.conexoes=" + POOL_CONEXOES,
+                        "--app.jdbc.limite.espera=PT30S");
+    }
+
+    private static Long popular(ConfigurableApplicationContext contexto) {
+        Barbearia barbearia = contexto.getBean(BarbeariaRepository.class).save(new Barbearia("Carga", null, null, null, null));
+        Servico servico = new Servico("Corte", 40.0, List.of("Ana"), 30, null);
+        servico.setBarbearia(barbearia);
+        servico = contexto.getBean(ServicoRepository.class).save(servico);
+        List<Agenda> agendas = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Agenda agenda = new Agenda(LocalDate.now().plusDays(1 + i).atTime(9, 0), "Carga " + i);
+            agenda.setBarbearia(barbearia);
+            agenda.setServico(servico);
+            agenda.setFuncionario("Ana");
+            agendas.add(agenda);
+        }
+        contexto.getBean(AgendaRepository.class).saveAll(agendas);
+        return barbearia.getId();
+    }
+
+    private static int chamar(HttpClient cliente, URI uri) {
+        try {
+            return cliente.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static String linha(String modo, String endpoint, long[] latencias, double vazao) {
+        long[] ordenadas = latencias.clone();
+        Arrays.sort(ordenadas);
+        return String.format("%-22s %-12s %8.1f %8.1f %8.1f %8.1f %10.0f", modo, endpoint,
+                percentil(ordenadas, 50), percentil(ordenadas, 95), percentil(ordenadas, 99),
+                ordenadas[ordenadas.length - 1] / 1e6, vazao);
+    }
+
+    private static double percentil(long[] ordenadas, int percentil) {
+        int indice = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    // Atrasa a execução de cada comando SQL, como se o banco estivesse do outro lado da rede
+    private static final class LatenciaSql implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                return atrasar(DataSource.class, dataSource);
+            }
+            return bean;
+        }
+
+        private static Object atrasar(Class<?> tipo, Object alvo) {
+            return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (p, metodo, argumentos) -> {
+                if (metodo.getName().startsWith("execute") && Statement.class.isAssignableFrom(tipo)) {
+                    Thread.sleep(LATENCIA_SQL_MS);
+                }
+                Object resultado;
+                try {
+                    resultado = metodo.invoke(alvo, argumentos);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (resultado instanceof Connection conexao && metodo.getReturnType() == Connection.class) {
+                    return atrasar(Connection.class, conexao);
+                }
+                if (resultado instanceof Statement comando && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                    return atrasar(metodo.getReturnType(), comando);
+                }
+                return resultado;
+            });
+        }
+    }
+}
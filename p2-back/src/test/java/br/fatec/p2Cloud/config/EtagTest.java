@@ -0,0 +1,100 @@
+package br.fatec.p2Cloud.config;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Banco próprio: as barbearias criadas aqui mudariam os números do ContagemSqlTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etag;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class EtagTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    private Barbearia barbearia;
+    private Barbearia outra;
+
+    @BeforeEach
+    void criarBarbearias() {
+        barbearia = barbeariaService.save(new Barbearia("ETag", null, null, null, null));
+        outra = barbeariaService.save(new Barbearia("Outra", null, null, null, null));
+        clienteService.saveWithBarbearia(new Cliente("Ana", null, null, null, null), barbearia.getId());
+    }
+
+    @Test
+    void repeticaoRespondeNotModifiedSemConsultarOBanco() throws Exception {
+        MvcResult primeira = clientes(barbearia, null);
+        assertEquals(200, primeira.getResponse().getStatus());
+        String etag = primeira.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        MvcResult repetida = clientes(barbearia, etag);
+        assertEquals(304, repetida.getResponse().getStatus());
+        assertEquals("", repetida.getResponse().getContentAsString());
+        assertEquals(etag, repetida.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void gravacaoNaBarbeariaMudaOEtagSoDela() throws Exception {
+        String etag = clientes(barbearia, null).getResponse().getHeader(HttpHeaders.ETAG);
+
+        clienteService.saveWithBarbearia(new Cliente("Bruno", null, null, null, null), outra.getId());
+        assertEquals(304, clientes(barbearia, etag).getResponse().getStatus());
+
+        clienteService.saveWithBarbearia(new Cliente("Carla", null, null, null, null), barbearia.getId());
+        MvcResult depois = clientes(barbearia, etag);
+        assertEquals(200, depois.getResponse().getStatus());
+        assertNotEquals(etag, depois.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void alterarABarbeariaMudaOsClientesQueAEmbutem() throws Exception {
+        String etag = clientes(barbearia, null).getResponse().getHeader(HttpHeaders.ETAG);
+
+        barbeariaService.update(barbearia.getId(), new Barbearia("ETag renomeada", null, null, null, null));
+
+        MvcResult depois = clientes(barbearia, etag);
+        assertEquals(200, depois.getResponse().getStatus());
+        assertTrue(depois.getResponse().getContentAsString().contains("ETag renomeada"));
+    }
+
+    private MvcResult clientes(Barbearia barbearia, String ifNoneMatch) throws Exception {
+        var requisicao = get("/api/clientes/barbearia/{id}", barbearia.getId());
+        if (ifNoneMatch != null) {
+            requisicao.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mvc.perform(requisicao).andReturn();
+    }
+}
@@ -0,0 +1,37 @@
+package br.fatec.p2Cloud.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Os executores próprios (painel, exclusões) não podem tirar o lugar do applicationTaskExecutor do Spring Boot
+@SpringBootTest
+class ExecutoresTest {
+
+    @Autowired
+    private ApplicationContext contexto;
+
+    @Test
+    void executorPadraoContinuaCriado() {
+        Object padrao = contexto.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME);
+        assertInstanceOf(ThreadPoolTaskExecutor.class, padrao);
+        assertNotSame(contexto.getBean("painelExecutor"), padrao);
+        assertNotSame(contexto.getBean("exclusoesExecutor"), padrao);
+    }
+
+    @Test
+    void respostasAssincronasUsamOExecutorPadrao() {
+        RequestMappingHandlerAdapter adapter = contexto.getBean(RequestMappingHandlerAdapter.class);
+        assertSame(contexto.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME),
+                ReflectionTestUtils.getField(adapter, "taskExecutor"));
+    }
+}
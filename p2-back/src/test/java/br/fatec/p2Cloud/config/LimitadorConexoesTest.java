@@ -0,0 +1,47 @@
+package br.fatec.p2Cloud.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LimitadorConexoesTest {
+
+    private LimitadorConexoes limitador;
+
+    @BeforeEach
+    void criar() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:limitador;DB_CLOSE_DELAY=-1");
+        limitador = new LimitadorConexoes(h2, 2, Duration.ofMillis(100));
+    }
+
+    @Test
+    void recusaAlemDoLimiteAteUmaConexaoSerFechada() throws Exception {
+        Connection primeira = limitador.getConnection();
+        Connection segunda = limitador.getConnection();
+        assertEquals(0, limitador.getDisponiveis());
+        assertThrows(SQLTransientConnectionException.class, () -> limitador.getConnection());
+
+        primeira.close();
+        try (Connection terceira = limitador.getConnection()) {
+            assertEquals(0, limitador.getDisponiveis());
+        }
+        segunda.close();
+        assertEquals(2, limitador.getDisponiveis());
+    }
+
+    @Test
+    void closeRepetidoDevolveUmaPermissaoSo() throws Exception {
+        Connection conexao = limitador.getConnection();
+        conexao.close();
+        conexao.close();
+        assertEquals(2, limitador.getDisponiveis());
+    }
+}
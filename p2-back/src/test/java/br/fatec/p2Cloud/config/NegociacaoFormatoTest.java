@@ -0,0 +1,173 @@
+package br.fatec.p2Cloud.config;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import br.fatec.p2Cloud.service.ServicoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Servidor de verdade (porta aleatória): a compressão é do Tomcat e não passa pelo MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "spring.datasource.url=jdbc:h2:mem:formatos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class NegociacaoFormatoTest {
+
+    private static final String CBOR = "application/cbor";
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper json = new ObjectMapper();
+    private final CBORMapper cbor = new CBORMapper();
+
+    private Barbearia barbearia;
+
+    @BeforeEach
+    void criarBarbearia() {
+        barbearia = barbeariaService.save(new Barbearia("Formatos", null, null, null, null));
+        for (int i = 0; i < 30; i++) {
+            clienteService.saveWithBarbearia(new Cliente("Cliente " + i, null, "1199999" + String.format("%04d", i),
+                    "cliente" + i + "@email.com", "Rua " + i), barbearia.getId());
+        }
+        servicoService.saveWithBarbearia(new Servico("Corte", 40.0, List.of("Ana"), 30, null), barbearia.getId());
+    }
+
+    @Test
+    void cborTemOMesmoConteudoDoJsonEmMenosBytes() throws Exception {
+        for (String caminho : List.of("/api/clientes/barbearia/", "/api/servicos/barbearia/")) {
+            HttpResponse<byte[]> emJson = get(caminho + barbearia.getId(), null, null);
+            HttpResponse<byte[]> emCbor = get(caminho + barbearia.getId(), CBOR, null);
+
+            assertTrue(tipo(emJson).startsWith("application/json"), tipo(emJson));
+            assertEquals(CBOR, tipo(emCbor));
+            assertEquals(json.readTree(emJson.body()), cbor.readTree(emCbor.body()));
+            assertNotEquals(etag(emJson), etag(emCbor));
+        }
+        HttpResponse<byte[]> emJson = get("/api/clientes/barbearia/" + barbearia.getId(), null, null);
+        assertTrue(get("/api/clientes/barbearia/" + barbearia.getId(), CBOR, null).body().length < emJson.body().length);
+    }
+
+    @Test
+    void respostaGrandeVemComprimidaComETagFraco() throws Exception {
+        for (String accept : new String[]{null, CBOR}) {
+            HttpResponse<byte[]> comprimida = get("/api/clientes/barbearia/" + barbearia.getId(), accept, "gzip");
+            HttpResponse<byte[]> normal = get("/api/clientes/barbearia/" + barbearia.getId(), accept, null);
+
+            assertEquals("gzip", comprimida.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+            assertFalse(normal.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isPresent());
+            try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(comprimida.body()))) {
+                assertEquals(new String(normal.body(), "ISO-8859-1"), new String(entrada.readAllBytes(), "ISO-8859-1"));
+            }
+            assertTrue(etag(comprimida).startsWith("W/"), etag(comprimida));
+            assertEquals(304, get("/api/clientes/barbearia/" + barbearia.getId(), accept, "gzip", etag(comprimida))
+                    .statusCode());
+        }
+    }
+
+    // O tipo do corpo (converters do Spring MVC ou RespostasSerializadas) e o ETag saem da mesma regra,
+    // com o Accept em qualquer ordem
+    @Test
+    void corpoEETagConcordamNosEmpates() throws Exception {
+        for (String caminho : List.of("/api/clientes/barbearia/", "/api/servicos/barbearia/")) {
+            String etagJson = etag(get(caminho + barbearia.getId(), null, null));
+            for (String accept : List.of("application/cbor, application/json", "application/json, application/cbor",
+                    "application/cbor;q=0.5, */*")) {
+                HttpResponse<byte[]> resposta = get(caminho + barbearia.getId(), accept, null);
+                assertTrue(tipo(resposta).startsWith("application/json"), caminho + " " + accept + ": " + tipo(resposta));
+                assertEquals(etagJson, etag(resposta), caminho + " " + accept);
+                json.readTree(resposta.body());
+            }
+            for (String accept : List.of("application/cbor", "application/cbor, */*;q=0.8",
+                    "application/json;q=0.9, application/cbor")) {
+                HttpResponse<byte[]> resposta = get(caminho + barbearia.getId(), accept, null);
+                assertEquals(CBOR, tipo(resposta), caminho + " " + accept);
+                assertTrue(etag(resposta).contains("-cbor"), caminho + " " + accept + ": " + etag(resposta));
+                cbor.readTree(resposta.body());
+            }
+        }
+    }
+
+    @Test
+    void cborSoQuandoPreferido() {
+        assertFalse(NegociacaoFormato.prefereCbor(accept(null)));
+        assertFalse(NegociacaoFormato.prefereCbor(accept("*/*")));
+        assertFalse(NegociacaoFormato.prefereCbor(accept("application/json, application/cbor")));
+        assertFalse(NegociacaoFormato.prefereCbor(accept("application/cbor, application/json")));
+        assertFalse(NegociacaoFormato.prefereCbor(accept("application/cbor;q=0.5, */*")));
+        assertTrue(NegociacaoFormato.prefereCbor(accept("application/cbor")));
+        assertTrue(NegociacaoFormato.prefereCbor(accept("application/cbor, */*;q=0.8")));
+        assertTrue(NegociacaoFormato.prefereCbor(accept("application/json;q=0.9, application/cbor")));
+    }
+
+    private HttpResponse<byte[]> get(String caminho, String accept, String acceptEncoding) throws Exception {
+        return get(caminho, accept, acceptEncoding, null);
+    }
+
+    private HttpResponse<byte[]> get(String caminho, String accept, String acceptEncoding, String ifNoneMatch)
+            throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho));
+        if (accept != null) {
+            requisicao.header(HttpHeaders.ACCEPT, accept);
+        }
+        if (acceptEncoding != null) {
+            requisicao.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            requisicao.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        HttpResponse<byte[]> resposta = http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (ifNoneMatch == null) {
+            assertEquals(200, resposta.statusCode());
+        }
+        return resposta;
+    }
+
+    private static String tipo(HttpResponse<?> resposta) {
+        return resposta.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse("");
+    }
+
+    private static String etag(HttpResponse<?> resposta) {
+        return resposta.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+    }
+
+    private static MockHttpServletRequest accept(String valor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (valor != null) {
+            request.addHeader(HttpHeaders.ACCEPT, valor);
+        }
+        return request;
+    }
+}
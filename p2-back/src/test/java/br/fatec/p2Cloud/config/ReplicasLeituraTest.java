@@ -0,0 +1,101 @@
+package br.fatec.p2Cloud.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Dois bancos H2 independentes fazem o papel de primário e réplica. Não há replicação: a mesma
+// linha tem conteúdo diferente em cada um, e o nome devolvido mostra de onde a leitura veio.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicasLeituraTest.PRIMARIO,
+        "app.datasource.replicas.urls=" + ReplicasLeituraTest.REPLICA,
+        "app.datasource.replicas.username=sa"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicasLeituraTest {
+
+    static final String PRIMARIO = "jdbc:h2:mem:replicas-primario;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA = "jdbc:h2:mem:replicas-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate primario;
+    private JdbcTemplate replica;
+
+    @BeforeAll
+    void copiarEsquemaParaReplica() throws Exception {
+        primario = new JdbcTemplate(new DriverManagerDataSource(PRIMARIO, "sa", ""));
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA, "sa", ""));
+        Path esquema = Files.createTempFile("esquema", ".sql");
+        try {
+            primario.execute("script nodata to '" + esquema + "'");
+            replica.execute("runscript from '" + esquema + "'");
+        } finally {
+            Files.deleteIfExists(esquema);
+        }
+        for (JdbcTemplate banco : new JdbcTemplate[]{primario, replica}) {
+            String origem = banco == primario ? "primario" : "replica";
+            banco.update("insert into barbearias (id, nome) values (9000, ?)", "Barbearia " + origem);
+            banco.update("insert into clientes (id, nome, barbearia_id) values (9000, ?, 9000)", "Cliente " + origem);
+        }
+    }
+
+    @Test
+    void dataSourceRoteadoComUmaReplica() throws Exception {
+        assertEquals(1, dataSource.unwrap(DataSourceRoteado.class).getReplicas().size());
+    }
+
+    @Test
+    void leituraSemEscritaRecenteVaiParaAReplica() throws Exception {
+        assertTrue(conteudo(mvc.perform(get("/api/clientes/9000")).andReturn()).contains("Cliente replica"));
+    }
+
+    @Test
+    void escritaVaiParaOPrimarioELeituraSeguinteTambem() throws Exception {
+        MvcResult escrita = mvc.perform(post("/api/clientes").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Gravado\"}")).andReturn();
+        assertEquals(201, escrita.getResponse().getStatus());
+        Cookie cookie = escrita.getResponse().getCookie(LeituraAposEscritaFilter.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(1, primario.queryForObject("select count(*) from clientes where nome = 'Gravado'", Integer.class));
+        assertEquals(0, replica.queryForObject("select count(*) from clientes where nome = 'Gravado'", Integer.class));
+
+        assertTrue(conteudo(mvc.perform(get("/api/clientes/9000").cookie(cookie)).andReturn()).contains("Cliente primario"));
+        Cookie vencido = new Cookie(LeituraAposEscritaFilter.COOKIE, Long.toString(System.currentTimeMillis() - 60_000));
+        assertTrue(conteudo(mvc.perform(get("/api/clientes/9000").cookie(vencido)).andReturn()).contains("Cliente replica"));
+    }
+
+    @Test
+    void leituraQueVaiParaOCacheUsaOPrimario() throws Exception {
+        assertTrue(conteudo(mvc.perform(get("/api/barbearias/9000")).andReturn()).contains("Barbearia primario"));
+    }
+
+    private String conteudo(MvcResult resultado) throws Exception {
+        assertEquals(200, resultado.getResponse().getStatus());
+        return resultado.getResponse().getContentAsString();
+    }
+}
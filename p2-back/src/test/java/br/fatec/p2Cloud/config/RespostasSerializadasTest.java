@@ -0,0 +1,120 @@
+package br.fatec.p2Cloud.config;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ServicoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Banco próprio: os serviços criados aqui mudariam os números do ContagemSqlTest
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:respostas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.respostas.gzip-minimo=0"
+})
+@AutoConfigureMockMvc
+class RespostasSerializadasTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    private Barbearia barbearia;
+    private Servico servico;
+
+    @BeforeEach
+    void criarCatalogo() {
+        barbearia = barbeariaService.save(new Barbearia("Respostas", null, null, null, null));
+        servico = servicoService.saveWithBarbearia(new Servico("Corte", 40.0, List.of("Ana"), 30, null), barbearia.getId());
+    }
+
+    @Test
+    void repeticaoEscreveOsMesmosBytesSemConsultarOBanco() throws Exception {
+        byte[] primeira = servicos(null).getResponse().getContentAsByteArray();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        MvcResult segunda = servicos(null);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertArrayEquals(primeira, segunda.getResponse().getContentAsByteArray());
+        assertTrue(segunda.getResponse().getContentAsString().contains("\"nome\":\"Corte\""));
+        assertNull(segunda.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void clienteQueAceitaGzipRecebeOCorpoComprimido() throws Exception {
+        byte[] json = servicos(null).getResponse().getContentAsByteArray();
+
+        MvcResult comprimida = servicos("gzip, deflate");
+
+        assertEquals("gzip", comprimida.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(comprimida.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        try (GZIPInputStream entrada = new GZIPInputStream(
+                new ByteArrayInputStream(comprimida.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(json, entrada.readAllBytes());
+        }
+    }
+
+    @Test
+    void gravacaoInvalidaAResposta() throws Exception {
+        servicos(null);
+        servico.setNome("Barba");
+        servicoService.update(servico.getId(), servico);
+        assertTrue(servicos(null).getResponse().getContentAsString().contains("\"nome\":\"Barba\""));
+
+        assertTrue(barbearia().contains("\"nome\":\"Respostas\""));
+        barbearia.setNome("Renomeada");
+        barbeariaService.update(barbearia.getId(), barbearia);
+        assertTrue(barbearia().contains("\"nome\":\"Renomeada\""));
+    }
+
+    @Test
+    void barbeariaInexistente() throws Exception {
+        assertEquals(404, mvc.perform(get("/api/barbearias/{id}", 987654L)).andReturn().getResponse().getStatus());
+    }
+
+    private MvcResult servicos(String acceptEncoding) throws Exception {
+        var requisicao = get("/api/servicos/barbearia/{id}", barbearia.getId());
+        if (acceptEncoding != null) {
+            requisicao.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus());
+        return resultado;
+    }
+
+    private String barbearia() throws Exception {
+        MvcResult resultado = mvc.perform(get("/api/barbearias/{id}", barbearia.getId())).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus());
+        return resultado.getResponse().getContentAsString();
+    }
+}
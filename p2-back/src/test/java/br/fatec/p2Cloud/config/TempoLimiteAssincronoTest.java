@@ -0,0 +1,47 @@
+package br.fatec.p2Cloud.config;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Tempo limite só na exportação; o padrão global fica como está
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tempolimite;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.mvc.async.request-timeout=PT20S",
+        "app.export.tempo-limite=PT2H"
+})
+@AutoConfigureMockMvc
+class TempoLimiteAssincronoTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BarbeariaRepository barbeariaRepository;
+
+    @Test
+    void exportacaoUsaOProprioTempoLimite() throws Exception {
+        Barbearia barbearia = barbeariaRepository.save(new Barbearia("Exportação", null, null, null, null));
+
+        MvcResult exportacao = mvc.perform(get("/api/agendas/barbearia/{id}/export", barbearia.getId())).andReturn();
+        assertTrue(exportacao.getRequest().isAsyncStarted());
+        assertEquals(2 * 60 * 60 * 1000L, exportacao.getRequest().getAsyncContext().getTimeout());
+        assertEquals(200, mvc.perform(asyncDispatch(exportacao)).andReturn().getResponse().getStatus());
+
+        // Mesmo StreamingResponseBody, mas sem definir(): fica no padrão
+        MvcResult invalida = mvc.perform(get("/api/agendas/barbearia/{id}/export", barbearia.getId())
+                .param("formato", "xml")).andReturn();
+        assertTrue(invalida.getRequest().isAsyncStarted());
+        assertEquals(20_000L, invalida.getRequest().getAsyncContext().getTimeout());
+    }
+}
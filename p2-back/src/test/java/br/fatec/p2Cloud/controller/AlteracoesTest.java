@@ -0,0 +1,160 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Banco próprio: o create-drop deste contexto não pode recriar as tabelas do contexto padrão
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:alteracoes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class AlteracoesTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Barbearia barbearia;
+
+    @BeforeEach
+    void criarBarbearia() {
+        barbearia = barbeariaService.save(new Barbearia("Alterações", null, null, null, null));
+    }
+
+    @Test
+    void clienteSincronizadoRecebeSoOQueMudou() throws Exception {
+        Cliente ana = clienteService.saveWithBarbearia(new Cliente("Ana", null, null, null, null), barbearia.getId());
+        Cliente bruno = clienteService.saveWithBarbearia(new Cliente("Bruno", null, null, null, null), barbearia.getId());
+
+        JsonNode inicial = alteracoes(null, null);
+        assertEquals(List.of(ana.getId(), bruno.getId()), ids(inicial.get("changed")));
+        assertFalse(inicial.get("hasMore").asBoolean());
+
+        JsonNode semMudanca = alteracoes(inicial.get("token").asText(), null);
+        assertEquals(0, semMudanca.get("changed").size());
+        assertEquals(0, semMudanca.get("removed").size());
+        assertEquals(inicial.get("token").asText(), semMudanca.get("token").asText());
+
+        clienteService.update(ana.getId(), new Cliente("Ana Maria", null, null, null, null));
+        clienteService.deleteById(bruno.getId());
+        JsonNode mudancas = alteracoes(semMudanca.get("token").asText(), null);
+        assertEquals(List.of(ana.getId()), ids(mudancas.get("changed")));
+        assertEquals("Ana Maria", mudancas.get("changed").get(0).get("nome").asText());
+        assertEquals(bruno.getId(), mudancas.get("removed").get(0).asLong());
+    }
+
+    @Test
+    void paginaPeloLimite() throws Exception {
+        List<Long> criados = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            criados.add(clienteService.saveWithBarbearia(new Cliente("Cliente " + i, null, null, null, null),
+                    barbearia.getId()).getId());
+        }
+
+        JsonNode primeira = alteracoes(null, 3);
+        assertTrue(primeira.get("hasMore").asBoolean());
+        JsonNode segunda = alteracoes(primeira.get("token").asText(), 3);
+        assertFalse(segunda.get("hasMore").asBoolean());
+
+        List<Long> recebidos = new ArrayList<>(ids(primeira.get("changed")));
+        recebidos.addAll(ids(segunda.get("changed")));
+        assertEquals(criados, recebidos);
+    }
+
+    @Test
+    void transacaoAbertaSeguraOToken() throws Exception {
+        JsonNode inicial = alteracoes(null, null);
+        CountDownLatch gravada = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Cliente> lenta = executor.submit(() -> transactionTemplate.execute(status -> {
+                Cliente cliente = clienteService.saveWithBarbearia(new Cliente("Lenta", null, null, null, null),
+                        barbearia.getId());
+                gravada.countDown();
+                try {
+                    commit.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return cliente;
+            }));
+            assertTrue(gravada.await(30, TimeUnit.SECONDS));
+            Cliente rapida = clienteService.saveWithBarbearia(new Cliente("Rápida", null, null, null, null),
+                    barbearia.getId());
+
+            // A rápida já aparece, mas o token não passa dela enquanto a lenta, com sequência menor, não confirmar
+            JsonNode durante = alteracoes(inicial.get("token").asText(), null);
+            assertEquals(List.of(rapida.getId()), ids(durante.get("changed")));
+            assertEquals(inicial.get("token").asText(), durante.get("token").asText());
+
+            commit.countDown();
+            Cliente cliente = lenta.get(30, TimeUnit.SECONDS);
+            JsonNode depois = alteracoes(durante.get("token").asText(), null);
+            assertEquals(List.of(cliente.getId(), rapida.getId()), ids(depois.get("changed")));
+            assertEquals(0, alteracoes(depois.get("token").asText(), null).get("changed").size());
+        } finally {
+            commit.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void tokenInvalido() throws Exception {
+        assertEquals(400, mvc.perform(get("/api/servicos/changes").param("since", "@@"))
+                .andReturn().getResponse().getStatus());
+    }
+
+    private JsonNode alteracoes(String token, Integer limite) throws Exception {
+        var requisicao = get("/api/clientes/changes").param("barbeariaId", barbearia.getId().toString());
+        if (token != null) {
+            requisicao.param("since", token);
+        }
+        if (limite != null) {
+            requisicao.param("limite", limite.toString());
+        }
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static List<Long> ids(JsonNode linhas) {
+        List<Long> ids = new ArrayList<>();
+        linhas.forEach(linha -> ids.add(linha.get("id").asLong()));
+        return ids;
+    }
+}
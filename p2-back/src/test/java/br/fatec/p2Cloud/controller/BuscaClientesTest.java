@@ -0,0 +1,125 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:busca;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BuscaClientesTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Barbearia centro;
+    private Barbearia bairro;
+
+    @BeforeAll
+    void popularBanco() {
+        centro = barbeariaService.save(new Barbearia("Centro", null, null, null, null));
+        bairro = barbeariaService.save(new Barbearia("Bairro", null, null, null, null));
+        clienteService.saveWithBarbearia(new Cliente("João Silva", "111.222.333-44", "(11) 98765-4321",
+                "joao@email.com", null), centro.getId());
+        clienteService.saveWithBarbearia(new Cliente("Ana Joaquina", null, "11 3333-0000", null, null), centro.getId());
+        clienteService.saveWithBarbearia(new Cliente("Mariana Conceição", null, null, "mari_100%@email.com", null),
+                centro.getId());
+        clienteService.saveWithBarbearia(new Cliente("Joana Prado", null, null, null, null), bairro.getId());
+    }
+
+    @Test
+    void semAcentoPorTrechoDoNome() throws Exception {
+        assertEquals(List.of("João Silva"), nomes(buscar("joão", centro.getId())));
+        assertEquals(List.of("Mariana Conceição"), nomes(buscar("CONCEICAO", centro.getId())));
+        assertEquals(List.of("João Silva"), nomes(buscar("joao sil", centro.getId())));
+    }
+
+    @Test
+    void quemComecaComOTrechoVemPrimeiro() throws Exception {
+        // "Joa": João começa com o trecho; Joaquina tem uma palavra que começa; Joana é de outra barbearia
+        assertEquals(List.of("João Silva", "Ana Joaquina"), nomes(buscar("joa", centro.getId())));
+        assertEquals(List.of("Joana Prado", "João Silva", "Ana Joaquina"), nomes(buscar("joa", null)));
+        assertEquals(List.of("Ana Joaquina", "Mariana Conceição"), nomes(buscar("ana", centro.getId())));
+    }
+
+    @Test
+    void limiteCortaEntreAsFaixas() throws Exception {
+        assertEquals(List.of("Joana Prado"), nomes(buscar("joa", null, 1)));
+        assertEquals(List.of("Joana Prado", "João Silva"), nomes(buscar("joa", null, 2)));
+        assertEquals(List.of("Ana Joaquina"), nomes(buscar("ana", centro.getId(), 1)));
+    }
+
+    @Test
+    void telefoneCpfEEmailComOuSemFormatacao() throws Exception {
+        assertEquals(List.of("João Silva"), nomes(buscar("98765-43", centro.getId())));
+        assertEquals(List.of("João Silva"), nomes(buscar("(11) 9876", centro.getId())));
+        assertEquals(List.of("João Silva"), nomes(buscar("222.333", centro.getId())));
+        assertEquals(List.of("João Silva"), nomes(buscar("joao@", centro.getId())));
+        assertEquals(List.of("Mariana Conceição"), nomes(buscar("mari_100%", centro.getId())));
+        assertEquals(List.of(), nomes(buscar("ri_1000", centro.getId())));
+    }
+
+    @Test
+    void trechoCurtoNaoBusca() throws Exception {
+        assertEquals(0, buscar("jo", centro.getId()).size());
+        assertEquals(0, buscar("  ", centro.getId()).size());
+        assertEquals(400, mvc.perform(get("/api/clientes/search").param("q", "joa").param("limite", "0"))
+                .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void termoDeBuscaNaoSaiNaResposta() throws Exception {
+        assertFalse(buscar("joao", centro.getId()).get(0).has("termoBusca"));
+        assertEquals(400, mvc.perform(get("/api/clientes/barbearia/{id}", centro.getId()).param("fields", "termoBusca"))
+                .andReturn().getResponse().getStatus());
+    }
+
+    private JsonNode buscar(String q, Long barbeariaId) throws Exception {
+        return buscar(q, barbeariaId, null);
+    }
+
+    private JsonNode buscar(String q, Long barbeariaId, Integer limite) throws Exception {
+        var requisicao = get("/api/clientes/search").param("q", q);
+        if (barbeariaId != null) {
+            requisicao.param("barbeariaId", barbeariaId.toString());
+        }
+        if (limite != null) {
+            requisicao.param("limite", limite.toString());
+        }
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsByteArray());
+    }
+
+    private static List<String> nomes(JsonNode clientes) {
+        List<String> nomes = new ArrayList<>();
+        clientes.forEach(cliente -> nomes.add(cliente.get("nome").asText()));
+        return nomes;
+    }
+}
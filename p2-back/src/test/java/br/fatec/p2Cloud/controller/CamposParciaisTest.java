@@ -0,0 +1,174 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// O SQL de cada consulta é guardado pelo StatementInspector, para conferir que as colunas que não
+// foram pedidas não são lidas. Banco próprio: as linhas daqui mudariam os números do ContagemSqlTest
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:campos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=br.fatec.p2Cloud.controller.CamposParciaisTest$ComandosSql"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CamposParciaisTest {
+
+    private static final List<String> COMANDOS = Collections.synchronizedList(new ArrayList<>());
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BarbeariaRepository barbeariaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Barbearia barbearia;
+
+    @BeforeAll
+    void popularBanco() {
+        barbearia = barbeariaRepository.save(new Barbearia("Campos", "12.345.678/0001-90", "1133334444",
+                "contato@campos.com", "Rua das Tesouras, 1"));
+        Cliente cliente = new Cliente("Ana", "123.456.789-00", "11999990000", "ana@email.com", "Rua B, 2");
+        cliente.setBarbearia(barbearia);
+        cliente = clienteRepository.save(cliente);
+        Servico servico = new Servico("Corte", 40.0, List.of("Bruno"), 30, "Corte simples");
+        servico.setBarbearia(barbearia);
+        servico = servicoRepository.save(servico);
+        for (int i = 0; i < 3; i++) {
+            Agenda agenda = new Agenda(LocalDateTime.of(2034, 3, 1, 9, 0).plusHours(i), "Agenda " + i);
+            agenda.setBarbearia(barbearia);
+            // A última fica sem cliente
+            agenda.setCliente(i < 2 ? cliente : null);
+            agenda.setServico(servico);
+            agenda.setFuncionario("Bruno");
+            agendaRepository.save(agenda);
+        }
+    }
+
+    @Test
+    void listaDeAgendasSoComOsCamposPedidos() throws Exception {
+        JsonNode agendas = json(get("/api/agendas/barbearia/{id}", barbearia.getId())
+                .param("fields", "id,data,cliente.nome,descricao"));
+
+        assertEquals(3, agendas.size());
+        assertEquals(Set.of("id", "data", "cliente", "descricao"), nomes(agendas.get(0)));
+        assertEquals(Set.of("nome"), nomes(agendas.get(0).get("cliente")));
+        assertEquals("Ana", agendas.get(0).get("cliente").get("nome").asText());
+        assertEquals(Set.of("id", "data", "descricao"), nomes(agendas.get(2)));
+
+        String sql = ultimoSelect();
+        assertTrue(sql.contains("nome"), sql);
+        for (String coluna : List.of("cpf", "email", "telefone", "endereco", "funcionario", "barbearias", "servicos")) {
+            assertFalse(sql.contains(coluna), () -> coluna + " em " + sql);
+        }
+    }
+
+    @Test
+    void associacaoInteiraTrazTodosOsAtributosSimples() throws Exception {
+        JsonNode servicos = json(get("/api/servicos/barbearia/{id}", barbearia.getId()).param("fields", "nome,barbearia"));
+
+        assertEquals(Set.of("id", "nome", "barbearia"), nomes(servicos.get(0)));
+        assertEquals(Set.of("id", "nome", "cnpj", "telefone", "email", "endereco"), nomes(servicos.get(0).get("barbearia")));
+    }
+
+    @Test
+    void paginasSeguemPeloCursorMesmoSemOsCamposDoCursor() throws Exception {
+        JsonNode primeira = json(get("/api/agendas").param("limite", "2").param("fields", "descricao"));
+        assertTrue(primeira.get("hasNext").asBoolean());
+        JsonNode segunda = json(get("/api/agendas").param("limite", "2").param("fields", "descricao")
+                .param("cursor", primeira.get("nextCursor").asText()));
+
+        assertEquals(List.of("Agenda 0", "Agenda 1"), descricoes(primeira.get("content")));
+        assertEquals(List.of("Agenda 2"), descricoes(segunda.get("content")));
+        assertFalse(segunda.get("hasNext").asBoolean());
+
+        JsonNode clientes = json(get("/api/clientes").param("fields", "nome"));
+        assertEquals(Set.of("id", "nome"), nomes(clientes.get("content").get(0)));
+        JsonNode barbearias = json(get("/api/barbearias").param("fields", "cnpj"));
+        assertEquals(Set.of("id", "cnpj"), nomes(barbearias.get("content").get(0)));
+    }
+
+    @Test
+    void campoInvalido() throws Exception {
+        for (String campos : List.of("senha", "cliente.barbearia", "funcionarios", "cliente.inexistente")) {
+            MvcResult resultado = mvc.perform(get("/api/agendas/barbearia/{id}", barbearia.getId()).param("fields", campos))
+                    .andReturn();
+            assertEquals(400, resultado.getResponse().getStatus(), campos);
+        }
+        assertEquals(400, mvc.perform(get("/api/servicos/barbearia/{id}", barbearia.getId()).param("fields", "funcionarios"))
+                .andReturn().getResponse().getStatus());
+    }
+
+    private JsonNode json(MockHttpServletRequestBuilder requisicao) throws Exception {
+        COMANDOS.clear();
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static String ultimoSelect() {
+        synchronized (COMANDOS) {
+            return COMANDOS.stream().filter(sql -> sql.startsWith("select")).reduce((a, b) -> b).orElseThrow();
+        }
+    }
+
+    private static Set<String> nomes(JsonNode objeto) {
+        Set<String> nomes = new TreeSet<>();
+        objeto.fieldNames().forEachRemaining(nomes::add);
+        return nomes;
+    }
+
+    private static List<String> descricoes(JsonNode agendas) {
+        List<String> descricoes = new ArrayList<>();
+        agendas.forEach(agenda -> descricoes.add(agenda.get("descricao").asText()));
+        return descricoes;
+    }
+
+    public static class ComandosSql implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            COMANDOS.add(sql);
+            return sql;
+        }
+    }
+}
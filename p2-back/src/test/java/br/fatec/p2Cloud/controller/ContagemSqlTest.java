@@ -0,0 +1,283 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+// Limites de SQL por endpoint sobre uma massa de dados com centenas de linhas: um N+1 (ou um fetch
+// EAGER esquecido) estoura o limite e quebra o build. Os caches são limpos antes de cada medição,
+// então os números valem para a primeira chamada. As páginas buscam limite + 1 linhas.
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ContagemSqlTest {
+
+    private static final int CLIENTES = 60;
+    private static final int SERVICOS = 6;
+    private static final int AGENDAS = 300;
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2032, 5, 3);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BarbeariaRepository barbeariaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    private Statistics statistics;
+    private Barbearia barbearia;
+    private Barbearia barbeariaEscrita;
+    private Servico servicoEscrita;
+    private List<Cliente> clientes;
+    private List<Servico> servicos;
+    private List<Agenda> agendas;
+
+    @BeforeAll
+    void popularBanco() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        barbearia = barbeariaRepository.save(new Barbearia("Contagem SQL", null, "1199990000", null, "Rua A"));
+        List<Barbearia> outras = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            outras.add(new Barbearia("Outra " + i, null, null, null, null));
+        }
+        barbeariaRepository.saveAll(outras);
+
+        // As escritas vão para outra barbearia, para não mexer nos números das leituras
+        barbeariaEscrita = barbeariaRepository.save(new Barbearia("Escritas", null, null, null, null));
+        servicoEscrita = new Servico("Corte", 40.0, List.of("Ana", "Bruno", "Carla"), 30, null);
+        servicoEscrita.setBarbearia(barbeariaEscrita);
+        servicoEscrita = servicoRepository.save(servicoEscrita);
+
+        servicos = new ArrayList<>();
+        for (int i = 0; i < SERVICOS; i++) {
+            Servico servico = new Servico("Serviço " + i, 30.0 + i, List.of("Ana", "Bruno", "Carla"), 30, null);
+            servico.setBarbearia(barbearia);
+            servicos.add(servico);
+        }
+        servicos = servicoRepository.saveAll(servicos);
+
+        clientes = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente("Cliente " + i, String.format("%03d.000.000-%02d", i, i % 100), null, null, null);
+            cliente.setBarbearia(barbearia);
+            clientes.add(cliente);
+        }
+        clientes = clienteRepository.saveAll(clientes);
+
+        agendas = new ArrayList<>();
+        for (int i = 0; i < AGENDAS; i++) {
+            LocalDateTime data = PRIMEIRO_DIA.plusDays(i / 10).atTime(9, 0).plusMinutes(30L * (i % 10));
+            Agenda agenda = new Agenda(data, "Agenda " + i);
+            agenda.setBarbearia(barbearia);
+            agenda.setCliente(clientes.get(i % CLIENTES));
+            agenda.setServico(servicos.get(i % SERVICOS));
+            agenda.setFuncionario("Ana");
+            agendas.add(agenda);
+        }
+        agendas = agendaRepository.saveAll(agendas);
+    }
+
+    @Test
+    void leiturasDeAgenda() throws Exception {
+        Long barbeariaId = barbearia.getId();
+        verificar(get("/api/agendas").param("limite", "200"), 200, 1, 0, 0);
+        verificar(get("/api/agendas").param("limite", "20"), 200, 1, 0, 0);
+        verificar(get("/api/agendas/barbearia/{id}", barbeariaId), 200, 1, 0, 0);
+        verificar(get("/api/agendas/cliente/{id}", clientes.get(0).getId()), 200, 1, 0, 0);
+        verificar(get("/api/agendas/periodo")
+                .param("inicio", PRIMEIRO_DIA.atStartOfDay().toString())
+                .param("fim", PRIMEIRO_DIA.plusDays(40).atStartOfDay().toString()), 200, 1, 0, 0);
+        verificar(get("/api/agendas/{id}", agendas.get(0).getId()), 200, 1, 4, 0);
+        // ?fields=: só as colunas pedidas, em tuplas, sem carregar entidades
+        verificar(get("/api/agendas").param("limite", "200").param("fields", "id,data,cliente.nome,descricao"), 200, 1, 0, 0);
+        verificar(get("/api/agendas/barbearia/{id}", barbeariaId).param("fields", "data,servico"), 200, 1, 0, 0);
+        verificar(get("/api/agendas/barbearia/{id}/export", barbeariaId).param("formato", "csv"),
+                200, 2, AGENDAS + CLIENTES + 1, 0);
+        // Histórico, remoções e o conteúdo das alteradas: três consultas por página
+        verificar(get("/api/agendas/changes").param("barbeariaId", barbeariaId.toString()).param("limite", "200"),
+                200, 3, 0, 0);
+    }
+
+    @Test
+    void escritasDeAgenda() throws Exception {
+        Long barbeariaId = barbeariaEscrita.getId();
+        Long servicoId = servicoEscrita.getId();
+        Long clienteId = clientes.get(1).getId();
+        LocalDate dia = PRIMEIRO_DIA.plusDays(60);
+        verificar(post("/api/agendas").contentType(MediaType.APPLICATION_JSON)
+                .content(agenda(dia.atTime(9, 0), servicoId, "Ana", "\"barbearia\":{\"id\":" + barbeariaId + "}")), 201, 4, 2, 0);
+        verificar(post("/api/agendas/barbearia/{id}", barbeariaId).contentType(MediaType.APPLICATION_JSON)
+                .content(agenda(dia.atTime(10, 0), servicoId, "Ana", null)), 201, 6, 2, 0);
+        verificar(post("/api/agendas/barbearia/{id}/cliente/{clienteId}", barbeariaId, clienteId).contentType(MediaType.APPLICATION_JSON)
+                .content(agenda(dia.atTime(11, 0), servicoId, "Ana", null)), 201, 6, 4, 0);
+        StringBuilder lote = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            lote.append(i > 0 ? "," : "").append(agenda(dia.plusDays(1 + i / 10).atTime(9, 0).plusMinutes(30L * (i % 10)),
+                    servicoId, "Bruno", "\"cliente\":{\"id\":" + clientes.get(i % CLIENTES).getId() + "}"));
+        }
+        lote.append("]");
+        verificar(post("/api/agendas/batch").param("barbeariaId", barbeariaId.toString())
+                .contentType(MediaType.APPLICATION_JSON).content(lote.toString()), 200, 8, CLIENTES + 2, 0);
+        Agenda existente = new Agenda(dia.atTime(14, 0), "Existente");
+        existente.setBarbearia(barbeariaEscrita);
+        existente.setServico(servicoEscrita);
+        existente.setFuncionario("Carla");
+        existente = agendaRepository.save(existente);
+        verificar(put("/api/agendas/{id}", existente.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(agenda(dia.atTime(15, 0), servicoId, "Carla", null)), 200, 6, 5, 1);
+        verificar(delete("/api/agendas/{id}", existente.getId()), 204, 3, 4, 0);
+    }
+
+    @Test
+    void clientes() throws Exception {
+        verificar(get("/api/clientes").param("limite", "50"), 200, 1, 50 + 1 + 1, 0);
+        verificar(get("/api/clientes/barbearia/{id}", barbearia.getId()), 200, 1, CLIENTES + 1, 0);
+        verificar(get("/api/clientes/{id}", clientes.get(0).getId()), 200, 1, 2, 0);
+        verificar(get("/api/clientes").param("limite", "50").param("fields", "nome,barbearia.nome"), 200, 1, 0, 0);
+        verificar(get("/api/clientes/barbearia/{id}", barbearia.getId()).param("fields", "nome"), 200, 1, 0, 0);
+        verificar(get("/api/clientes/changes").param("barbeariaId", barbearia.getId().toString()),
+                200, 3, CLIENTES + 1, 0);
+        verificar(post("/api/clientes").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Novo\",\"cpf\":\"900.000.000-01\"}"), 201, 2, 1, 0);
+        verificar(post("/api/clientes/barbearia/{id}", barbeariaEscrita.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Novo\",\"cpf\":\"900.000.000-02\"}"), 201, 3, 2, 0);
+        StringBuilder lote = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            lote.append(i > 0 ? "," : "").append(String.format("{\"nome\":\"Lote %d\",\"cpf\":\"901.000.%03d-00\"}", i, i));
+        }
+        lote.append("]");
+        verificar(post("/api/clientes/batch").param("barbeariaId", barbeariaEscrita.getId().toString())
+                .contentType(MediaType.APPLICATION_JSON).content(lote.toString()), 200, 8, 1, 0);
+        Cliente sem = clienteRepository.save(new Cliente("Sem agenda", "902.000.000-00", null, null, null));
+        verificar(put("/api/clientes/{id}", sem.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Editado\",\"cpf\":\"902.000.000-00\"}"), 200, 3, 2, 0);
+        verificar(delete("/api/clientes/{id}", sem.getId()), 204, 4, 2, 0);
+    }
+
+    @Test
+    void servicos() throws Exception {
+        // Funcionários vêm em lote (@BatchSize): uma busca de coleção por página, não uma por serviço
+        verificar(get("/api/servicos").param("limite", "20"), 200, 2, 20 + 1 + 2, 1);
+        verificar(get("/api/servicos/barbearia/{id}", barbearia.getId()), 200, 1, SERVICOS + 1, 0);
+        verificar(get("/api/servicos/{id}", servicos.get(0).getId()), 200, 1, 2, 0);
+        verificar(get("/api/servicos").param("limite", "20").param("fields", "nome,valor"), 200, 1, 0, 0);
+        verificar(get("/api/servicos/barbearia/{id}", barbearia.getId()).param("fields", "nome,duracao"), 200, 1, 0, 0);
+        verificar(get("/api/servicos/changes").param("barbeariaId", barbearia.getId().toString()),
+                200, 3, SERVICOS + 1, 0);
+        String servico = "{\"nome\":\"Novo\",\"valor\":20,\"duracao\":20,\"funcionarios\":[\"Ana\"]}";
+        verificar(post("/api/servicos").contentType(MediaType.APPLICATION_JSON).content(servico), 201, 3, 1, 0);
+        verificar(post("/api/servicos/barbearia/{id}", barbeariaEscrita.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(servico), 201, 4, 2, 0);
+        StringBuilder lote = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            lote.append(i > 0 ? "," : "").append(servico);
+        }
+        lote.append("]");
+        verificar(post("/api/servicos/batch").param("barbeariaId", barbeariaEscrita.getId().toString())
+                .contentType(MediaType.APPLICATION_JSON).content(lote.toString()), 200, 6, 1, 0);
+        Servico avulso = new Servico("Avulso", 10.0, List.of("Ana"), 15, null);
+        avulso.setBarbearia(barbeariaEscrita);
+        avulso = servicoRepository.save(avulso);
+        verificar(put("/api/servicos/{id}", avulso.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(servico), 200, 5, 2, 0);
+        verificar(delete("/api/servicos/{id}", avulso.getId()), 204, 5, 2, 0);
+    }
+
+    @Test
+    void barbearias() throws Exception {
+        verificar(get("/api/barbearias").param("limite", "20"), 200, 1, 20 + 1, 0);
+        verificar(get("/api/barbearias/{id}", barbearia.getId()), 200, 1, 1, 0);
+        verificar(get("/api/barbearias").param("limite", "20").param("fields", "nome"), 200, 1, 0, 0);
+        // Serviço, maior duração (janela da véspera) e a ocupação do dia
+        verificar(get("/api/barbearias/{id}/disponibilidade", barbearia.getId())
+                .param("servicoId", servicos.get(0).getId().toString())
+                .param("dia", PRIMEIRO_DIA.toString()), 200, 3, 2, 0);
+        verificar(post("/api/barbearias").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Nova\",\"cnpj\":\"90.000.000/0001-01\"}"), 201, 2, 0, 0);
+        StringBuilder lote = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            lote.append(i > 0 ? "," : "").append(String.format("{\"nome\":\"Lote %d\",\"cnpj\":\"91.000.%03d/0001-00\"}", i, i));
+        }
+        lote.append("]");
+        verificar(post("/api/barbearias/batch").contentType(MediaType.APPLICATION_JSON).content(lote.toString()), 200, 6, 0, 0);
+        Barbearia pequena = barbeariaRepository.save(new Barbearia("Pequena", null, null, null, null));
+        verificar(put("/api/barbearias/{id}", pequena.getId()).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nome\":\"Pequena editada\"}"), 200, 2, 1, 0);
+        // Só registra a exclusão; os DELETEs rodam depois, por JDBC, fora da requisição
+        verificar(delete("/api/barbearias/{id}", pequena.getId()), 202, 4, 0, 0);
+    }
+
+    private void verificar(RequestBuilder requisicao, int status, long maxComandos, long maxEntidades,
+                           long maxColecoes) throws Exception {
+        cacheManager.getCacheNames().forEach(nome -> {
+            Cache cache = cacheManager.getCache(nome);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        statistics.clear();
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        if (resultado.getRequest().isAsyncStarted()) {
+            resultado = mvc.perform(asyncDispatch(resultado)).andReturn();
+        }
+        String chamada = resultado.getRequest().getMethod() + " " + resultado.getRequest().getRequestURI();
+        String corpo = resultado.getResponse().getContentAsString();
+        assertEquals(status, resultado.getResponse().getStatus(), () -> chamada + ": " + corpo);
+        long comandos = statistics.getPrepareStatementCount();
+        long entidades = statistics.getEntityLoadCount();
+        long colecoes = statistics.getCollectionFetchCount();
+        assertTrue(comandos <= maxComandos, () -> chamada + ": " + comandos + " comandos SQL (limite " + maxComandos + ")");
+        assertTrue(entidades <= maxEntidades, () -> chamada + ": " + entidades + " entidades carregadas (limite " + maxEntidades + ")");
+        assertTrue(colecoes <= maxColecoes, () -> chamada + ": " + colecoes + " coleções buscadas (limite " + maxColecoes + ")");
+    }
+
+    private static String agenda(LocalDateTime data, Long servicoId, String funcionario, String extra) {
+        return "{\"data\":\"" + data + "\",\"descricao\":\"Contagem\",\"servico\":{\"id\":" + servicoId
+                + "},\"funcionario\":\"" + funcionario + "\"" + (extra != null ? "," + extra : "") + "}";
+    }
+}
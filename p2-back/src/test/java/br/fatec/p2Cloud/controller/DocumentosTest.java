@@ -0,0 +1,88 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:documentos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class DocumentosTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void cpfComESemPontuacaoSaoOMesmoCliente() throws Exception {
+        JsonNode criado = json(enviar(post("/api/clientes"), "{\"nome\":\"Ana\",\"cpf\":\"321.654.987-00\"}"), 201);
+        assertEquals("32165498700", criado.get("cpf").asText());
+
+        MvcResult repetido = enviar(post("/api/clientes"), "{\"nome\":\"Outra Ana\",\"cpf\":\"32165498700\"}");
+        assertEquals(400, repetido.getResponse().getStatus());
+        assertEquals("CPF já cadastrado", repetido.getResponse().getContentAsString());
+
+        Cliente outro = clienteService.save(new Cliente("Bia", "  ", null, null, null));
+        assertNull(outro.getCpf());
+        MvcResult alterado = enviar(put("/api/clientes/{id}", outro.getId()), "{\"nome\":\"Bia\",\"cpf\":\"321654987-00\"}");
+        assertEquals(400, alterado.getResponse().getStatus());
+        assertEquals("CPF já cadastrado", alterado.getResponse().getContentAsString());
+
+        assertEquals(criado.get("id").asLong(), clienteService.findByCpf("321.654.987-00").orElseThrow().getId());
+        assertEquals(criado.get("id").asLong(), clienteService.findByCpf("32165498700").orElseThrow().getId());
+    }
+
+    @Test
+    void cnpjComESemPontuacaoSaoAMesmaBarbearia() throws Exception {
+        JsonNode criada = json(enviar(post("/api/barbearias"), "{\"nome\":\"Navalha\",\"cnpj\":\"12.345.678/0001-90\"}"), 201);
+        assertEquals("12345678000190", criada.get("cnpj").asText());
+
+        MvcResult repetida = enviar(post("/api/barbearias"), "{\"nome\":\"Navalha 2\",\"cnpj\":\"12345678000190\"}");
+        assertEquals(400, repetida.getResponse().getStatus());
+        assertEquals("CNPJ já cadastrado", repetida.getResponse().getContentAsString());
+
+        Barbearia encontrada = barbeariaService.findByCnpj("12345678000190").orElseThrow();
+        assertEquals(criada.get("id").asLong(), encontrada.getId());
+        assertEquals(encontrada.getId(), barbeariaService.findByCnpj("12.345.678/0001-90").orElseThrow().getId());
+    }
+
+    @Test
+    void formatoForaDoPadraoContinuaInvalido() throws Exception {
+        for (String cpf : new String[]{"123-456", "abc.def.ghi-jk", "1234567890"}) {
+            MvcResult resultado = enviar(post("/api/clientes"), "{\"nome\":\"Caio\",\"cpf\":\"" + cpf + "\"}");
+            assertEquals(400, resultado.getResponse().getStatus(), cpf);
+        }
+    }
+
+    private MvcResult enviar(MockHttpServletRequestBuilder requisicao, String corpo) throws Exception {
+        return mvc.perform(requisicao.contentType(MediaType.APPLICATION_JSON).content(corpo)).andReturn();
+    }
+
+    private JsonNode json(MvcResult resultado, int status) throws Exception {
+        assertEquals(status, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
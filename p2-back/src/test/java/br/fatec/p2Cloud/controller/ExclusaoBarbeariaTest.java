@@ -0,0 +1,228 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import br.fatec.p2Cloud.repository.ClienteRepository;
+import br.fatec.p2Cloud.repository.ServicoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Lotes de duas linhas para cada etapa passar por vários lotes. Banco próprio: as remoções daqui
+// mudariam as listagens dos outros testes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exclusao;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.exclusoes.lote=2"
+})
+@AutoConfigureMockMvc
+class ExclusaoBarbeariaTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BarbeariaRepository barbeariaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void removeDependentesEmLotesEAcompanhaOProgresso() throws Exception {
+        Barbearia barbearia = barbeariaRepository.save(new Barbearia("Fechando", null, null, null, null));
+        Barbearia vizinha = barbeariaRepository.save(new Barbearia("Vizinha", null, null, null, null));
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            clientes.add(cliente("Cliente " + i, barbearia));
+        }
+        List<Servico> servicos = List.of(servico("Corte", barbearia), servico("Barba", barbearia), servico("Luzes", barbearia));
+        for (int i = 0; i < 7; i++) {
+            agenda(i, barbearia, clientes.get(i % clientes.size()), servicos.get(i % servicos.size()));
+        }
+        // Agendas da vizinha com um cliente ou serviço daqui: ficam com ela, só sem a referência
+        Cliente daVizinha = cliente("Da vizinha", vizinha);
+        Servico servicoDaVizinha = servico("Corte", vizinha);
+        Agenda comCliente = agenda(10, vizinha, clientes.get(0), servicoDaVizinha);
+        Agenda comServico = agenda(12, vizinha, daVizinha, servicos.get(1));
+        Agenda preservada = agenda(11, vizinha, daVizinha, null);
+        String tokenVizinha = json(get("/api/agendas/changes").param("barbeariaId", vizinha.getId().toString()))
+                .get("token").asText();
+
+        MvcResult aceito = mvc.perform(delete("/api/barbearias/{id}", barbearia.getId())).andReturn();
+        assertEquals(202, aceito.getResponse().getStatus());
+        JsonNode exclusao = objectMapper.readTree(aceito.getResponse().getContentAsString());
+        String local = aceito.getResponse().getHeader(HttpHeaders.LOCATION);
+        assertEquals("/api/barbearias/exclusoes/" + exclusao.get("id").asLong(), local);
+        assertEquals(barbearia.getId().longValue(), exclusao.get("barbeariaId").asLong());
+
+        JsonNode concluida = aguardar(local);
+        assertEquals("CONCLUIDA", concluida.get("situacao").asText(), concluida.toString());
+        assertEquals(7, concluida.get("agendasRemovidas").asInt());
+        assertEquals(3, concluida.get("servicosRemovidos").asInt());
+        assertEquals(5, concluida.get("clientesRemovidos").asInt());
+        assertTrue(concluida.hasNonNull("concluidaEm"));
+
+        assertEquals(404, mvc.perform(get("/api/barbearias/{id}", barbearia.getId())).andReturn().getResponse().getStatus());
+        Agenda semCliente = agendaRepository.findById(comCliente.getId()).orElseThrow();
+        assertNull(semCliente.getCliente());
+        assertEquals(servicoDaVizinha.getId(), semCliente.getServico().getId());
+        Agenda semServico = agendaRepository.findById(comServico.getId()).orElseThrow();
+        assertNull(semServico.getServico());
+        assertEquals(daVizinha.getId(), semServico.getCliente().getId());
+        assertTrue(agendaRepository.existsById(preservada.getId()));
+        assertTrue(clienteRepository.existsById(daVizinha.getId()));
+
+        // A sincronização incremental recebe as remoções, cada uma na barbearia da linha
+        Set<Long> removidos = ids(json(get("/api/clientes/changes").param("barbeariaId", barbearia.getId().toString()))
+                .get("removed"));
+        assertEquals(Set.copyOf(clientes.stream().map(Cliente::getId).toList()), removidos);
+        JsonNode daVizinhaAlteradas = json(get("/api/agendas/changes").param("barbeariaId", vizinha.getId().toString())
+                .param("since", tokenVizinha));
+        assertEquals(0, daVizinhaAlteradas.get("removed").size());
+        Set<Long> alteradas = new HashSet<>();
+        daVizinhaAlteradas.get("changed").forEach(agenda -> alteradas.add(agenda.get("id").asLong()));
+        assertEquals(Set.of(comCliente.getId(), comServico.getId()), alteradas);
+    }
+
+    @Test
+    void barbeariaComMuitosLotes() throws Exception {
+        Barbearia barbearia = barbeariaRepository.save(new Barbearia("Grande", null, null, null, null));
+        Servico servico = servico("Corte", barbearia);
+        List<Cliente> clientes = new ArrayList<>();
+        // Múltiplo do lote: o último lote cheio é seguido de um vazio
+        for (int i = 0; i < 40; i++) {
+            clientes.add(cliente("Cliente " + i, barbearia));
+        }
+        for (int i = 0; i < 51; i++) {
+            agenda(i, barbearia, clientes.get(i % clientes.size()), servico);
+        }
+
+        MvcResult aceito = mvc.perform(delete("/api/barbearias/{id}", barbearia.getId())).andReturn();
+        JsonNode concluida = aguardar(aceito.getResponse().getHeader(HttpHeaders.LOCATION));
+        assertEquals("CONCLUIDA", concluida.get("situacao").asText(), concluida.toString());
+        assertEquals(51, concluida.get("agendasRemovidas").asInt());
+        assertEquals(1, concluida.get("servicosRemovidos").asInt());
+        assertEquals(40, concluida.get("clientesRemovidos").asInt());
+        for (String tabela : List.of("agendas", "servicos", "clientes")) {
+            assertEquals(0, jdbcTemplate.queryForObject("select count(*) from " + tabela + " where barbearia_id = ?",
+                    Integer.class, barbearia.getId()), tabela);
+        }
+        assertEquals(92, jdbcTemplate.queryForObject("select count(*) from remocoes where barbearia_id = ?",
+                Integer.class, barbearia.getId()));
+    }
+
+    @Test
+    void deletesSimultaneosCriamUmaExclusaoSo() throws Exception {
+        Barbearia barbearia = barbeariaRepository.save(new Barbearia("Disputada", null, null, null, null));
+        for (int i = 0; i < 4; i++) {
+            cliente("Cliente " + i, barbearia);
+        }
+        int pedidos = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(pedidos);
+        List<Future<Integer>> respostas = new ArrayList<>();
+        for (int i = 0; i < pedidos; i++) {
+            respostas.add(executor.submit(() -> {
+                largada.await();
+                return mvc.perform(delete("/api/barbearias/{id}", barbearia.getId())).andReturn().getResponse().getStatus();
+            }));
+        }
+        largada.countDown();
+        for (Future<Integer> resposta : respostas) {
+            // 404 só se a exclusão já terminou antes deste pedido chegar
+            assertTrue(Set.of(202, 404).contains(resposta.get(30, TimeUnit.SECONDS)));
+        }
+        executor.shutdown();
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from exclusoes_barbearia where barbearia_id = ?",
+                Integer.class, barbearia.getId()));
+    }
+
+    @Test
+    void barbeariaOuExclusaoInexistente() throws Exception {
+        assertEquals(404, mvc.perform(delete("/api/barbearias/{id}", -1L)).andReturn().getResponse().getStatus());
+        assertEquals(404, mvc.perform(get("/api/barbearias/exclusoes/{id}", -1L)).andReturn().getResponse().getStatus());
+    }
+
+    private JsonNode aguardar(String local) throws Exception {
+        long limite = System.currentTimeMillis() + 10_000;
+        JsonNode exclusao = json(get(local));
+        while (!Set.of("CONCLUIDA", "FALHOU").contains(exclusao.get("situacao").asText())
+                && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+            exclusao = json(get(local));
+        }
+        return exclusao;
+    }
+
+    private Cliente cliente(String nome, Barbearia barbearia) {
+        Cliente cliente = new Cliente(nome, null, null, null, null);
+        cliente.setBarbearia(barbearia);
+        return clienteRepository.save(cliente);
+    }
+
+    private Servico servico(String nome, Barbearia barbearia) {
+        Servico servico = new Servico(nome, 40.0, List.of("Bruno", "Carla"), 30, null);
+        servico.setBarbearia(barbearia);
+        return servicoRepository.save(servico);
+    }
+
+    private Agenda agenda(int i, Barbearia barbearia, Cliente cliente, Servico servico) {
+        Agenda agenda = new Agenda(LocalDateTime.of(2035, 1, 7, 9, 0).plusHours(i), "Agenda " + i);
+        agenda.setBarbearia(barbearia);
+        agenda.setCliente(cliente);
+        agenda.setServico(servico);
+        return agendaRepository.save(agenda);
+    }
+
+    private JsonNode json(RequestBuilder requisicao) throws Exception {
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static Set<Long> ids(JsonNode lista) {
+        Set<Long> ids = new HashSet<>();
+        lista.forEach(id -> ids.add(id.asLong()));
+        return ids;
+    }
+}
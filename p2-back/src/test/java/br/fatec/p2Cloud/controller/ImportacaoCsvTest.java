@@ -0,0 +1,237 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import br.fatec.p2Cloud.service.ServicoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+
+// Lotes de duas linhas para os arquivos pequenos daqui passarem por mais de um lote
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacao;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.importacao.lote=2"
+})
+@AutoConfigureMockMvc
+class ImportacaoCsvTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Barbearia barbearia;
+
+    @BeforeEach
+    void criarBarbearia() {
+        barbearia = barbeariaService.save(new Barbearia("Importação", null, null, null, null));
+    }
+
+    @Test
+    void clientesComErrosPorLinha() throws Exception {
+        JsonNode resultado = importar("clientes", """
+                ﻿Nome;CPF;Telefone;Email
+                Ana Souza;111.222.333-01;(11) 99999-0001;ana@email.com
+                ;11122233302;;
+                Bruno Lima;123;;
+                ;;;
+                Carla Dias;11122233301;;
+                Davi Rocha;;;davi@email.com
+                "Eva; Filha";11122233303;;
+                """, null);
+
+        assertEquals(6, resultado.get("linhas").asInt());
+        assertEquals(3, resultado.get("inseridas").asInt());
+        assertEquals(3, resultado.get("falhas").asInt());
+        assertEquals(Map.of(3, "Nome do cliente é obrigatório", 4, "CPF inválido", 6, "CPF repetido no arquivo"),
+                erros(resultado));
+
+        Cliente ana = clienteService.findByCpf("11122233301").orElseThrow();
+        assertEquals("Ana Souza", ana.getNome());
+        assertEquals(barbearia.getId(), ana.getBarbearia().getId());
+        assertEquals("Eva; Filha", clienteService.findByCpf("111.222.333-03").orElseThrow().getNome());
+        // Entram na busca e na sincronização incremental como os gravados pelo JPA
+        assertEquals(1, json(get("/api/clientes/search").param("q", "davi").param("barbeariaId", barbearia.getId().toString()))
+                .size());
+        assertEquals(3, json(get("/api/clientes/changes").param("barbeariaId", barbearia.getId().toString()))
+                .get("changed").size());
+        // Os ids reservados da sequence não colidem com os do Hibernate
+        Cliente novo = clienteService.saveWithBarbearia(new Cliente("Depois", null, null, null, null), barbearia.getId());
+        assertNotEquals(ana.getId(), novo.getId());
+    }
+
+    @Test
+    void cpfExistenteAtualizaNaMesmaBarbeariaESoNela() throws Exception {
+        Barbearia outra = barbeariaService.save(new Barbearia("Outra", null, null, null, null));
+        clienteService.saveWithBarbearia(new Cliente("Fabio", "22233344401", "1100000000", null, null), barbearia.getId());
+        clienteService.saveWithBarbearia(new Cliente("Gil", "22233344402", null, null, null), outra.getId());
+
+        JsonNode resultado = importar("clientes", """
+                nome,cpf,telefone
+                Fábio Alves,222.333.444-01,11 91111-1111
+                Gil,222.333.444-02,
+                Hugo,222.333.444-03,
+                """, null);
+
+        assertEquals(1, resultado.get("inseridas").asInt());
+        assertEquals(1, resultado.get("atualizadas").asInt());
+        assertEquals(Map.of(3, "CPF cadastrado em outra barbearia"), erros(resultado));
+        Cliente fabio = clienteService.findByCpf("22233344401").orElseThrow();
+        assertEquals("Fábio Alves", fabio.getNome());
+        assertEquals("11 91111-1111", fabio.getTelefone());
+        assertEquals(outra.getId(), clienteService.findByCpf("22233344402").orElseThrow().getBarbearia().getId());
+    }
+
+    @Test
+    void servicosComValorEmPortuguesEFuncionarios() throws Exception {
+        servicoService.saveWithBarbearia(new Servico("Barba", 30.0, List.of("Ana"), 20, null), barbearia.getId());
+
+        JsonNode resultado = importar("servicos", """
+                Nome;Valor;Duração;Funcionarios
+                Corte;"1.234,50";45;Bruno | Carla
+                Barba;35;;Davi
+                Pigmentação;abc;;
+                Corte;40;;
+                Sobrancelha;-1;;
+                """, null);
+
+        assertEquals(1, resultado.get("inseridas").asInt());
+        assertEquals(1, resultado.get("atualizadas").asInt());
+        assertEquals(Map.of(4, "Valor inválido: abc", 5, "Serviço repetido no arquivo", 6, "Valor não pode ser negativo"),
+                erros(resultado));
+
+        Map<String, JsonNode> servicos = new TreeMap<>();
+        json(get("/api/servicos/barbearia/{id}", barbearia.getId())).forEach(servico -> servicos.put(servico.get("nome").asText(), servico));
+        assertEquals(List.of("Barba", "Corte"), List.copyOf(servicos.keySet()));
+        assertEquals(1234.5, servicos.get("Corte").get("valor").asDouble());
+        assertEquals(45, servicos.get("Corte").get("duracao").asInt());
+        assertEquals(List.of("Bruno", "Carla"), objectMapper.convertValue(servicos.get("Corte").get("funcionarios"), List.class));
+        assertEquals(35.0, servicos.get("Barba").get("valor").asDouble());
+        assertEquals(20, servicos.get("Barba").get("duracao").asInt());
+        assertEquals(List.of("Davi"), objectMapper.convertValue(servicos.get("Barba").get("funcionarios"), List.class));
+    }
+
+    @Test
+    void atualizacaoMantemColunasForaDoArquivo() throws Exception {
+        servicoService.saveWithBarbearia(new Servico("Navalhado", 50.0, List.of("Ana", "Bruno"), 40, "Com toalha quente"),
+                barbearia.getId());
+        clienteService.saveWithBarbearia(new Cliente("Lara", "44455566601", "1122223333", "lara@email.com", "Rua L 1"),
+                barbearia.getId());
+
+        assertEquals(1, importar("servicos", "nome;valor\nNavalhado;55\n", null).get("atualizadas").asInt());
+        assertEquals(1, importar("clientes", "nome;cpf;telefone\nLara Melo;444.555.666-01;\n", null)
+                .get("atualizadas").asInt());
+
+        JsonNode navalhado = json(get("/api/servicos/barbearia/{id}", barbearia.getId())).get(0);
+        assertEquals(55.0, navalhado.get("valor").asDouble());
+        assertEquals(40, navalhado.get("duracao").asInt());
+        assertEquals("Com toalha quente", navalhado.get("descricao").asText());
+        assertEquals(List.of("Ana", "Bruno"), objectMapper.convertValue(navalhado.get("funcionarios"), List.class));
+        Cliente lara = clienteService.findByCpf("44455566601").orElseThrow();
+        assertEquals("Lara Melo", lara.getNome());
+        assertEquals("1122223333", lara.getTelefone());
+        assertEquals("lara@email.com", lara.getEmail());
+        assertEquals("Rua L 1", lara.getEndereco());
+        // O termo de busca é recalculado com os valores que ficaram
+        assertEquals(1, json(get("/api/clientes/search").param("q", "lara@email").param("barbeariaId", barbearia.getId().toString()))
+                .size());
+    }
+
+    @Test
+    void loteComFalhaParaAImportacaoERetomaDaLinhaIndicada() throws Exception {
+        String arquivo = """
+                nome,cpf,endereco
+                Igor,333.444.555-01,
+                Julia,333.444.555-02,
+                Kaio,333.444.555-03,%s
+                Lia,333.444.555-04,
+                Kaio Repetido,333.444.555-01,
+                """;
+        JsonNode interrompida = importar("clientes", arquivo.formatted("x".repeat(300)), null);
+
+        // Lotes de 2: o primeiro (linhas 2 e 3) ficou gravado, o segundo falhou inteiro
+        assertEquals(2, interrompida.get("inseridas").asInt());
+        assertEquals(4, interrompida.get("retomarDaLinha").asInt());
+        assertTrue(interrompida.get("interrupcao").asText().startsWith("Falha ao gravar as linhas 4 a 5"),
+                interrompida.get("interrupcao").asText());
+
+        JsonNode retomada = importar("clientes", arquivo.formatted("Rua K 3"), 4);
+        assertEquals(3, retomada.get("linhas").asInt());
+        assertEquals(2, retomada.get("inseridas").asInt());
+        assertEquals(0, retomada.get("atualizadas").asInt());
+        // As linhas puladas continuam valendo para os repetidos do arquivo
+        assertEquals(Map.of(6, "CPF repetido no arquivo"), erros(retomada));
+        assertFalse(retomada.hasNonNull("retomarDaLinha"));
+        assertEquals("Rua K 3", clienteService.findByCpf("33344455503").orElseThrow().getEndereco());
+    }
+
+    @Test
+    void cabecalhoInvalidoOuBarbeariaInexistente() throws Exception {
+        assertEquals(400, status(requisicao("clientes", barbearia.getId(), "nome;idade\nAna;30\n")));
+        assertEquals(400, status(requisicao("servicos", barbearia.getId(), "nome;duracao\nCorte;30\n")));
+        assertEquals(400, status(requisicao("clientes", barbearia.getId(), "")));
+        assertEquals(404, status(requisicao("clientes", -1L, "nome\nAna\n")));
+    }
+
+    private JsonNode importar(String recurso, String conteudo, Integer retomarDaLinha) throws Exception {
+        MockMultipartHttpServletRequestBuilder requisicao = requisicao(recurso, barbearia.getId(), conteudo);
+        if (retomarDaLinha != null) {
+            requisicao.param("retomarDaLinha", retomarDaLinha.toString());
+        }
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static MockMultipartHttpServletRequestBuilder requisicao(String recurso, Long barbeariaId, String conteudo) {
+        return multipart("/api/{recurso}/barbearia/{id}/import", recurso, barbeariaId)
+                .file(new MockMultipartFile("arquivo", recurso + ".csv", "text/csv", conteudo.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private int status(MockMultipartHttpServletRequestBuilder requisicao) throws Exception {
+        return mvc.perform(requisicao).andReturn().getResponse().getStatus();
+    }
+
+    private JsonNode json(org.springframework.test.web.servlet.RequestBuilder requisicao) throws Exception {
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static Map<Integer, String> erros(JsonNode resultado) {
+        Map<Integer, String> erros = new TreeMap<>();
+        resultado.get("erros").forEach(erro -> erros.put(erro.get("linha").asInt(), erro.get("erro").asText()));
+        return erros;
+    }
+}
@@ -0,0 +1,158 @@
+package br.fatec.p2Cloud.controller;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Cliente;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.service.AgendaService;
+import br.fatec.p2Cloud.service.BarbeariaService;
+import br.fatec.p2Cloud.service.ClienteService;
+import br.fatec.p2Cloud.service.ServicoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Os atrasos são simulados nos spies dos services; o prazo das seções aqui é de 1 segundo
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:painel;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.painel.timeout=PT1S"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PainelTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @MockitoSpyBean
+    private ClienteService clienteService;
+
+    @MockitoSpyBean
+    private AgendaService agendaService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Barbearia barbearia;
+
+    @BeforeAll
+    void popularBanco() {
+        barbearia = barbeariaService.save(new Barbearia("Painel", null, null, null, null));
+        Cliente cliente = clienteService.saveWithBarbearia(
+                new Cliente("Ana", null, "11999990000", "ana@email.com", "Rua B, 2"), barbearia.getId());
+        Servico servico = servicoService.saveWithBarbearia(
+                new Servico("Corte", 40.0, List.of("Bruno"), 30, null), barbearia.getId());
+        Agenda agenda = new Agenda(LocalDateTime.of(2034, 5, 2, 9, 0), "Corte da Ana");
+        agenda.setCliente(cliente);
+        agenda.setServico(servico);
+        agenda.setFuncionario("Bruno");
+        agendaService.saveWithBarbearia(agenda, barbearia.getId());
+    }
+
+    @AfterEach
+    void semAtrasos() {
+        Mockito.reset(clienteService, agendaService);
+    }
+
+    @Test
+    void todasAsSecoes() throws Exception {
+        JsonNode painel = painel(barbearia.getId());
+
+        assertEquals("Painel", painel.get("barbearia").get("nome").asText());
+        assertEquals("Ana", painel.get("clientes").get(0).get("nome").asText());
+        assertEquals("Corte", painel.get("servicos").get(0).get("nome").asText());
+        assertEquals("Corte da Ana", painel.get("agendas").get(0).get("descricao").asText());
+        assertFalse(painel.has("erros"));
+    }
+
+    @Test
+    void secoesRodamAoMesmoTempo() throws Exception {
+        // Cada seção só segue quando a outra também chegou: em sequência, a primeira esperaria sozinha
+        // até desistir. Sem limite de tempo na medição, que dependeria da carga da máquina
+        CountDownLatch juntas = new CountDownLatch(2);
+        AtomicInteger encontros = new AtomicInteger();
+        Answer<Object> esperarAOutra = invocacao -> {
+            juntas.countDown();
+            if (juntas.await(800, TimeUnit.MILLISECONDS)) {
+                encontros.incrementAndGet();
+            }
+            return invocacao.callRealMethod();
+        };
+        doAnswer(esperarAOutra).when(clienteService).findByBarbeariaId(anyLong());
+        doAnswer(esperarAOutra).when(agendaService).findByBarbeariaId(anyLong());
+
+        JsonNode painel = painel(barbearia.getId());
+
+        assertEquals(2, encontros.get());
+        assertFalse(painel.has("erros"));
+        assertEquals(1, painel.get("clientes").size());
+        assertEquals(1, painel.get("agendas").size());
+    }
+
+    @Test
+    void secaoForaDoPrazoFicaDeFora() throws Exception {
+        doAnswer(atrasar(3000)).when(agendaService).findByBarbeariaId(anyLong());
+        doAnswer(invocacao -> {
+            throw new IllegalStateException("falha simulada");
+        }).when(clienteService).findByBarbeariaId(anyLong());
+
+        long inicio = System.nanoTime();
+        JsonNode painel = painel(barbearia.getId());
+        long duracao = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertTrue(duracao < 2500, duracao + " ms");
+        assertEquals("Painel", painel.get("barbearia").get("nome").asText());
+        assertEquals(1, painel.get("servicos").size());
+        assertFalse(painel.has("agendas"));
+        assertFalse(painel.has("clientes"));
+        assertEquals("timeout", painel.get("erros").get("agendas").asText());
+        assertEquals("erro", painel.get("erros").get("clientes").asText());
+    }
+
+    @Test
+    void barbeariaInexistente() throws Exception {
+        assertEquals(404, mvc.perform(get("/api/barbearias/{id}/dashboard", 999_999L)).andReturn()
+                .getResponse().getStatus());
+    }
+
+    private JsonNode painel(Long id) throws Exception {
+        MvcResult resultado = mvc.perform(get("/api/barbearias/{id}/dashboard", id)).andReturn();
+        assertEquals(200, resultado.getResponse().getStatus(), resultado.getResponse().getContentAsString());
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+
+    private static Answer<Object> atrasar(long milissegundos) {
+        return invocacao -> {
+            Thread.sleep(milissegundos);
+            return invocacao.callRealMethod();
+        };
+    }
+}
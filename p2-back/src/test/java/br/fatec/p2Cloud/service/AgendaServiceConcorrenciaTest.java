@@ -0,0 +1,100 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.HorarioOcupado;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AgendaServiceConcorrenciaTest {
+
+    private static final int RESERVAS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    @Test
+    void reservasSimultaneasNuncaSeSobrepoem() throws Exception {
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Concorrência", null, null, null, null));
+        Servico servico = servicoService.saveWithBarbearia(
+                new Servico("Corte", 40.0, List.of("Ana", "Bruno"), 30, null), barbearia.getId());
+        LocalDate dia = LocalDate.of(2031, 3, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < RESERVAS; i++) {
+            LocalDateTime inicio = dia.atTime(8, 0).plusMinutes(5L * random.nextInt(144));
+            String funcionario = random.nextBoolean() ? "Ana" : "Bruno";
+            resultados.add(executor.submit(() -> reservar(barbearia.getId(), servico.getId(), funcionario, inicio)));
+        }
+        int aceitas = 0;
+        for (Future<Boolean> resultado : resultados) {
+            if (resultado.get()) {
+                aceitas++;
+            }
+        }
+        executor.shutdown();
+
+        List<HorarioOcupado> gravadas = agendaRepository.findHorariosOcupados(
+                barbearia.getId(), dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+        assertEquals(aceitas, gravadas.size());
+        assertTrue(aceitas > 0);
+
+        Map<String, List<HorarioOcupado>> porFuncionario = gravadas.stream()
+                .collect(Collectors.groupingBy(HorarioOcupado::funcionario));
+        for (List<HorarioOcupado> agenda : porFuncionario.values()) {
+            agenda.sort(Comparator.comparing(HorarioOcupado::inicio));
+            for (int i = 1; i < agenda.size(); i++) {
+                HorarioOcupado anterior = agenda.get(i - 1);
+                HorarioOcupado atual = agenda.get(i);
+                assertTrue(!atual.inicio().isBefore(anterior.fim()),
+                        () -> "Sobreposição entre " + anterior + " e " + atual);
+            }
+        }
+    }
+
+    private boolean reservar(Long barbeariaId, Long servicoId, String funcionario, LocalDateTime inicio) {
+        Servico servico = new Servico();
+        servico.setId(servicoId);
+        Agenda agenda = new Agenda(inicio, "Reserva concorrente");
+        agenda.setServico(servico);
+        agenda.setFuncionario(funcionario);
+        try {
+            Agenda salva = agendaService.saveWithBarbearia(agenda, barbeariaId);
+            return Objects.nonNull(salva.getId());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.ResultadoLote;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conflito;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class AgendaServiceConflitoTest {
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Test
+    void agendaDaVesperaQueAtravessaAMeiaNoiteConflita() {
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Madrugada", null, null, null, null));
+        Servico longo = servicoService.saveWithBarbearia(
+                new Servico("Química", 90.0, List.of("Ana"), 90, null), barbearia.getId());
+        agendaService.saveWithBarbearia(agenda(longo, "Ana", LocalDateTime.of(2031, 7, 1, 23, 0)), barbearia.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> agendaService.saveWithBarbearia(
+                agenda(longo, "Ana", LocalDateTime.of(2031, 7, 2, 0, 15)), barbearia.getId()));
+        ResultadoLote lote = agendaService.saveLote(
+                List.of(agenda(longo, "Ana", LocalDateTime.of(2031, 7, 2, 0, 10))), barbearia.getId());
+        assertEquals(0, lote.sucesso());
+        assertNotNull(agendaService.saveWithBarbearia(
+                agenda(longo, "Ana", LocalDateTime.of(2031, 7, 2, 0, 30)), barbearia.getId()).getId());
+    }
+
+    @Test
+    void agendaSemFuncionarioConflitaComQualquerProfissional() {
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Sem profissional", null, null, null, null));
+        Servico corte = servicoService.saveWithBarbearia(
+                new Servico("Corte", 40.0, List.of("Ana", "Bruno"), 30, null), barbearia.getId());
+        agendaService.saveWithBarbearia(agenda(corte, null, LocalDateTime.of(2031, 7, 3, 10, 0)), barbearia.getId());
+        agendaService.saveWithBarbearia(agenda(corte, "Ana", LocalDateTime.of(2031, 7, 3, 14, 0)), barbearia.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> agendaService.saveWithBarbearia(
+                agenda(corte, "Bruno", LocalDateTime.of(2031, 7, 3, 10, 15)), barbearia.getId()));
+        assertThrows(IllegalArgumentException.class, () -> agendaService.saveWithBarbearia(
+                agenda(corte, null, LocalDateTime.of(2031, 7, 3, 14, 15)), barbearia.getId()));
+        ResultadoLote lote = agendaService.saveLote(List.of(
+                agenda(corte, "Ana", LocalDateTime.of(2031, 7, 3, 10, 20)),
+                agenda(corte, null, LocalDateTime.of(2031, 7, 3, 13, 45)),
+                agenda(corte, "Bruno", LocalDateTime.of(2031, 7, 3, 14, 0))), barbearia.getId());
+        assertEquals(1, lote.sucesso());
+    }
+
+    private static Agenda agenda(Servico servico, String funcionario, LocalDateTime data) {
+        Servico referencia = new Servico();
+        referencia.setId(servico.getId());
+        Agenda agenda = new Agenda(data, "Reserva");
+        agenda.setServico(referencia);
+        agenda.setFuncionario(funcionario);
+        return agenda;
+    }
+}
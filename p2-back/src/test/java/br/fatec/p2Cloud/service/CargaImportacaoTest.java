@@ -0,0 +1,130 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.ResultadoImportacao;
+import br.fatec.p2Cloud.model.Barbearia;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Importação de CSV grande: vazão e memória. Fora do build padrão; rodar com: ./mvnw test -Pcarga
+// O mesmo arquivo é importado com 50 mil e com 500 mil linhas; a memória viva (medida depois de
+// um GC completo a cada segundo) não pode acompanhar o tamanho do arquivo. Banco H2 em arquivo,
+// com cache pequeno: em memória as próprias linhas gravadas ocupariam o heap
+@Tag("carga")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/carga-importacao;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;CACHE_SIZE=16384",
+        "logging.level.br.fatec.p2Cloud=INFO"
+})
+class CargaImportacaoTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaImportacaoTest.class);
+
+    private static final long MB = 1024 * 1024;
+
+    // O que a importação de 500 mil linhas pode ter de memória viva a mais que a de 50 mil: o
+    // conjunto de CPFs do arquivo (um long por linha) e folga para o GC
+    private static final long CRESCIMENTO_MAXIMO = 64 * MB;
+
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @TempDir
+    private Path diretorio;
+
+    @Test
+    void memoriaNaoAcompanhaOTamanhoDoArquivo() throws Exception {
+        List<String> linhas = new ArrayList<>();
+        linhas.add(String.format("%-8s %10s %9s %12s %16s", "linhas", "arquivo MB", "tempo s", "linhas/s", "heap vivo MB"));
+        long picoPequeno = importar(50_000, 0, linhas);
+        long picoGrande = importar(500_000, 50_000, linhas);
+        log.info("Importação de clientes:{}{}", System.lineSeparator(), String.join(System.lineSeparator(), linhas));
+
+        assertTrue(picoGrande - picoPequeno < CRESCIMENTO_MAXIMO,
+                "Memória viva cresceu " + (picoGrande - picoPequeno) / MB + " MB com o arquivo 10 vezes maior");
+    }
+
+    private long importar(int quantidade, int primeiroCpf, List<String> linhas) throws IOException {
+        Path arquivo = gerar(quantidade, primeiroCpf);
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Carga " + quantidade, null, null, null, null));
+
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        memoria.gc();
+        AtomicLong pico = new AtomicLong(memoria.getHeapMemoryUsage().getUsed());
+        AtomicBoolean importando = new AtomicBoolean(true);
+        ExecutorService amostragem = Executors.newSingleThreadExecutor();
+        amostragem.execute(() -> {
+            while (importando.get()) {
+                memoria.gc();
+                pico.accumulateAndGet(memoria.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long inicio = System.nanoTime();
+        ResultadoImportacao resultado;
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            resultado = importacaoService.importarClientes(barbearia.getId(), entrada, null);
+        } finally {
+            importando.set(false);
+            amostragem.shutdownNow();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        try {
+            amostragem.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        assertEquals(quantidade, resultado.inseridas(), resultado.toString());
+        assertEquals(0, resultado.falhas(), resultado.toString());
+        linhas.add(String.format("%-8d %10.1f %9.1f %12.0f %16d", quantidade, Files.size(arquivo) / (double) MB,
+                segundos, quantidade / segundos, pico.get() / MB));
+        return pico.get();
+    }
+
+    // Escrito em stream: o arquivo de 500 mil linhas não passa inteiro pela memória do teste
+    private Path gerar(int quantidade, int primeiroCpf) throws IOException {
+        Path arquivo = diretorio.resolve("clientes-" + quantidade + ".csv");
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            saida.write("Nome;CPF;Telefone;Email;Endereço");
+            saida.newLine();
+            for (int i = 0; i < quantidade; i++) {
+                int cpf = primeiroCpf + i;
+                saida.write("Cliente " + cpf + ";" + String.format("%011d", cpf) + ";(11) 9" + String.format("%04d", i % 10_000)
+                        + "-" + String.format("%04d", i / 10_000) + ";cliente" + cpf + "@email.com;Rua " + i % 500 + ", " + i);
+                saida.newLine();
+            }
+        }
+        return arquivo;
+    }
+}
@@ -0,0 +1,77 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.dto.HorarioLivre;
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ocupacao;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class OcupacaoAgendaTest {
+
+    private static final LocalDate DIA = LocalDate.of(2031, 5, 12);
+
+    @Autowired
+    private OcupacaoAgenda ocupacaoAgenda;
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Test
+    void agendaSemFuncionarioOcupaTodosOsProfissionais() {
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Sem funcionário", null, null, null, null));
+        Servico servico = servicoService.saveWithBarbearia(
+                new Servico("Corte", 40.0, List.of("Ana", "Bruno"), 30, null), barbearia.getId());
+        agendaService.saveWithBarbearia(agenda(servico, null, LocalTime.of(10, 0)), barbearia.getId());
+
+        List<HorarioLivre> livres = ocupacaoAgenda.horariosLivres(barbearia.getId(), DIA, servico.getFuncionarios(),
+                servico.getDuracao(), LocalTime.of(9, 0), LocalTime.of(12, 0), DIA.atStartOfDay());
+
+        assertTrue(livres.stream().noneMatch(h -> h.inicio().equals(LocalTime.of(10, 0))));
+        assertTrue(livres.stream().noneMatch(h -> h.inicio().equals(LocalTime.of(9, 45))));
+        assertEquals(List.of("Ana", "Bruno"), livres.stream()
+                .filter(h -> h.inicio().equals(LocalTime.of(10, 30))).findFirst().orElseThrow().funcionarios());
+    }
+
+    @Test
+    void atualizarSemServicoEFuncionarioMantemOsAtuais() {
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Atualização parcial", null, null, null, null));
+        Servico servico = servicoService.saveWithBarbearia(
+                new Servico("Barba", 30.0, List.of("Ana"), 20, null), barbearia.getId());
+        Agenda salva = agendaService.saveWithBarbearia(agenda(servico, "Ana", LocalTime.of(14, 0)), barbearia.getId());
+
+        Agenda parcial = new Agenda(DIA.atTime(15, 0), "Remarcada");
+        Agenda atualizada = agendaService.update(salva.getId(), parcial);
+
+        assertEquals(servico.getId(), atualizada.getServico().getId());
+        assertEquals("Ana", atualizada.getFuncionario());
+        assertFalse(ocupacaoAgenda.horariosLivres(barbearia.getId(), DIA, List.of("Ana"), 20,
+                        LocalTime.of(15, 0), LocalTime.of(15, 20), DIA.atStartOfDay())
+                .stream().anyMatch(h -> h.inicio().equals(LocalTime.of(15, 0))));
+    }
+
+    private static Agenda agenda(Servico servico, String funcionario, LocalTime hora) {
+        Servico referencia = new Servico();
+        referencia.setId(servico.getId());
+        Agenda agenda = new Agenda(DIA.atTime(hora), "Reserva");
+        agenda.setServico(referencia);
+        agenda.setFuncionario(funcionario);
+        return agenda;
+    }
+}
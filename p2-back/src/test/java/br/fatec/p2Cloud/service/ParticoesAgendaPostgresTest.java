@@ -0,0 +1,136 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import br.fatec.p2Cloud.repository.BarbeariaRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// V4 (tabela particionada, partição padrão, agendas_cria_particao) e o arquivamento de uma partição
+// até o drop. Precisa de um PostgreSQL (./mvnw test -Ppostgres, ver pom.xml); o esquema é criado
+// pelas migrações num schema só deste teste, apagado no fim
+@Tag("postgres")
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ParticoesAgendaPostgresTest {
+
+    private static final String SCHEMA = "particoes_" + System.currentTimeMillis();
+
+    private static Path diretorio;
+
+    @Autowired
+    private ParticoesAgenda particoesAgenda;
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private BarbeariaRepository barbeariaRepository;
+
+    @Autowired
+    private AgendaRepository agendaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registro) throws IOException {
+        diretorio = Files.createTempDirectory("arquivamento");
+        registro.add("spring.datasource.url",
+                () -> System.getenv().getOrDefault("TESTES_POSTGRES_URL", "jdbc:postgresql://localhost:5432/p2cloud_teste"));
+        registro.add("spring.datasource.username", () -> System.getenv().getOrDefault("TESTES_POSTGRES_USUARIO", "postgres"));
+        registro.add("spring.datasource.password", () -> System.getenv().getOrDefault("TESTES_POSTGRES_SENHA", "postgres"));
+        registro.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        // public continua no caminho: extensões (pg_trgm) já instaladas lá são reaproveitadas
+        registro.add("spring.datasource.hikari.connection-init-sql", () -> "set search_path to " + SCHEMA + ", public");
+        registro.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registro.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registro.add("spring.flyway.enabled", () -> "true");
+        registro.add("spring.flyway.schemas", () -> SCHEMA);
+        registro.add("app.agendas.particoes.habilitado", () -> "true");
+        registro.add("app.arquivamento.destino", () -> "local");
+        registro.add("app.arquivamento.diretorio", diretorio::toString);
+    }
+
+    @AfterAll
+    void apagarSchema() {
+        jdbcTemplate.execute("drop schema if exists " + SCHEMA + " cascade");
+    }
+
+    @Test
+    void migracaoParticionaAgendas() {
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = 'agendas'::regclass", Integer.class));
+        assertEquals("PRIMARY KEY (id, data)", jdbcTemplate.queryForObject("select pg_get_constraintdef(oid) "
+                + "from pg_constraint where conname = 'pk_agendas' and conrelid = 'agendas'::regclass", String.class));
+        assertEquals("DEFAULT", jdbcTemplate.queryForObject(
+                "select pg_get_expr(relpartbound, oid) from pg_class where oid = 'agendas_padrao'::regclass", String.class));
+        String mesAtual = "agendas_p" + YearMonth.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+        assertFalse(jdbcTemplate.queryForObject("select to_regclass(?) is null", Boolean.class, mesAtual));
+    }
+
+    @Test
+    void criaArquivaEApagaAParticao() throws IOException {
+        Barbearia barbearia = barbeariaRepository.save(new Barbearia("Arquivo", null, null, null, null));
+        Agenda antiga = salvar(barbearia, LocalDateTime.of(2020, 1, 15, 10, 0));
+        Agenda recente = salvar(barbearia, LocalDateTime.now().plusDays(1));
+        String token = agendaService.findAlteracoes(null, barbearia.getId(), null).token();
+
+        // Sem partição do mês a linha fica na padrão; ao criar a partição ela é movida
+        assertEquals("agendas_padrao", particaoDe(antiga));
+        assertEquals("agendas_p202001",
+                jdbcTemplate.queryForObject("select agendas_cria_particao(date '2020-01-01')", String.class));
+        assertEquals("agendas_p202001", particaoDe(antiga));
+
+        assertEquals(List.of("agendas_p202001"), particoesAgenda.arquivarAntigas());
+
+        assertTrue(jdbcTemplate.queryForObject("select to_regclass('agendas_p202001') is null", Boolean.class));
+        assertFalse(agendaRepository.existsById(antiga.getId()));
+        assertTrue(agendaRepository.existsById(recente.getId()));
+        try (BufferedReader csv = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                Files.newInputStream(diretorio.resolve("agendas/agendas_p202001.csv.gz"))), StandardCharsets.UTF_8))) {
+            List<String> linhas = csv.lines().toList();
+            assertEquals(2, linhas.size(), linhas::toString);
+            assertTrue(linhas.get(0).startsWith("id,"), linhas.get(0));
+            assertTrue(linhas.get(1).startsWith(antiga.getId() + ","), linhas.get(1));
+        }
+
+        // A sincronização incremental fica sabendo da remoção
+        assertEquals(List.of(antiga.getId()), agendaService.findAlteracoes(token, barbearia.getId(), null).removed());
+    }
+
+    private Agenda salvar(Barbearia barbearia, LocalDateTime data) {
+        Agenda agenda = new Agenda(data, "Arquivamento");
+        agenda.setBarbearia(barbearia);
+        return agendaRepository.save(agenda);
+    }
+
+    private String particaoDe(Agenda agenda) {
+        return jdbcTemplate.queryForObject("select tableoid::regclass::text from agendas where id = ?",
+                String.class, agenda.getId());
+    }
+}
@@ -0,0 +1,21 @@
+package br.fatec.p2Cloud.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParticoesAgendaTest {
+
+    @Test
+    void arquivaSoMesesAnterioresAoLimiteEmOrdem() {
+        List<String> particoes = List.of("agendas_p202405", "agendas_padrao", "agendas_p202312",
+                "agendas_p202404", "agendas_p202401", "agendas_p2024", "outra_p202301");
+
+        List<String> antigas = ParticoesAgenda.anterioresA(particoes, YearMonth.of(2024, 4));
+
+        assertEquals(List.of("agendas_p202312", "agendas_p202401"), antigas);
+    }
+}
@@ -0,0 +1,152 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import br.fatec.p2Cloud.repository.AgendaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransmissaoAgendasTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\S+)\\nevent:CRIADA");
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @MockitoSpyBean
+    private AgendaRepository agendaRepository;
+
+    private Barbearia barbearia;
+    private Servico servico;
+
+    @BeforeEach
+    void criarBarbearia() {
+        barbearia = barbeariaService.save(new Barbearia("Stream", null, null, null, null));
+        servico = servicoService.saveWithBarbearia(new Servico("Corte", 40.0, List.of("Ana"), 30, null), barbearia.getId());
+    }
+
+    @Test
+    void enviaAgendaCriadaDepoisDoCommit() throws Exception {
+        MvcResult stream = assinar(null);
+
+        Agenda agenda = criarAgenda(LocalDateTime.of(2033, 1, 10, 9, 0));
+
+        String eventos = esperar(stream, "event:CRIADA");
+        assertTrue(eventos.contains("\"agendaId\":" + agenda.getId()), eventos);
+        assertTrue(eventos.contains("\"nome\":\"Corte\""), eventos);
+
+        agendaService.deleteById(agenda.getId());
+        assertTrue(esperar(stream, "event:REMOVIDA").contains("\"tipo\":\"REMOVIDA\""));
+    }
+
+    @Test
+    void reconexaoRecebeSoOQueFaltouDesdeOLastEventId() throws Exception {
+        MvcResult primeira = assinar(null);
+        Agenda vista = criarAgenda(LocalDateTime.of(2033, 2, 10, 9, 0));
+        Matcher id = ID.matcher(esperar(primeira, "event:CRIADA"));
+        assertTrue(id.find());
+
+        Agenda perdida = criarAgenda(LocalDateTime.of(2033, 2, 10, 10, 0));
+        esperar(primeira, "\"agendaId\":" + perdida.getId());
+
+        String reenviados = esperar(assinar(id.group(1)), "event:CRIADA");
+        assertTrue(reenviados.contains("\"agendaId\":" + perdida.getId()), reenviados);
+        assertFalse(reenviados.contains("\"agendaId\":" + vista.getId()), reenviados);
+        assertFalse(reenviados.contains("event:reset"), reenviados);
+    }
+
+    @Test
+    void lastEventIdDesconhecidoPedeReset() throws Exception {
+        assertTrue(esperar(assinar("outra-instancia-42"), "event:reset").contains("event:reset"));
+    }
+
+    @Test
+    void loteQueFalhaPedeResetAosAssinantesEAReconexao() throws Exception {
+        MvcResult stream = assinar(null);
+        criarAgenda(LocalDateTime.of(2033, 3, 10, 9, 0));
+        Matcher id = ID.matcher(esperar(stream, "event:CRIADA"));
+        assertTrue(id.find());
+
+        doThrow(new DataAccessResourceFailureException("banco fora")).when(agendaRepository).findResumosByIdIn(anyCollection());
+        Agenda perdida = criarAgenda(LocalDateTime.of(2033, 3, 10, 10, 0));
+        assertTrue(esperar(stream, "event:reset").contains("event:reset"));
+
+        String reconexao = esperar(assinar(id.group(1)), "event:reset");
+        assertFalse(reconexao.contains("\"agendaId\":" + perdida.getId()), reconexao);
+
+        // O stream continua depois da falha
+        reset(agendaRepository);
+        Agenda seguinte = criarAgenda(LocalDateTime.of(2033, 3, 10, 11, 0));
+        esperar(stream, "\"agendaId\":" + seguinte.getId());
+    }
+
+    @Test
+    void barbeariaInexistente() throws Exception {
+        assertEquals(404, mvc.perform(get("/api/agendas/barbearia/{id}/stream", 987654L)).andReturn()
+                .getResponse().getStatus());
+    }
+
+    private MvcResult assinar(String ultimoEventoId) throws Exception {
+        var requisicao = get("/api/agendas/barbearia/{id}/stream", barbearia.getId());
+        if (ultimoEventoId != null) {
+            requisicao.header("Last-Event-ID", ultimoEventoId);
+        }
+        MvcResult resultado = mvc.perform(requisicao).andReturn();
+        assertTrue(resultado.getRequest().isAsyncStarted());
+        return resultado;
+    }
+
+    private Agenda criarAgenda(LocalDateTime data) {
+        Agenda agenda = new Agenda(data, "stream");
+        agenda.setServico(servico);
+        agenda.setFuncionario("Ana");
+        return agendaService.saveWithBarbearia(agenda, barbearia.getId());
+    }
+
+    private String esperar(MvcResult stream, String trecho) throws Exception {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < limite) {
+            String conteudo = stream.getResponse().getContentAsString();
+            // Cada evento é escrito em partes; só vale depois da linha em branco que o encerra
+            if (conteudo.contains(trecho) && conteudo.endsWith("\n\n")) {
+                return conteudo;
+            }
+            Thread.sleep(20);
+        }
+        fail("Stream sem \"" + trecho + "\": " + stream.getResponse().getContentAsString());
+        return null;
+    }
+}
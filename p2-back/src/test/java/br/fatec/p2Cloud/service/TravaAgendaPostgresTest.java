@@ -0,0 +1,106 @@
+package br.fatec.p2Cloud.service;
+
+import br.fatec.p2Cloud.model.Agenda;
+import br.fatec.p2Cloud.model.Barbearia;
+import br.fatec.p2Cloud.model.Servico;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Confere o advisory lock de verdade; precisa de um PostgreSQL vazio (./mvnw test -Ppostgres, ver pom.xml)
+@Tag("postgres")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${TESTES_POSTGRES_URL:jdbc:postgresql://localhost:5432/p2cloud_teste}",
+        "spring.datasource.username=${TESTES_POSTGRES_USUARIO:postgres}",
+        "spring.datasource.password=${TESTES_POSTGRES_SENHA:postgres}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+class TravaAgendaPostgresTest {
+
+    @Autowired
+    private AgendaService agendaService;
+
+    @Autowired
+    private BarbeariaService barbeariaService;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void gravacaoSeguraODiaEAVesperaAteOCommit() throws Exception {
+        Barbearia barbearia = barbeariaService.save(new Barbearia("Trava", null, null, null, null));
+        Servico servico = servicoService.saveWithBarbearia(
+                new Servico("Corte", 40.0, List.of("Ana"), 60, null), barbearia.getId());
+        LocalDate dia = LocalDate.of(2031, 8, 5);
+
+        CountDownLatch gravada = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> transacao = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            Servico referencia = new Servico();
+            referencia.setId(servico.getId());
+            Agenda agenda = new Agenda(dia.atTime(0, 20), "Madrugada");
+            agenda.setServico(referencia);
+            agenda.setFuncionario("Ana");
+            agendaService.saveWithBarbearia(agenda, barbearia.getId());
+            gravada.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try (Connection conexao = dataSource.getConnection()) {
+            assertTrue(gravada.await(30, TimeUnit.SECONDS));
+            assertFalse(tentarTravar(conexao, barbearia.getId(), dia));
+            assertFalse(tentarTravar(conexao, barbearia.getId(), dia.minusDays(1)));
+            assertTrue(tentarTravar(conexao, barbearia.getId(), dia.plusDays(1)));
+
+            commit.countDown();
+            transacao.get(30, TimeUnit.SECONDS);
+            assertTrue(tentarTravar(conexao, barbearia.getId(), dia));
+            assertTrue(tentarTravar(conexao, barbearia.getId(), dia.minusDays(1)));
+        } finally {
+            commit.countDown();
+            executor.shutdown();
+        }
+    }
+
+    // Em autocommit o lock de transação é solto no fim do próprio comando
+    private static boolean tentarTravar(Connection conexao, Long barbeariaId, LocalDate dia) throws SQLException {
+        try (PreparedStatement comando = conexao.prepareStatement("select pg_try_advisory_xact_lock(?, ?)")) {
+            comando.setInt(1, barbeariaId.hashCode());
+            comando.setInt(2, (int) dia.toEpochDay());
+            try (ResultSet resultado = comando.executeQuery()) {
+                resultado.next();
+                return resultado.getBoolean(1);
+            }
+        }
+    }
+}
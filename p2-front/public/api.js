@@ -96,6 +96,13 @@ class BarbeariaAPI {
     return await response.json();
   }
 
+  // Barbearia, clientes, serviços e agendas em uma requisição; seções que faltarem vêm em "erros"
+  static async dashboard(id) {
+    const response = await fetch(`${API_BASE_URL}/barbearias/${id}/dashboard`);
+    if (!response.ok) throw new Error('Erro ao carregar painel da barbearia');
+    return await response.json();
+  }
+
   static async criar(barbearia) {
     const response = await fetch(`${API_BASE_URL}/barbearias`, {
       method: 'POST',
@@ -119,12 +126,20 @@ class BarbeariaAPI {
     return await response.json();
   }
 
+  // A exclusão roda em segundo plano: devolve a exclusão registrada, acompanhada com exclusao(id)
   static async deletar(id) {
     const response = await fetch(`${API_BASE_URL}/barbearias/${id}`, {
       method: 'DELETE'
     });
     if (!response.ok) throw new Error('Erro ao deletar barbearia');
-    return true;
+    return await response.json();
+  }
+
+  // situacao: PENDENTE, EXECUTANDO, CONCLUIDA ou FALHOU; etapa e contadores de linhas removidas
+  static async exclusao(exclusaoId) {
+    const response = await fetch(`${API_BASE_URL}/barbearias/exclusoes/${exclusaoId}`);
+    if (!response.ok) throw new Error('Erro ao buscar exclusão');
+    return await response.json();
   }
 }
 
@@ -132,9 +147,12 @@ class BarbeariaAPI {
  * Classe para comunicação com a API de Clientes
  */
 class ClienteAPI {
-  static async listar() {
-    const response = await fetch(`${API_BASE_URL}/clientes`);
+  static async listar(cursor) {
+    const params = cursor ? `?${new URLSearchParams({ cursor })}` : '';
+    const response = await fetch(`${API_BASE_URL}/clientes${params}`);
     if (!response.ok) throw new Error('Erro ao listar clientes');
+    // Paginada por cursor: devolve a página inteira ({ content, nextCursor, hasNext }); enquanto
+    // hasNext, a próxima vem de listar(pagina.nextCursor)
     return await response.json();
   }
 
@@ -144,6 +162,15 @@ class ClienteAPI {
     return await response.json();
   }
 
+  // Typeahead: trecho do nome, e-mail, CPF ou telefone (mínimo de 3 caracteres), melhores primeiro
+  static async buscar(q, barbeariaId) {
+    const params = new URLSearchParams({ q });
+    if (barbeariaId) params.append('barbeariaId', barbeariaId);
+    const response = await fetch(`${API_BASE_URL}/clientes/search?${params}`);
+    if (!response.ok) throw new Error('Erro ao buscar clientes');
+    return await response.json();
+  }
+
   static async criar(cliente) {
     const response = await fetch(`${API_BASE_URL}/clientes`, {
       method: 'POST',
@@ -202,6 +229,19 @@ class ClienteAPI {
     return await response.json();
   }
 
+  // CSV (arquivo de um <input type="file">); com retomarDaLinha reenvia o mesmo arquivo depois de uma interrupção
+  static async importar(barbeariaId, arquivo, retomarDaLinha) {
+    const form = new FormData();
+    form.append('arquivo', arquivo);
+    if (retomarDaLinha) form.append('retomarDaLinha', retomarDaLinha);
+    const response = await fetch(`${API_BASE_URL}/clientes/barbearia/${barbeariaId}/import`, {
+      method: 'POST',
+      body: form
+    });
+    if (!response.ok) throw new Error(await response.text() || 'Erro ao importar clientes');
+    return await response.json();
+  }
+
   static async atualizar(id, cliente) {
     const response = await fetch(`${API_BASE_URL}/clientes/${id}`, {
       method: 'PUT',
@@ -225,9 +265,12 @@ class ClienteAPI {
  * Classe para comunicação com a API de Serviços
  */
 class ServicoAPI {
-  static async listar() {
-    const response = await fetch(`${API_BASE_URL}/servicos`);
+  static async listar(cursor) {
+    const params = cursor ? `?${new URLSearchParams({ cursor })}` : '';
+    const response = await fetch(`${API_BASE_URL}/servicos${params}`);
     if (!response.ok) throw new Error('Erro ao listar serviços');
+    // Paginada por cursor: devolve a página inteira ({ content, nextCursor, hasNext }); enquanto
+    // hasNext, a próxima vem de listar(pagina.nextCursor)
     return await response.json();
   }
 
@@ -269,6 +312,19 @@ class ServicoAPI {
     return await response.json();
   }
 
+  // CSV (arquivo de um <input type="file">); com retomarDaLinha reenvia o mesmo arquivo depois de uma interrupção
+  static async importar(barbeariaId, arquivo, retomarDaLinha) {
+    const form = new FormData();
+    form.append('arquivo', arquivo);
+    if (retomarDaLinha) form.append('retomarDaLinha', retomarDaLinha);
+    const response = await fetch(`${API_BASE_URL}/servicos/barbearia/${barbeariaId}/import`, {
+      method: 'POST',
+      body: form
+    });
+    if (!response.ok) throw new Error(await response.text() || 'Erro ao importar serviços');
+    return await response.json();
+  }
+
   static async atualizar(id, servico) {
     const response = await fetch(`${API_BASE_URL}/servicos/${id}`, {
       method: 'PUT',
@@ -292,9 +348,12 @@ class ServicoAPI {
  * Classe para comunicação com a API de Agendas
  */
 class AgendaAPI {
-  static async listar() {
-    const response = await fetch(`${API_BASE_URL}/agendas`);
+  static async listar(cursor) {
+    const params = cursor ? `?${new URLSearchParams({ cursor })}` : '';
+    const response = await fetch(`${API_BASE_URL}/agendas${params}`);
     if (!response.ok) throw new Error('Erro ao listar agendas');
+    // Paginada por cursor: devolve a página inteira ({ content, nextCursor, hasNext }); enquanto
+    // hasNext, a próxima vem de listar(pagina.nextCursor)
     return await response.json();
   }
 